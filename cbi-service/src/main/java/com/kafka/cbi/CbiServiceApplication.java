@@ -8,8 +8,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"com.kafka.cbi", "com.kafka.shared"})
-@EnableJpaRepositories(basePackages = {"com.kafka.shared"})
-@EntityScan(basePackages = {"com.kafka.shared"})
+@EnableJpaRepositories(basePackages = {"com.kafka.cbi", "com.kafka.shared"})
+@EntityScan(basePackages = {"com.kafka.cbi", "com.kafka.shared"})
 public class CbiServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,11 @@
+package com.kafka.cbi.repository;
+
+import com.kafka.cbi.dto.ExternalService;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ExternalServiceRepository extends JpaRepository<ExternalService, Long> {
+
+    Optional<ExternalService> findByNameAndIsActiveTrue(String name);
+}
@@ -1,37 +1,166 @@
 package com.kafka.cbi.service;
 
 import com.kafka.shared.annotation.LogExecution;
+import com.kafka.shared.annotation.NonBlockingRetry;
+import com.kafka.shared.kafka.ParallelRecordProcessor;
+import com.kafka.shared.messaging.GraphQlCallMessage;
+import com.kafka.shared.messaging.ServiceCallMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class CbiKafkaListener {
 
-    private final ExternalApiService externalApiService;
+    private final ServiceCallExecutor serviceCallExecutor;
+    private final ParallelRecordProcessor parallelRecordProcessor;
 
     /**
      * Handle generic service calls coming from workflow-engine.
-     * The payload is currently treated as a raw String. For a real implementation,
-     * you should switch producer/consumer to JSON and bind to a DTO.
+     * The payload is decoded from its binary envelope by {@code EnvelopeDeserializer}; the call runs in
+     * {@link ServiceCallExecutor}, which replies to correlated requests. The record is done only when the call
+     * is: a failed call throws here and goes through the retry topics, and {@link #handleExhaustedCall}
+     * replies with the failure once the retries are used up.
      */
-    @KafkaListener(topics = "service-calls", groupId = "cbi-service-group")
+    @KafkaListener(topics = "service-calls", groupId = "cbi-service-group",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'record'}")
+    @NonBlockingRetry
     @LogExecution
-    public void handleServiceCall(@Payload String message) {
+    public void handleServiceCall(@Payload ServiceCallMessage message) {
         log.info("Received service-call message from Kafka: {}", message);
-        // At this stage we only log. Further enhancement can parse the message
-        // and delegate to ExternalApiService based on service/endpoint.
+        ServiceCallExecutor.await(serviceCallExecutor.execute(message));
     }
 
-    @KafkaListener(topics = "graphql-calls", groupId = "cbi-service-group")
+    @KafkaListener(topics = "graphql-calls", groupId = "cbi-service-group",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'record'}")
+    @NonBlockingRetry
     @LogExecution
-    public void handleGraphQlCall(@Payload String message) {
+    public void handleGraphQlCall(@Payload GraphQlCallMessage message) {
         log.info("Received graphql-call message from Kafka: {}", message);
+        ServiceCallExecutor.await(serviceCallExecutor.execute(message));
     }
-}
 
+    /**
+     * Calls that failed on every retry tier end up in {@code <topic>-dlt}; the workflow waiting for one gets
+     * the failure as its reply, and one-way calls are at least logged.
+     */
+    @DltHandler
+    public void handleExhaustedCall(
+            @Payload Object message,
+            @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) byte[] error) {
+        String reason = error != null ? new String(error, StandardCharsets.UTF_8) : "retries exhausted";
+        CompletableFuture<Void> reply = switch (message) {
+            case ServiceCallMessage call -> serviceCallExecutor.replyFailure(
+                    call.correlationId(), call.replyTo(), call.service(), new IllegalStateException(reason));
+            case GraphQlCallMessage call -> serviceCallExecutor.replyFailure(
+                    call.correlationId(), call.replyTo(), call.service(), new IllegalStateException(reason));
+            default -> {
+                log.error("Dead-lettered call of unexpected type {}: {}", message.getClass().getName(), reason);
+                yield CompletableFuture.completedFuture(null);
+            }
+        };
+        ServiceCallExecutor.await(reply);
+    }
+
+    /**
+     * Batch variant of {@link #handleServiceCall(ServiceCallMessage)} used when {@code kafka.listener.mode=batch}:
+     * one call, one log record and one offset commit per poll. The calls of a poll run side by side and the
+     * batch is done when all of them are; there are no retry topics here, so a failed call is answered with
+     * its failure right away.
+     */
+    @KafkaListener(topics = "service-calls", groupId = "cbi-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'batch'}")
+    @LogExecution
+    public void handleServiceCalls(List<ConsumerRecord<String, ServiceCallMessage>> records) {
+        log.info("Received {} service-call messages from Kafka", records.size());
+        List<CompletableFuture<Void>> calls = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, ServiceCallMessage> record : records) {
+            log.debug("service-call {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), record.value());
+            if (!decoded(record)) {
+                continue;
+            }
+            calls.add(serviceCallExecutor.executeOnce(record.value()));
+        }
+        ServiceCallExecutor.await(CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)));
+    }
+
+    @KafkaListener(topics = "graphql-calls", groupId = "cbi-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'batch'}")
+    @LogExecution
+    public void handleGraphQlCalls(List<ConsumerRecord<String, GraphQlCallMessage>> records) {
+        log.info("Received {} graphql-call messages from Kafka", records.size());
+        List<CompletableFuture<Void>> calls = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, GraphQlCallMessage> record : records) {
+            log.debug("graphql-call {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), record.value());
+            if (!decoded(record)) {
+                continue;
+            }
+            calls.add(serviceCallExecutor.executeOnce(record.value()));
+        }
+        ServiceCallExecutor.await(CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)));
+    }
 
+    /**
+     * Parallel variants used when {@code kafka.listener.mode=parallel}: records of one poll are processed
+     * concurrently (in order per key) and offsets are committed as contiguous ranges complete, so a slow
+     * call no longer holds up the rest of its partition. A record completes when its call does, so
+     * {@code max-in-flight} bounds the outstanding HTTP calls; a failed call is answered with its failure.
+     */
+    @KafkaListener(topics = "service-calls", groupId = "cbi-service-group",
+            containerFactory = "parallelKafkaListenerContainerFactory",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'parallel'}")
+    @LogExecution
+    public void dispatchServiceCalls(List<ConsumerRecord<String, ServiceCallMessage>> records, Consumer<?, ?> consumer) {
+        parallelRecordProcessor.processAsync(records, consumer,
+                record -> {
+                    if (!decoded(record)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    log.info("Processing service-call message from Kafka: {}", record.value());
+                    return serviceCallExecutor.executeOnce(record.value());
+                });
+    }
+
+    @KafkaListener(topics = "graphql-calls", groupId = "cbi-service-group",
+            containerFactory = "parallelKafkaListenerContainerFactory",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'parallel'}")
+    @LogExecution
+    public void dispatchGraphQlCalls(List<ConsumerRecord<String, GraphQlCallMessage>> records, Consumer<?, ?> consumer) {
+        parallelRecordProcessor.processAsync(records, consumer,
+                record -> {
+                    if (!decoded(record)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    log.info("Processing graphql-call message from Kafka: {}", record.value());
+                    return serviceCallExecutor.executeOnce(record.value());
+                });
+    }
+
+    /**
+     * Batch containers do not route undecodable records to the error handler: {@code ErrorHandlingDeserializer}
+     * leaves their value {@code null}, and they are skipped.
+     */
+    private static boolean decoded(ConsumerRecord<?, ?> record) {
+        if (record.value() == null) {
+            log.error("Skipping undecodable record {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return false;
+        }
+        return true;
+    }
+}
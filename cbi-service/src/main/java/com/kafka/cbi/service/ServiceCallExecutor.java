@@ -0,0 +1,121 @@
+package com.kafka.cbi.service;
+
+import com.kafka.cbi.dto.ExternalService;
+import com.kafka.cbi.repository.ExternalServiceRepository;
+import com.kafka.shared.messaging.GraphQlCallMessage;
+import com.kafka.shared.messaging.ServiceCallMessage;
+import com.kafka.shared.messaging.ServiceCallReplyMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Executes the service and GraphQL calls requested by workflow steps through {@link ExternalApiService}.
+ * <p>
+ * Calls are non-blocking: {@code execute} looks the service up by name and returns a future that completes
+ * once the response has been received and, when the request carries a correlation id, published as a
+ * {@link ServiceCallReplyMessage} to its {@code replyTo} topic, keyed by the correlation id. A failed call
+ * fails the future without replying, so a record-mode listener can hand it to its retry topics; the failure
+ * reply is sent by {@link #replyFailure} once the record is given up. {@code executeOnce} is for listener
+ * modes without retries and replies with the failure right away. An unknown or inactive service is never
+ * retried: it is answered with a failure reply at once.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ServiceCallExecutor {
+
+    private final ExternalApiService externalApiService;
+    private final ExternalServiceRepository externalServiceRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    public CompletableFuture<Void> execute(ServiceCallMessage message) {
+        return dispatch(message.service(), message.correlationId(), message.replyTo(),
+                service -> externalApiService.callRestApi(service, message.endpoint(), message.context()));
+    }
+
+    public CompletableFuture<Void> execute(GraphQlCallMessage message) {
+        return dispatch(message.service(), message.correlationId(), message.replyTo(),
+                service -> externalApiService.callGraphQLApi(service, message.query(), message.context()));
+    }
+
+    /**
+     * Like {@link #execute(ServiceCallMessage)}, but a failed call is answered with a failure reply instead of
+     * failing the returned future.
+     */
+    public CompletableFuture<Void> executeOnce(ServiceCallMessage message) {
+        return execute(message).exceptionallyCompose(error ->
+                replyFailure(message.correlationId(), message.replyTo(), message.service(), error));
+    }
+
+    public CompletableFuture<Void> executeOnce(GraphQlCallMessage message) {
+        return execute(message).exceptionallyCompose(error ->
+                replyFailure(message.correlationId(), message.replyTo(), message.service(), error));
+    }
+
+    /**
+     * Tell the waiting workflow that the call to {@code serviceName} failed for good.
+     */
+    public CompletableFuture<Void> replyFailure(String correlationId, String replyTo, String serviceName,
+                                                Throwable error) {
+        Throwable cause = unwrap(error);
+        log.error("Call to service '{}' failed: {}", serviceName, cause.getMessage());
+        return reply(replyTo, ServiceCallReplyMessage.failure(correlationId, cause.getMessage()));
+    }
+
+    /**
+     * Wait for a call returned by this executor on a listener thread, rethrowing its failure so the container's
+     * error handling (retry topics, DLT) sees it.
+     */
+    public static void await(CompletableFuture<Void> call) {
+        try {
+            call.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        }
+    }
+
+    private CompletableFuture<Void> dispatch(String serviceName, String correlationId, String replyTo,
+                                             Function<ExternalService, Mono<String>> call) {
+        Optional<ExternalService> service = externalServiceRepository.findByNameAndIsActiveTrue(serviceName);
+        if (service.isEmpty()) {
+            log.warn("No active external service named '{}'", serviceName);
+            return reply(replyTo, ServiceCallReplyMessage.failure(correlationId,
+                    "Unknown or inactive external service: " + serviceName));
+        }
+
+        Mono<String> response;
+        try {
+            response = call.apply(service.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return response.defaultIfEmpty("").toFuture()
+                .thenCompose(body -> reply(replyTo, ServiceCallReplyMessage.success(correlationId, body)));
+    }
+
+    private CompletableFuture<Void> reply(String replyTo, ServiceCallReplyMessage reply) {
+        if (reply.correlationId() == null || replyTo == null) {
+            // One-way call: nobody waits for the result.
+            return CompletableFuture.completedFuture(null);
+        }
+        return kafkaTemplate.send(replyTo, reply.correlationId(), reply).<Void>thenApply(result -> null)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish reply {} to {}", reply.correlationId(), replyTo, ex);
+                    }
+                });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
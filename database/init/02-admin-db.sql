@@ -2,14 +2,13 @@
 USE
 admin_db;
 
--- System logs table
+-- System logs table, partitioned by day on created_at. SystemLogPartitionManager in spring-boot-admin
+-- splits p_future into daily partitions ahead of time and drops those past the retention window.
 CREATE TABLE IF NOT EXISTS system_logs
 (
     id
     BIGINT
-    AUTO_INCREMENT
-    PRIMARY
-    KEY,
+    AUTO_INCREMENT,
     service_name
     VARCHAR
 (
@@ -47,21 +46,133 @@ CREATE TABLE IF NOT EXISTS system_logs
 ),
     user_agent TEXT,
     exception_stack TEXT,
+    exception_fingerprint VARCHAR
+(
+    16
+),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    INDEX idx_service_name
+    -- Set by the database on insert; SystemLogRollupService finds late rows by it
+    ingested_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_created_at_id
 (
-    service_name
+    created_at,
+    id
+),
+    INDEX idx_service_created_at_id
+(
+    service_name,
+    created_at,
+    id
+),
+    INDEX idx_level_created_at_id
+(
+    log_level,
+    created_at,
+    id
+),
+    INDEX idx_service_level_created_at_id
+(
+    service_name,
+    log_level,
+    created_at,
+    id
 ),
-    INDEX idx_created_at
+    INDEX idx_created_at_fingerprint
 (
+    created_at,
+    exception_fingerprint
+),
+    INDEX idx_ingested_at
+(
+    ingested_at
+),
+    PRIMARY KEY
+(
+    id,
     created_at
+)
+    )
+    PARTITION BY RANGE
+(
+    UNIX_TIMESTAMP
+(
+    created_at
+)
+) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Distinct exception stacks referenced by system_logs.exception_fingerprint
+CREATE TABLE IF NOT EXISTS exception_fingerprints
+(
+    fingerprint
+    VARCHAR
+(
+    16
+) PRIMARY KEY,
+    exception_class VARCHAR
+(
+    255
 ),
-    INDEX idx_log_level
+    stack_trace TEXT,
+    occurrence_count BIGINT NOT NULL DEFAULT 0,
+    first_seen TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_seen TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_last_seen
 (
-    log_level
+    last_seen
 )
     );
 
+-- Minute and hour aggregates of system_logs per service and method, written by SystemLogRollupService
+CREATE TABLE IF NOT EXISTS system_log_rollups
+(
+    granularity
+    VARCHAR
+(
+    10
+) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    service_name VARCHAR
+(
+    100
+) NOT NULL,
+    class_name VARCHAR
+(
+    200
+) NOT NULL,
+    method_name VARCHAR
+(
+    100
+) NOT NULL,
+    call_count BIGINT NOT NULL,
+    error_count BIGINT NOT NULL,
+    sum_ms BIGINT NOT NULL,
+    min_ms BIGINT NOT NULL,
+    max_ms BIGINT NOT NULL,
+    latency_sketch BLOB,
+    PRIMARY KEY
+(
+    granularity,
+    bucket_start,
+    service_name,
+    class_name,
+    method_name
+)
+    );
+
+-- Progress of each rollup granularity. MINUTE: raw rows ingested before rolled_until are aggregated (by
+-- ingested_at, so late rows are still picked up); HOUR: hour buckets before rolled_until have been rolled
+CREATE TABLE IF NOT EXISTS system_log_rollup_watermarks
+(
+    granularity
+    VARCHAR
+(
+    10
+) PRIMARY KEY,
+    rolled_until DATETIME NOT NULL
+    );
+
 -- Sample data
 INSERT INTO system_logs (service_name, method_name, class_name, log_level, message, execution_time_ms, created_at)
 VALUES ('admin-service', 'getLogs', 'LogController', 'INFO', 'Retrieved logs successfully', 150, NOW()),
@@ -82,6 +82,11 @@ CREATE TABLE IF NOT EXISTS workflow_instances
     completed_at TIMESTAMP NULL,
     execution_time_ms BIGINT,
     error_message TEXT,
+    next_step_index INT NULL,
+    resume_at TIMESTAMP NULL,
+    correlation_id VARCHAR(64) NULL,
+    checkpointed_at TIMESTAMP NULL,
+    definition_revision VARCHAR(32) NULL,
     FOREIGN KEY
 (
     workflow_definition_id
@@ -100,6 +105,20 @@ CREATE TABLE IF NOT EXISTS workflow_instances
     INDEX idx_started_at
 (
     started_at
+),
+    INDEX idx_status_resume_at
+(
+    status,
+    resume_at
+),
+    UNIQUE INDEX idx_correlation_id
+(
+    correlation_id
+),
+    INDEX idx_status_checkpointed_at
+(
+    status,
+    checkpointed_at
 )
     );
 
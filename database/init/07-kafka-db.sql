@@ -105,18 +105,61 @@ CREATE TABLE IF NOT EXISTS system_logs
 ),
     user_agent TEXT,
     exception_stack TEXT,
+    exception_fingerprint VARCHAR
+(
+    16
+),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    INDEX idx_service_name
+    INDEX idx_created_at_id
 (
-    service_name
+    created_at,
+    id
+),
+    INDEX idx_service_created_at_id
+(
+    service_name,
+    created_at,
+    id
+),
+    INDEX idx_level_created_at_id
+(
+    log_level,
+    created_at,
+    id
 ),
-    INDEX idx_created_at
+    INDEX idx_service_level_created_at_id
+(
+    service_name,
+    log_level,
+    created_at,
+    id
+),
+    INDEX idx_created_at_fingerprint
+(
+    created_at,
+    exception_fingerprint
+)
+    );
+
+-- Distinct exception stacks referenced by system_logs.exception_fingerprint
+CREATE TABLE IF NOT EXISTS exception_fingerprints
+(
+    fingerprint
+    VARCHAR
+(
+    16
+) PRIMARY KEY,
+    exception_class VARCHAR
 (
-    created_at
+    255
 ),
-    INDEX idx_log_level
+    stack_trace TEXT,
+    occurrence_count BIGINT NOT NULL DEFAULT 0,
+    first_seen TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_seen TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_last_seen
 (
-    log_level
+    last_seen
 )
     );
 
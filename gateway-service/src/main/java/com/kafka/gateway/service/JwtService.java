@@ -54,23 +54,23 @@ public class JwtService {
         return (username.equals(user.getUsername()) && !isTokenExpired(token));
     }
 
-    @LogExecution
+    @LogExecution(slowThresholdMs = 50)
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
-    @LogExecution
+    @LogExecution(slowThresholdMs = 50)
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    @LogExecution
+    @LogExecution(slowThresholdMs = 50)
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    @LogExecution
+    @LogExecution(slowThresholdMs = 50)
     private Claims extractAllClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
@@ -79,7 +79,7 @@ public class JwtService {
                 .getBody();
     }
 
-    @LogExecution
+    @LogExecution(slowThresholdMs = 50)
     private Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -1,11 +1,13 @@
 package com.kafka.kafka.controller;
 
+import com.kafka.kafka.service.DeadLetterService;
 import com.kafka.kafka.service.KafkaManagementService;
 import com.kafka.shared.annotation.LogExecution;
 import com.kafka.shared.dto.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -14,6 +16,7 @@ import java.util.Map;
 public class KafkaController {
 
     private final KafkaManagementService kafkaManagementService;
+    private final DeadLetterService deadLetterService;
 
     @GetMapping("/cluster")
     @LogExecution
@@ -71,4 +74,35 @@ public class KafkaController {
         kafkaManagementService.sendMessage(topic, key, message);
         return ApiResponse.success("Message sent successfully", "Message sent to topic: " + topic);
     }
+
+    @GetMapping("/dlt/{topicName}/messages")
+    @LogExecution
+    public ApiResponse<List<Map<String, Object>>> getDeadLetters(
+            @PathVariable String topicName,
+            @RequestParam(required = false) Integer partition,
+            @RequestParam(defaultValue = "0") long fromOffset,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        if (!topicName.endsWith(DeadLetterService.DLT_SUFFIX)) {
+            return ApiResponse.error("Not a dead-letter topic: " + topicName);
+        }
+        List<Map<String, Object>> messages = deadLetterService.inspect(topicName, partition, fromOffset,
+                Math.max(1, Math.min(limit, 500)));
+        return ApiResponse.success("Dead-letter messages retrieved successfully", messages);
+    }
+
+    @PostMapping("/dlt/{topicName}/replay")
+    @LogExecution
+    public ApiResponse<Map<String, Object>> replayDeadLetters(
+            @PathVariable String topicName,
+            @RequestParam(defaultValue = "1000") int maxMessages,
+            @RequestParam(defaultValue = "50") int ratePerSecond) {
+
+        if (!topicName.endsWith(DeadLetterService.DLT_SUFFIX)) {
+            return ApiResponse.error("Not a dead-letter topic: " + topicName);
+        }
+        Map<String, Object> result = deadLetterService.replay(topicName, Math.max(1, maxMessages),
+                Math.max(1, ratePerSecond));
+        return ApiResponse.success("Dead-letter messages replayed successfully", result);
+    }
 }
@@ -0,0 +1,244 @@
+package com.kafka.kafka.service;
+
+import com.kafka.shared.annotation.LogExecution;
+import com.kafka.shared.messaging.EnvelopeDeserializer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Inspection and replay of dead-letter topics ({@code <topic>-dlt}) written by {@code @NonBlockingRetry}
+ * listeners.
+ * <p>
+ * Inspection reads with an unassigned, non-committing consumer from the requested offset. Replay republishes
+ * the original key, value bytes and headers (minus the retry/DLT bookkeeping headers) to the record's original
+ * topic at no more than the requested rate, and commits its progress under {@code kafka.dlt.replay-group-id},
+ * so successive replays continue where the previous one stopped.
+ */
+@Service
+@Slf4j
+public class DeadLetterService {
+
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final String RETRY_HEADER_PREFIX = "retry_topic-";
+
+    private final String bootstrapServers;
+    private final String replayGroupId;
+    private final EnvelopeDeserializer envelopeDeserializer = new EnvelopeDeserializer();
+
+    public DeadLetterService(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                             @Value("${kafka.dlt.replay-group-id:kafka-manager-dlt-replay}") String replayGroupId) {
+        this.bootstrapServers = bootstrapServers;
+        this.replayGroupId = replayGroupId;
+    }
+
+    @LogExecution
+    public List<Map<String, Object>> inspect(String dltTopic, Integer partition, long fromOffset, int limit) {
+        Properties props = consumerProperties(null);
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(props)) {
+            List<TopicPartition> partitions = partitions(consumer, dltTopic, partition);
+            consumer.assign(partitions);
+            for (TopicPartition topicPartition : partitions) {
+                consumer.seek(topicPartition, fromOffset);
+            }
+
+            List<Map<String, Object>> messages = new ArrayList<>();
+            while (messages.size() < limit) {
+                var records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    if (messages.size() >= limit) {
+                        break;
+                    }
+                    messages.add(describe(record));
+                }
+            }
+            return messages;
+        }
+    }
+
+    /**
+     * Republish up to {@code maxMessages} pending DLT records, at most {@code ratePerSecond} per second.
+     */
+    @LogExecution
+    public Map<String, Object> replay(String dltTopic, int maxMessages, int ratePerSecond) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        Map<String, Integer> replayedByTopic = new HashMap<>();
+        int replayed = 0;
+
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProperties(replayGroupId));
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProperties())) {
+            consumer.assign(partitions(consumer, dltTopic, null));
+
+            long nextSendAt = System.nanoTime();
+            while (replayed < maxMessages) {
+                var records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                Map<TopicPartition, OffsetAndMetadata> progress = new HashMap<>();
+                List<Future<RecordMetadata>> sends = new ArrayList<>();
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    if (replayed >= maxMessages) {
+                        break;
+                    }
+                    long wait = nextSendAt - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    nextSendAt = Math.max(nextSendAt, System.nanoTime() - intervalNanos) + intervalNanos;
+
+                    String targetTopic = originalTopic(record, dltTopic);
+                    sends.add(producer.send(new ProducerRecord<>(targetTopic, null, record.key(), record.value(),
+                            replayHeaders(record))));
+                    replayedByTopic.merge(targetTopic, 1, Integer::sum);
+                    progress.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                producer.flush();
+                awaitSends(sends, dltTopic);
+                consumer.commitSync(progress);
+            }
+        }
+
+        log.info("Replayed {} messages from {}: {}", replayed, dltTopic, replayedByTopic);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dltTopic", dltTopic);
+        result.put("replayed", replayed);
+        result.put("targets", replayedByTopic);
+        return result;
+    }
+
+    private static void awaitSends(List<Future<RecordMetadata>> sends, String dltTopic) {
+        try {
+            for (Future<RecordMetadata> send : sends) {
+                send.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while replaying " + dltTopic, e);
+        } catch (ExecutionException e) {
+            // Nothing of this batch is committed, so the next replay starts again from its first record.
+            throw new RuntimeException("Failed to replay messages from " + dltTopic, e.getCause());
+        }
+    }
+
+    private Map<String, Object> describe(ConsumerRecord<byte[], byte[]> record) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("partition", record.partition());
+        message.put("offset", record.offset());
+        message.put("timestamp", record.timestamp());
+        message.put("key", record.key() != null ? new String(record.key(), StandardCharsets.UTF_8) : null);
+        Object value;
+        try {
+            value = envelopeDeserializer.deserialize(record.topic(), record.value());
+        } catch (RuntimeException e) {
+            value = "<undecodable " + record.value().length + " bytes>";
+        }
+        message.put("value", value != null ? value.toString() : null);
+        message.put("originalTopic", headerValue(record, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        message.put("exceptionClass", headerValue(record, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        message.put("exceptionMessage", headerValue(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        return message;
+    }
+
+    private static String originalTopic(ConsumerRecord<byte[], byte[]> record, String dltTopic) {
+        String original = headerValue(record, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        if (original != null && !original.isBlank()) {
+            // Records reach the DLT from retry tiers too; replay always restarts at the main topic.
+            int retry = original.indexOf("-retry");
+            return retry > 0 ? original.substring(0, retry) : original;
+        }
+        return dltTopic.substring(0, dltTopic.length() - DLT_SUFFIX.length());
+    }
+
+    private static RecordHeaders replayHeaders(ConsumerRecord<byte[], byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX) && !header.key().startsWith(RETRY_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    private static String headerValue(ConsumerRecord<byte[], byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static List<TopicPartition> partitions(KafkaConsumer<byte[], byte[]> consumer, String topic,
+                                                   Integer partition) {
+        List<PartitionInfo> infos = consumer.partitionsFor(topic);
+        if (infos == null || infos.isEmpty()) {
+            throw new IllegalArgumentException("Unknown topic: " + topic);
+        }
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : infos) {
+            if (partition == null || info.partition() == partition) {
+                partitions.add(new TopicPartition(topic, info.partition()));
+            }
+        }
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("Unknown partition " + partition + " of " + topic);
+        }
+        return partitions;
+    }
+
+    private Properties consumerProperties(String groupId) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        if (groupId != null) {
+            props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        }
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    private Properties producerProperties() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return props;
+    }
+}
@@ -121,7 +121,7 @@ public class KafkaManagementService {
         }
     }
 
-    @LogExecution
+    @LogExecution(sampleRate = 0.01)
     public void sendMessage(String topic, String key, Object message) {
         kafkaTemplate.send(topic, key, message);
         log.info("Sent message to topic: {} with key: {}", topic, key);
@@ -7,16 +7,32 @@ import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 @Configuration
 public class BatchConfig {
 
+    /**
+     * Executor behind {@code @Async} and {@link com.kafka.schedule.service.ThreadManagementService}. With
+     * {@code spring.threads.virtual.enabled} every task gets its own virtual thread and
+     * {@code spring.task.execution.simple.concurrency-limit} caps how many run at once; pooling virtual threads
+     * would only add a queue in front of threads that are cheap to create.
+     */
     @Bean
-    public ThreadPoolTaskExecutor taskExecutor() {
+    public AsyncTaskExecutor taskExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                          @Value("${spring.task.execution.simple.concurrency-limit:20}") int concurrencyLimit) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("schedule-vt-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrencyLimit);
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
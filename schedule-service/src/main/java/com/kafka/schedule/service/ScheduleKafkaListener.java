@@ -1,35 +1,60 @@
 package com.kafka.schedule.service;
 
 import com.kafka.shared.annotation.LogExecution;
+import com.kafka.shared.annotation.NonBlockingRetry;
+import com.kafka.shared.messaging.ScheduleTaskMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ScheduleKafkaListener {
 
+    private static final String SCHEDULE_BATCH_NAME = "workflow-schedule-task";
+    private static final int ITEMS_PER_TASK = 100;
+
     private final BatchProcessingService batchProcessingService;
 
     /**
      * Listens to workflow engine scheduling requests and triggers batch processing logic.
-     * The payload is currently treated as a raw String for simplicity; it can be evolved
-     * to a structured DTO (JSON) if needed.
+     * The payload is decoded from its binary envelope by {@code EnvelopeDeserializer}.
      */
-    @KafkaListener(topics = "schedule-tasks", groupId = "schedule-service-group")
+    @KafkaListener(topics = "schedule-tasks", groupId = "schedule-service-group",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'record'}")
+    @NonBlockingRetry
     @LogExecution
-    public void handleScheduleTask(@Payload String message) {
+    public void handleScheduleTask(@Payload ScheduleTaskMessage message) {
         log.info("Received schedule task message from Kafka: {}", message);
 
         // For now we trigger a generic data processing batch.
-        // In a real implementation you would parse message for task name / cron / parameters.
-        String batchName = "workflow-schedule-task";
-        int batchSize = 100;
+        // In a real implementation you would use the task name / cron / context of the message.
+        batchProcessingService.processDataBatch(SCHEDULE_BATCH_NAME, ITEMS_PER_TASK);
+    }
 
-        batchProcessingService.processDataBatch(batchName, batchSize);
+    /**
+     * Batch variant used when {@code kafka.listener.mode=batch}: all tasks of one poll are folded
+     * into a single data batch and committed together.
+     */
+    @KafkaListener(topics = "schedule-tasks", groupId = "schedule-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{'${kafka.listener.mode:record}' == 'batch'}")
+    @LogExecution
+    public void handleScheduleTasks(List<ConsumerRecord<String, ScheduleTaskMessage>> records) {
+        log.info("Received {} schedule task messages from Kafka", records.size());
+
+        // ErrorHandlingDeserializer leaves undecodable records without a value; they are not tasks.
+        long tasks = records.stream().filter(record -> record.value() != null).count();
+        if (tasks < records.size()) {
+            log.error("Skipping {} undecodable schedule task messages", records.size() - tasks);
+        }
+        batchProcessingService.processDataBatch(SCHEDULE_BATCH_NAME, ITEMS_PER_TASK * (int) tasks);
     }
 }
 
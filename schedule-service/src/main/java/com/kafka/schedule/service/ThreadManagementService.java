@@ -3,6 +3,8 @@ package com.kafka.schedule.service;
 import com.kafka.shared.annotation.LogExecution;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
@@ -15,7 +17,7 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class ThreadManagementService {
 
-    private final ThreadPoolTaskExecutor taskExecutor;
+    private final AsyncTaskExecutor taskExecutor;
 
     @Async("taskExecutor")
     @LogExecution
@@ -89,11 +91,17 @@ public class ThreadManagementService {
 
     @LogExecution
     public void monitorThreadPool() {
-        log.info("Thread Pool Status - Active: {}, Pool Size: {}, Core Pool Size: {}, Max Pool Size: {}, Queue Size: {}",
-                taskExecutor.getActiveCount(),
-                taskExecutor.getPoolSize(),
-                taskExecutor.getCorePoolSize(),
-                taskExecutor.getMaxPoolSize(),
-                taskExecutor.getQueueSize());
+        if (taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+            log.info("Thread Pool Status - Active: {}, Pool Size: {}, Core Pool Size: {}, Max Pool Size: {}, Queue Size: {}",
+                    pool.getActiveCount(),
+                    pool.getPoolSize(),
+                    pool.getCorePoolSize(),
+                    pool.getMaxPoolSize(),
+                    pool.getQueueSize());
+        } else if (taskExecutor instanceof SimpleAsyncTaskExecutor simple) {
+            log.info("Virtual Thread Executor Status - Concurrency Limit: {}, Throttling: {}",
+                    simple.getConcurrencyLimit(),
+                    simple.isThrottleActive());
+        }
     }
 }
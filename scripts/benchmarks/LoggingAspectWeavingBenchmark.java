@@ -0,0 +1,189 @@
+import org.aspectj.bridge.IMessage;
+import org.aspectj.bridge.MessageHandler;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Compares the per-call cost of applying {@code LoggingAspect} to a {@code @LogExecution} method through Spring AOP
+ * proxies (the default build) and through compile-time weaving ({@code -Paspectj}).
+ * <p>
+ * The script compiles a small target with javac and, separately, with ajc together with the real
+ * {@code LoggingAspect} source, the same way the {@code aspectj} profile does. It then times:
+ * <ul>
+ *   <li>{@code plain}: the unwoven method called directly, as the baseline;</li>
+ *   <li>{@code proxied}: the same method called through a CGLIB proxy built by Spring AOP from
+ *   {@code LoggingAspect}, as for a bean in the default build;</li>
+ *   <li>{@code woven}: the woven method called directly;</li>
+ *   <li>{@code proxied-self} and {@code woven-self}: a public method calling a private {@code @LogExecution} method
+ *   on {@code this}. Only weaving intercepts the private call; the proxy just passes the public call through.</li>
+ * </ul>
+ * The aspect is left without a {@code LogExecutionRecorder}, so every row only pays for interception; building and
+ * writing the {@code SystemLog} costs the same in both modes and is measured by the {@code log.execution} timers.
+All rows share one call site, so every row after {@code plain} also includes a megamorphic interface call of a few
+nanoseconds.
+ * <p>
+ * Run from the repository root with Java 21 after {@code mvn -pl shared-lib compile}, passing the shared-lib classpath
+ * and the aspectjtools jar used by the {@code aspectj} profile:
+ * <pre>
+ * mvn -q -pl shared-lib dependency:build-classpath -Dmdep.outputFile=/tmp/shared-lib.cp
+ * java -cp "$HOME/.m2/repository/org/aspectj/aspectjtools/1.9.21/aspectjtools-1.9.21.jar:$(cat /tmp/shared-lib.cp)" \
+ *     scripts/benchmarks/LoggingAspectWeavingBenchmark.java [callsPerRound=5000000] [rounds=5]
+ * </pre>
+ */
+public class LoggingAspectWeavingBenchmark {
+
+    private static final Path SHARED_LIB_CLASSES = Path.of("shared-lib/target/classes");
+    private static final Path ASPECT_SOURCE =
+            Path.of("shared-lib/src/main/java/com/kafka/shared/aspect/LoggingAspect.java");
+
+    private static final String TARGET_SOURCE = """
+            package bench;
+
+            import com.kafka.shared.annotation.LogExecution;
+            import java.util.function.LongUnaryOperator;
+
+            public class Step implements LongUnaryOperator {
+                @LogExecution
+                public long applyAsLong(long value) {
+                    return value * 31 + 7;
+                }
+            }
+            """;
+
+    private static final String SELF_INVOKING_SOURCE = """
+            package bench;
+
+            import com.kafka.shared.annotation.LogExecution;
+            import java.util.function.LongUnaryOperator;
+
+            public class SelfInvokingStep implements LongUnaryOperator {
+                public long applyAsLong(long value) {
+                    return step(value);
+                }
+
+                @LogExecution
+                private long step(long value) {
+                    return value * 31 + 7;
+                }
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+        int calls = intArg(args, 0, 5_000_000);
+        int rounds = intArg(args, 1, 5);
+        if (!Files.isDirectory(SHARED_LIB_CLASSES) || !Files.isRegularFile(ASPECT_SOURCE)) {
+            throw new IllegalStateException("Run from the repository root after mvn -pl shared-lib compile");
+        }
+
+        Path work = Files.createTempDirectory("logging-aspect-bench");
+        Path sources = work.resolve("src/bench");
+        Files.createDirectories(sources);
+        Path step = Files.writeString(sources.resolve("Step.java"), TARGET_SOURCE);
+        Path selfInvoking = Files.writeString(sources.resolve("SelfInvokingStep.java"), SELF_INVOKING_SOURCE);
+        String classpath = SHARED_LIB_CLASSES + java.io.File.pathSeparator + System.getProperty("java.class.path");
+
+        Path plainClasses = work.resolve("plain");
+        javac(classpath, plainClasses, step, selfInvoking);
+        Path wovenClasses = work.resolve("woven");
+        ajc(classpath, wovenClasses, step, selfInvoking, ASPECT_SOURCE);
+
+        // Each build gets its own loader so the woven, ajc-compiled LoggingAspect shadows the javac-compiled one.
+        ClassLoader plainLoader = loader(plainClasses);
+        ClassLoader wovenLoader = loader(wovenClasses);
+
+        System.out.printf("callsPerRound=%d rounds=%d%n%n", calls, rounds);
+        System.out.printf("%-12s %12s %12s%n", "path", "ns/call", "overhead ns");
+
+        double plain = time(instance(plainLoader, "bench.Step"), calls, rounds);
+        print("plain", plain, plain);
+        print("proxied", time(proxy(plainLoader, "bench.Step"), calls, rounds), plain);
+        print("woven", time(instance(wovenLoader, "bench.Step"), calls, rounds), plain);
+        print("proxied-self", time(proxy(plainLoader, "bench.SelfInvokingStep"), calls, rounds), plain);
+        print("woven-self", time(instance(wovenLoader, "bench.SelfInvokingStep"), calls, rounds), plain);
+    }
+
+    private static void javac(String classpath, Path output, Path... sources) throws Exception {
+        Files.createDirectories(output);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String[] args = concat(new String[]{"-cp", classpath, "-d", output.toString()}, sources);
+        if (compiler.run(null, null, null, args) != 0) {
+            throw new IllegalStateException("javac failed");
+        }
+    }
+
+    private static void ajc(String classpath, Path output, Path... sources) throws Exception {
+        Files.createDirectories(output);
+        String version = String.valueOf(Runtime.version().feature());
+        String[] args = concat(new String[]{"-source", version, "-target", version, "-nowarn",
+                "-cp", classpath, "-d", output.toString()}, sources);
+        MessageHandler handler = new MessageHandler();
+        new org.aspectj.tools.ajc.Main().run(args, handler);
+        if (handler.numMessages(IMessage.ERROR, true) > 0) {
+            throw new IllegalStateException("ajc failed: " + Arrays.toString(handler.getErrors()));
+        }
+    }
+
+    private static String[] concat(String[] options, Path[] sources) {
+        String[] args = Arrays.copyOf(options, options.length + sources.length);
+        for (int i = 0; i < sources.length; i++) {
+            args[options.length + i] = sources[i].toString();
+        }
+        return args;
+    }
+
+    private static ClassLoader loader(Path classes) throws Exception {
+        URL[] urls = {classes.toUri().toURL(), SHARED_LIB_CLASSES.toUri().toURL()};
+        return new URLClassLoader(urls, LoggingAspectWeavingBenchmark.class.getClassLoader());
+    }
+
+    private static LongUnaryOperator instance(ClassLoader loader, String className) throws Exception {
+        return (LongUnaryOperator) loader.loadClass(className).getConstructor().newInstance();
+    }
+
+    private static LongUnaryOperator proxy(ClassLoader loader, String className) throws Exception {
+        AspectJProxyFactory factory = new AspectJProxyFactory(instance(loader, className));
+        // Spring Boot proxies classes rather than interfaces by default
+        factory.setProxyTargetClass(true);
+        factory.addAspect(loader.loadClass("com.kafka.shared.aspect.LoggingAspect").getConstructor().newInstance());
+        return factory.getProxy(loader);
+    }
+
+    private static double time(LongUnaryOperator operator, int calls, int rounds) {
+        // Warm up with as many calls as are measured so the JIT has compiled the path being timed.
+        long sink = loop(operator, calls * (long) rounds);
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            sink += loop(operator, calls);
+            best = Math.min(best, (double) (System.nanoTime() - start) / calls);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+
+    private static long loop(LongUnaryOperator operator, long calls) {
+        long value = 1;
+        for (long i = 0; i < calls; i++) {
+            value = operator.applyAsLong(value);
+        }
+        return value;
+    }
+
+    private static void print(String path, double nsPerCall, double baseline) {
+        System.out.printf("%-12s %12.2f %12.2f%n", path, nsPerCall, nsPerCall - baseline);
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
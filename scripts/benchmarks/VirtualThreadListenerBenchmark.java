@@ -0,0 +1,176 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares platform-thread and virtual-thread execution of an I/O-bound listener, such as a cbi-service
+ * handler waiting on an external API.
+ * <p>
+ * Every simulated record blocks for about {@code latencyMs} (the external call) after a little CPU work.
+ * Five models are measured on the same workload:
+ * <ul>
+ *   <li>{@code platform-container}: {@code concurrency} consumer loops on platform threads, each handling one record
+ *   at a time, which is what record/batch listener containers do by default;</li>
+ *   <li>{@code virtual-container}: the same consumer loops on virtual threads, which is what
+ *   {@code spring.threads.virtual.enabled} gives the listener containers;</li>
+ *   <li>{@code platform-pool}: a fixed pool of {@code poolSize} platform threads;</li>
+ *   <li>{@code virtual-parallel}: one virtual thread per record with at most {@code maxInFlight} outstanding,
+ *   which is what {@code ParallelRecordProcessor} does in {@code kafka.listener.mode=parallel} with
+ *   {@code kafka.listener.parallel.executor=virtual};</li>
+ *   <li>{@code virtual-pinned}: the same, but the call happens inside {@code synchronized}, like a JDBC
+ *   driver that locks around socket I/O, which pins virtual threads to their carriers.</li>
+ * </ul>
+ * Reports throughput, peak live platform threads and resident memory growth (Linux). The two container models
+ * have the same throughput, since each loop still waits for one record at a time; what a virtual consumer thread
+ * saves is the platform thread and its stack, so compare their memory with a large {@code concurrency} (for example
+ * 2000 containers).
+ * <p>
+ * Run from the repository root with Java 21:
+ * <pre>
+ * java scripts/benchmarks/VirtualThreadListenerBenchmark.java [records=20000] [latencyMs=50] [concurrency=3] [poolSize=200] [maxInFlight=2000]
+ * </pre>
+ */
+public class VirtualThreadListenerBenchmark {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int records = intArg(args, 0, 20_000);
+        long latencyMs = intArg(args, 1, 50);
+        int concurrency = intArg(args, 2, 3);
+        int poolSize = intArg(args, 3, 200);
+        int maxInFlight = intArg(args, 4, 2_000);
+
+        System.out.printf("records=%d latencyMs=%d concurrency=%d poolSize=%d maxInFlight=%d%n%n",
+                records, latencyMs, concurrency, poolSize, maxInFlight);
+        System.out.printf("%-20s %10s %12s %12s %14s%n", "model", "records", "records/s", "peak threads", "rss growth MB");
+
+        // The container model is bounded by concurrency / latency; keep its run short.
+        int containerRecords = (int) Math.min(records, Math.max(100, concurrency * 20_000L / Math.max(1, latencyMs)));
+        runContainers("platform-container", containerRecords, Thread.ofPlatform(), concurrency, latencyMs);
+        runContainers("virtual-container", containerRecords, Thread.ofVirtual(), concurrency, latencyMs);
+        run("platform-pool", records, () -> Executors.newFixedThreadPool(poolSize), poolSize, latencyMs, false);
+        run("virtual-parallel", records, Executors::newVirtualThreadPerTaskExecutor, maxInFlight, latencyMs, false);
+        // Pinned virtual threads are bounded by the number of carriers (CPU cores); keep this run short too.
+        int carriers = Runtime.getRuntime().availableProcessors();
+        int pinnedRecords = (int) Math.min(records, Math.max(50, carriers * 20_000L / Math.max(1, latencyMs)));
+        run("virtual-pinned", pinnedRecords, Executors::newVirtualThreadPerTaskExecutor, maxInFlight, latencyMs, true);
+    }
+
+    private interface ExecutorFactory {
+        ExecutorService create();
+    }
+
+    private static void run(String model, int records, ExecutorFactory factory, int maxInFlight, long latencyMs,
+                            boolean pinned) throws Exception {
+        System.gc();
+        long rssBefore = residentKb();
+        THREADS.resetPeakThreadCount();
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        CountDownLatch done = new CountDownLatch(records);
+        long start = System.nanoTime();
+        try (ExecutorService executor = factory.create()) {
+            for (int i = 0; i < records; i++) {
+                inFlight.acquire();
+                // One lock per "connection", so pinned runs are limited by carriers rather than by the lock itself.
+                Object connection = new Object();
+                executor.execute(() -> {
+                    try {
+                        handle(latencyMs, pinned, connection);
+                    } finally {
+                        inFlight.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        print(model, records, start, rssBefore);
+    }
+
+    /**
+     * Runs {@code concurrency} consumer loops that each take the next record and handle it before taking another,
+     * like the consumer thread of a listener container.
+     */
+    private static void runContainers(String model, int records, Thread.Builder threads, int concurrency,
+                                      long latencyMs) throws Exception {
+        System.gc();
+        long rssBefore = residentKb();
+        THREADS.resetPeakThreadCount();
+
+        AtomicInteger remaining = new AtomicInteger(records);
+        List<Thread> consumers = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            consumers.add(threads.start(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    handle(latencyMs, false, null);
+                }
+            }));
+        }
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+        print(model, records, start, rssBefore);
+    }
+
+    private static void print(String model, int records, long start, long rssBefore) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long rssGrowthKb = Math.max(0, residentKb() - rssBefore);
+        System.out.printf("%-20s %10d %12.0f %12d %14.1f%n", model, records, records / seconds,
+                THREADS.getPeakThreadCount(), rssGrowthKb / 1024.0);
+    }
+
+    private static void handle(long latencyMs, boolean pinned, Object connection) {
+        // Decode and map the record.
+        long checksum = 0;
+        for (int i = 0; i < 2_000; i++) {
+            checksum += ThreadLocalRandom.current().nextInt();
+        }
+        if (checksum == 42) {
+            System.out.print("");
+        }
+        if (pinned) {
+            synchronized (connection) {
+                sleep(latencyMs);
+            }
+        } else {
+            sleep(latencyMs);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long residentKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (Exception ignored) {
+            // Not Linux: memory growth is reported as 0.
+        }
+        return 0;
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
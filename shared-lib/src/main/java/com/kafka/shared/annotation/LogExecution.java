@@ -5,8 +5,30 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Records the execution of the annotated method as a {@code SystemLog}.
+ * <p>
+ * The capture policy declared here can be overridden per class or per method through
+ * {@code system-logs.policy.overrides} or the {@code logpolicies} actuator endpoint.
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface LogExecution {
     String value() default "";
+
+    /**
+     * Fraction of successful calls to record, between {@code 0.0} and {@code 1.0}.
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * When positive, successful calls are recorded only if they take at least this many
+     * milliseconds; every such slow call is recorded regardless of {@link #sampleRate()}.
+     */
+    long slowThresholdMs() default 0;
+
+    /**
+     * Record every failed call, bypassing sampling and the slow threshold.
+     */
+    boolean alwaysLogErrors() default true;
 }
@@ -0,0 +1,35 @@
+package com.kafka.shared.annotation;
+
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.retry.annotation.Backoff;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries failed records of the annotated (record-mode) {@code @KafkaListener} through delay tiers instead of
+ * blocking the partition: a failure is forwarded to {@code <topic>-retry-<delay>} and the main listener moves on.
+ * <p>
+ * Delays grow exponentially from {@code kafka.retry.initial-delay-ms} by {@code kafka.retry.multiplier} up to
+ * {@code kafka.retry.max-delay-ms}, with one retry topic per delay; after {@code kafka.retry.attempts} attempts
+ * (or immediately for non-retryable errors such as deserialization failures) the record lands in
+ * {@code <topic>-dlt}, where kafka-manager can inspect and replay it. Not applicable to batch listeners.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                multiplierExpression = "${kafka.retry.multiplier:5}",
+                maxDelayExpression = "${kafka.retry.max-delay-ms:60000}"),
+        kafkaTemplate = "kafkaTemplate",
+        autoCreateTopics = "${kafka.retry.auto-create-topics:true}",
+        numPartitions = "${kafka.retry.partitions:3}",
+        replicationFactor = "${kafka.retry.replication-factor:1}",
+        retryTopicSuffix = "-retry",
+        dltTopicSuffix = "-dlt")
+public @interface NonBlockingRetry {
+}
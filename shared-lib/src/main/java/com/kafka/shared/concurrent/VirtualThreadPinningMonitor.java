@@ -0,0 +1,123 @@
+package com.kafka.shared.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, using the JFR {@code jdk.VirtualThreadPinned}
+ * event. A virtual thread pins when it blocks inside a {@code synchronized} block or a native frame; the
+ * usual culprits in these services are JDBC drivers and pools, which synchronize around socket I/O.
+ * <p>
+ * Active only with {@code spring.threads.virtual.enabled}. Pins longer than
+ * {@code virtual-threads.pinning.threshold-ms} are timed into {@code jvm.threads.virtual.pinned}, tagged
+ * {@code source=jdbc} when a JDBC/pool/Hibernate frame is on the stack and {@code source=synchronized}
+ * otherwise, and the stack of each distinct pinning site is logged once.
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final List<String> JDBC_PACKAGES = List.of(
+            "java.sql.", "javax.sql.", "com.mysql.", "com.zaxxer.hikari.", "org.hibernate.");
+    private static final String APPLICATION_PACKAGE = "com.kafka.";
+    private static final int MAX_LOGGED_SITES = 1000;
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                       @Value("${virtual-threads.pinning.enabled:true}") boolean pinningEnabled,
+                                       @Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = virtualThreads && pinningEnabled;
+        this.threshold = Duration.ofMillis(Math.max(0, thresholdMs));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR can be unavailable, e.g. in native images; pinning then simply goes unreported.
+            log.warn("Virtual thread pinning monitor unavailable: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String source = "synchronized";
+        String site = null;
+        String firstLibraryFrame = null;
+        for (RecordedFrame frame : frames) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String className = frame.getMethod().getType().getName();
+            if (source.equals("synchronized") && JDBC_PACKAGES.stream().anyMatch(className::startsWith)) {
+                source = "jdbc";
+            }
+            if (site == null && className.startsWith(APPLICATION_PACKAGE)) {
+                site = className + "." + frame.getMethod().getName();
+            }
+            if (firstLibraryFrame == null && !className.startsWith("java.") && !className.startsWith("jdk.")) {
+                firstLibraryFrame = className + "." + frame.getMethod().getName();
+            }
+        }
+
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        String key = site != null ? site : firstLibraryFrame != null ? firstLibraryFrame : "unknown";
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(key)) {
+            StringBuilder stack = new StringBuilder();
+            for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+                stack.append("\n\tat ").append(describe(frames.get(i)));
+            }
+            log.warn("Virtual thread pinned for {} ms ({}) at {}{}", event.getDuration().toMillis(), source, key, stack);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+}
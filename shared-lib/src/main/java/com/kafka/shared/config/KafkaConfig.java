@@ -1,22 +1,42 @@
 package com.kafka.shared.config;
 
+import com.kafka.shared.kafka.ParallelRecordProcessor;
+import com.kafka.shared.kafka.ProducerProfiles;
+import com.kafka.shared.kafka.ProfileRoutingKafkaTemplate;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Properties;
 
 @Configuration
 @EnableKafka
 public class KafkaConfig {
 
+    @Value("${kafka.listener.concurrency:3}")
+    private int concurrency;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * The shared template; each send goes through the producer of the topic's {@link ProducerProfiles} profile.
+     */
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate(@NonNull ProducerFactory<String, Object> producerFactory) {
-        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory);
+    public KafkaTemplate<String, Object> kafkaTemplate(@NonNull ProducerFactory<String, Object> producerFactory,
+                                                       ProducerProfiles producerProfiles) {
+        KafkaTemplate<String, Object> template = new ProfileRoutingKafkaTemplate(producerFactory, producerProfiles);
         template.setDefaultTopic("default-topic");
         return template;
     }
@@ -27,8 +47,85 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
-        factory.setConcurrency(3);
+        factory.setConcurrency(concurrency);
+        applyThreading(factory);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         return factory;
     }
+
+    /**
+     * Batch listeners ({@code List<ConsumerRecord>} per poll) for the {@code kafka.listener.mode=batch}
+     * listener variants. Offsets are committed once after each batch has been processed.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            @NonNull ConsumerFactory<String, Object> consumerFactory,
+            @Value("${kafka.listener.batch.max-poll-records:500}") int maxPollRecords,
+            @Value("${kafka.listener.batch.fetch-min-bytes:65536}") int fetchMinBytes,
+            @Value("${kafka.listener.batch.fetch-max-wait-ms:100}") int fetchMaxWaitMs,
+            @Value("${kafka.listener.batch.max-partition-fetch-bytes:1048576}") int maxPartitionFetchBytes) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        applyThreading(factory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        consumerProperties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(fetchMinBytes));
+        consumerProperties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(fetchMaxWaitMs));
+        consumerProperties.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, String.valueOf(maxPartitionFetchBytes));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        return factory;
+    }
+
+    /**
+     * Batch containers whose listeners hand each poll to {@link ParallelRecordProcessor}
+     * ({@code kafka.listener.mode=parallel}). Offsets are committed by the processor, so the container
+     * itself never commits; idle events let it commit records that complete between polls.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> parallelKafkaListenerContainerFactory(
+            @NonNull ConsumerFactory<String, Object> consumerFactory,
+            ParallelRecordProcessor parallelRecordProcessor,
+            @Value("${kafka.listener.parallel.commit-interval-ms:1000}") long commitIntervalMs) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        applyThreading(factory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setIdleEventInterval(commitIntervalMs);
+        factory.getContainerProperties().setConsumerRebalanceListener(parallelRecordProcessor);
+        return factory;
+    }
+
+    /**
+     * Scheduler used by {@code @NonBlockingRetry} listeners to resume retry-topic partitions once their
+     * back-off has elapsed; kept separate so it does not depend on any application {@code TaskScheduler}.
+     */
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("retry-topic-");
+        scheduler.initialize();
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+
+    /**
+     * With {@code spring.threads.virtual.enabled} the consumer loops of these factories, and so the listener
+     * invocations, run on virtual threads; Spring Boot only applies that setting to its own factory. Each
+     * container still runs one listener invocation at a time, so this frees platform threads without adding
+     * concurrency; that comes from {@link ParallelRecordProcessor}.
+     */
+    private void applyThreading(ConcurrentKafkaListenerContainerFactory<String, Object> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
 }
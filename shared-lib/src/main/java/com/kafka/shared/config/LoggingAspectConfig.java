@@ -0,0 +1,26 @@
+package com.kafka.shared.config;
+
+import com.kafka.shared.aspect.LoggingAspect;
+import com.kafka.shared.logging.LogExecutionRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.Aspects;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class LoggingAspectConfig {
+
+    /**
+     * When the build wove {@link LoggingAspect} with ajc ({@code -Paspectj}) the bean is the AspectJ
+     * singleton already linked into the woven classes; otherwise it is a plain instance for Spring AOP.
+     */
+    @Bean
+    public LoggingAspect loggingAspect(LogExecutionRecorder logExecutionRecorder) {
+        boolean woven = Aspects.hasAspect(LoggingAspect.class);
+        LoggingAspect aspect = woven ? Aspects.aspectOf(LoggingAspect.class) : new LoggingAspect();
+        aspect.setRecorder(logExecutionRecorder);
+        log.info("@LogExecution is applied by {}", woven ? "AspectJ compile-time weaving" : "Spring AOP proxies");
+        return aspect;
+    }
+}
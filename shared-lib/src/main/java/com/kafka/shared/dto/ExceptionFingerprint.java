@@ -0,0 +1,37 @@
+package com.kafka.shared.dto;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "exception_fingerprints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExceptionFingerprint {
+
+    @Id
+    @Column(name = "fingerprint", length = 16)
+    private String fingerprint;
+
+    @Column(name = "exception_class")
+    private String exceptionClass;
+
+    @Column(name = "stack_trace", columnDefinition = "TEXT")
+    private String stackTrace;
+
+    @Column(name = "occurrence_count", nullable = false)
+    private Long occurrenceCount;
+
+    @Column(name = "first_seen", nullable = false)
+    private LocalDateTime firstSeen;
+
+    @Column(name = "last_seen", nullable = false)
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,22 @@
+package com.kafka.shared.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExceptionFingerprintSummary {
+
+    private String fingerprint;
+    private String exceptionClass;
+    private Long occurrences;
+    private Long totalOccurrences;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+}
@@ -9,7 +9,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "system_logs")
+@Table(name = "system_logs", indexes = {
+        @Index(name = "idx_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_service_created_at_id", columnList = "service_name, created_at, id"),
+        @Index(name = "idx_level_created_at_id", columnList = "log_level, created_at, id"),
+        @Index(name = "idx_service_level_created_at_id", columnList = "service_name, log_level, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -56,6 +61,9 @@ public class SystemLog {
     @Column(name = "exception_stack", columnDefinition = "TEXT")
     private String exceptionStack;
 
+    @Column(name = "exception_fingerprint", length = 16)
+    private String exceptionFingerprint;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
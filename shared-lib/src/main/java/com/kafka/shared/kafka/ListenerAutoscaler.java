@@ -0,0 +1,322 @@
+package com.kafka.shared.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the concurrency of running {@link ConcurrentMessageListenerContainer}s to their consumer lag
+ * ({@code kafka.listener.autoscale.enabled}).
+ * <p>
+ * Every {@code interval-ms} the controller sums the {@code records-lag} of each container's consumers
+ * and derives a target of one consumer per {@code target-lag-per-consumer} records, bounded by
+ * {@code min-concurrency}, {@code max-concurrency} and the partition count of the container's topics.
+ * Scaling up happens as soon as the target exceeds the current concurrency.
+ * <p>
+ * Low lag alone does not scale down: a container that keeps up has little lag precisely because of its
+ * consumers. Its utilization, the share of the interval its consumers spent in the listener (from the
+ * {@code spring.kafka.listener} timer), must also show that one consumer fewer would stay below
+ * {@code scale-down-utilization}, for {@code scale-down-ticks} checks in a row. The gap between the lag
+ * that scales up and the utilization that allows scaling down keeps the container from oscillating, and
+ * because a concurrency change restarts the container (and rebalances the group) at most one change per
+ * {@code cooldown-ms} is made.
+ * <p>
+ * When the mean processing time of a container exceeds
+ * {@code pause-latency-ms}, the downstream is treated as saturated and the container is paused for
+ * {@code pause-duration-ms} before being resumed.
+ * <p>
+ * Decisions are exported as the {@code kafka.listener.scaling} counter (tag {@code action}) and the
+ * {@code kafka.listener.concurrency}, {@code kafka.listener.lag} and {@code kafka.listener.paused} gauges,
+ * all tagged with the listener id.
+ */
+@Component
+@Slf4j
+public class ListenerAutoscaler {
+
+    private static final String LISTENER_TIMER = "spring.kafka.listener";
+    private static final long PARTITION_REFRESH_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ObjectProvider<KafkaAdmin> kafkaAdmin;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long intervalMs;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long targetLagPerConsumer;
+    private final int scaleDownTicks;
+    private final double scaleDownUtilization;
+    private final long cooldownNanos;
+    private final long pauseLatencyMs;
+    private final long pauseDurationNanos;
+
+    private final Map<String, ContainerState> states = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public ListenerAutoscaler(KafkaListenerEndpointRegistry registry,
+                              ObjectProvider<KafkaAdmin> kafkaAdmin,
+                              MeterRegistry meterRegistry,
+                              @Value("${kafka.listener.autoscale.enabled:false}") boolean enabled,
+                              @Value("${kafka.listener.autoscale.interval-ms:10000}") long intervalMs,
+                              @Value("${kafka.listener.autoscale.min-concurrency:1}") int minConcurrency,
+                              @Value("${kafka.listener.autoscale.max-concurrency:12}") int maxConcurrency,
+                              @Value("${kafka.listener.autoscale.target-lag-per-consumer:1000}") long targetLagPerConsumer,
+                              @Value("${kafka.listener.autoscale.scale-down-ticks:6}") int scaleDownTicks,
+                              @Value("${kafka.listener.autoscale.scale-down-utilization:0.6}") double scaleDownUtilization,
+                              @Value("${kafka.listener.autoscale.cooldown-ms:60000}") long cooldownMs,
+                              @Value("${kafka.listener.autoscale.pause-latency-ms:0}") long pauseLatencyMs,
+                              @Value("${kafka.listener.autoscale.pause-duration-ms:30000}") long pauseDurationMs) {
+        this.registry = registry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.intervalMs = Math.max(1000, intervalMs);
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.targetLagPerConsumer = Math.max(1, targetLagPerConsumer);
+        this.scaleDownTicks = Math.max(1, scaleDownTicks);
+        this.scaleDownUtilization = Math.max(0, Math.min(1, scaleDownUtilization));
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, cooldownMs));
+        this.pauseLatencyMs = Math.max(0, pauseLatencyMs);
+        this.pauseDurationNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, pauseDurationMs));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "listener-autoscaler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::evaluate, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Listener autoscaling enabled: concurrency {}..{}, {} records of lag per consumer",
+                minConcurrency, maxConcurrency, targetLagPerConsumer);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void evaluate() {
+        try {
+            for (MessageListenerContainer container : registry.getListenerContainers()) {
+                if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+                    evaluate(concurrent);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Listener autoscaling check failed", e);
+        }
+    }
+
+    private void evaluate(ConcurrentMessageListenerContainer<?, ?> container) {
+        String listenerId = container.getListenerId() != null ? container.getListenerId() : container.getBeanName();
+        ContainerState state = states.get(listenerId);
+        if (state != null && state.restarting || !container.isRunning()) {
+            return;
+        }
+        if (state == null) {
+            state = states.computeIfAbsent(listenerId, id -> new ContainerState(id, container));
+        }
+        long now = System.nanoTime();
+        state.lag = lag(container);
+        state.sampleListenerTime(meterRegistry);
+        double latencyMs = state.meanLatencyMs;
+
+        if (container.isPauseRequested()) {
+            if (now - state.pausedAt >= pauseDurationNanos) {
+                container.resume();
+                state.record(Action.RESUME);
+                log.info("Resumed listener {} after backpressure pause", listenerId);
+            }
+            return;
+        }
+        if (pauseLatencyMs > 0 && latencyMs > pauseLatencyMs) {
+            container.pause();
+            state.pausedAt = now;
+            state.record(Action.PAUSE);
+            log.info("Paused listener {}: mean processing time {} ms exceeds {} ms", listenerId,
+                    Math.round(latencyMs), pauseLatencyMs);
+            return;
+        }
+
+        int current = container.getConcurrency();
+        int upperBound = Math.min(maxConcurrency, partitionCount(container, state, now));
+        long wanted = (state.lag + targetLagPerConsumer - 1) / targetLagPerConsumer;
+        int target = (int) Math.max(minConcurrency, Math.min(upperBound, wanted));
+        // Busy time spread over one consumer fewer, as a share of the interval.
+        double utilizationAfter = current > 1 ? state.busyMs / ((double) intervalMs * (current - 1)) : 1;
+
+        if (target < current && utilizationAfter < scaleDownUtilization) {
+            state.belowTargetTicks++;
+        } else {
+            state.belowTargetTicks = 0;
+        }
+        if (now - state.lastScaledAt < cooldownNanos) {
+            return;
+        }
+        if (target > current) {
+            resize(container, state, target, Action.SCALE_UP, now);
+        } else if (target < current && state.belowTargetTicks >= scaleDownTicks) {
+            resize(container, state, current - 1, Action.SCALE_DOWN, now);
+        }
+    }
+
+    private void resize(ConcurrentMessageListenerContainer<?, ?> container, ContainerState state, int concurrency,
+                        Action action, long now) {
+        log.info("Scaling listener {} from {} to {} consumers (lag {}, {} ms in the listener)", state.listenerId,
+                container.getConcurrency(), concurrency, state.lag, Math.round(state.busyMs));
+        state.restarting = true;
+        state.lastScaledAt = now;
+        state.belowTargetTicks = 0;
+        state.record(action);
+        container.stop(() -> {
+            try {
+                container.setConcurrency(concurrency);
+                container.start();
+            } finally {
+                state.restarting = false;
+            }
+        });
+    }
+
+    private static long lag(ConcurrentMessageListenerContainer<?, ?> container) {
+        long lag = 0;
+        for (Map<MetricName, ? extends Metric> clientMetrics : container.metrics().values()) {
+            for (Map.Entry<MetricName, ? extends Metric> metric : clientMetrics.entrySet()) {
+                MetricName name = metric.getKey();
+                if ("records-lag".equals(name.name()) && name.tags().containsKey("partition")
+                        && metric.getValue().metricValue() instanceof Number value
+                        && Double.isFinite(value.doubleValue())) {
+                    lag += value.longValue();
+                }
+            }
+        }
+        return lag;
+    }
+
+    private int partitionCount(ConcurrentMessageListenerContainer<?, ?> container, ContainerState state, long now) {
+        if (state.partitionCount > 0 && now - state.partitionsCheckedAt < PARTITION_REFRESH_NANOS) {
+            return state.partitionCount;
+        }
+        String[] topics = container.getContainerProperties().getTopics();
+        KafkaAdmin admin = kafkaAdmin.getIfAvailable();
+        if (topics == null || topics.length == 0 || admin == null) {
+            // Pattern or manually assigned containers: fall back to what this instance currently owns.
+            return Math.max(1, container.getAssignedPartitions().size());
+        }
+        try {
+            int partitions = 0;
+            for (TopicDescription description : admin.describeTopics(topics).values()) {
+                partitions += description.partitions().size();
+            }
+            state.partitionCount = Math.max(1, partitions);
+            state.partitionsCheckedAt = now;
+        } catch (Exception e) {
+            log.debug("Could not describe topics for listener {}", state.listenerId, e);
+            return Math.max(1, state.partitionCount);
+        }
+        return state.partitionCount;
+    }
+
+    private enum Action {
+        SCALE_UP("scale_up"), SCALE_DOWN("scale_down"), PAUSE("pause"), RESUME("resume");
+
+        private final String tag;
+
+        Action(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final class ContainerState {
+
+        private final String listenerId;
+        private final Map<Action, Counter> decisions = new ConcurrentHashMap<>();
+        private volatile boolean restarting;
+        private volatile long lag;
+        private long lastScaledAt = System.nanoTime() - cooldownNanos;
+        private long pausedAt;
+        private int belowTargetTicks;
+        private int partitionCount;
+        private long partitionsCheckedAt;
+        private long lastLatencyCount;
+        private double lastLatencyTotalMs;
+        private double meanLatencyMs;
+        private double busyMs;
+
+        private ContainerState(String listenerId, ConcurrentMessageListenerContainer<?, ?> container) {
+            this.listenerId = listenerId;
+            Tags tags = Tags.of("listener", listenerId);
+            Gauge.builder("kafka.listener.concurrency", container, ConcurrentMessageListenerContainer::getConcurrency)
+                    .description("Configured consumer count of the listener container")
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("kafka.listener.lag", this, state -> state.lag)
+                    .description("Records behind the log end, summed over the container's partitions")
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("kafka.listener.paused", container, c -> c.isPauseRequested() ? 1 : 0)
+                    .description("1 while the container is paused for downstream backpressure")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private void record(Action action) {
+            decisions.computeIfAbsent(action, a -> Counter.builder("kafka.listener.scaling")
+                    .description("Scaling and backpressure decisions taken by the listener autoscaler")
+                    .tags(Tags.of("listener", listenerId, "action", a.tag))
+                    .register(meterRegistry)).increment();
+        }
+
+        /**
+         * Time spent in the listener since the previous check, and its mean per invocation ({@code 0} without
+         * new invocations).
+         */
+        private void sampleListenerTime(MeterRegistry registry) {
+            long count = 0;
+            double totalMs = 0;
+            String childPrefix = listenerId + "-";
+            for (Timer timer : registry.find(LISTENER_TIMER).timers()) {
+                String name = timer.getId().getTag("name");
+                if (name != null && name.startsWith(childPrefix)) {
+                    count += timer.count();
+                    totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+                }
+            }
+            long deltaCount = count - lastLatencyCount;
+            double deltaMs = totalMs - lastLatencyTotalMs;
+            lastLatencyCount = count;
+            lastLatencyTotalMs = totalMs;
+            busyMs = Math.max(0, deltaMs);
+            meanLatencyMs = deltaCount > 0 ? deltaMs / deltaCount : 0;
+        }
+    }
+}
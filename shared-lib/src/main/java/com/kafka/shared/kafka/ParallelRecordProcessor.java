@@ -0,0 +1,299 @@
+package com.kafka.shared.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Processes the records of one poll concurrently while keeping per-key ordering, for listeners on
+ * {@code parallelKafkaListenerContainerFactory} ({@code kafka.listener.mode=parallel}).
+ * <p>
+ * Records with the same key on the same partition are chained so they run one after another; records
+ * with different (or no) keys run side by side on the worker pool ({@code kafka.listener.parallel.executor}:
+ * {@code virtual} threads or a {@code bounded} pool of {@code pool-size}). The consumer thread never waits
+ * for them: once a consumer has {@code max-in-flight} records outstanding its partitions are paused, and they
+ * are resumed when half of those have completed, checked after every poll and on container idle events. The
+ * consumer keeps polling meanwhile, so a hung call can neither exceed {@code max.poll.interval.ms} nor hold up
+ * a rebalance.
+ * <p>
+ * Completed offsets are tracked per partition ({@link PartitionOffsets}) and only the highest contiguous
+ * position is committed, after every poll and on container idle events. Commits, pauses and resumes always
+ * happen on the consumer thread. On revocation in-flight records of the revoked partitions are drained (up to
+ * {@code drain-timeout-ms}) and committed synchronously. A record whose handler fails is published to
+ * {@code <topic>-dlt} and only counts as completed once the dead-letter send has succeeded; failed sends are
+ * retried every {@code dlt-retry-ms}, holding back the partition's commits until then.
+ * <p>
+ * {@link #processAsync} takes handlers that start non-blocking work and return its future: the record only
+ * completes (and frees its in-flight slot and key) when that future does, without holding a worker meanwhile.
+ */
+@Component
+@Slf4j
+public class ParallelRecordProcessor implements ConsumerAwareRebalanceListener {
+
+    @FunctionalInterface
+    public interface RecordHandler<K, V> {
+        void handle(ConsumerRecord<K, V> record) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface AsyncRecordHandler<K, V> {
+        CompletionStage<?> handle(ConsumerRecord<K, V> record) throws Exception;
+    }
+
+    private record OrderingKey(TopicPartition partition, Object key) {
+    }
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final Map<OrderingKey, CompletableFuture<Void>> keyTails = new ConcurrentHashMap<>();
+    /** Partitions paused by this processor, so it never resumes a pause requested elsewhere. */
+    private final Set<TopicPartition> paused = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private final DeadLetterPublishingRecoverer deadLetters;
+    private final int maxInFlight;
+    private final long drainTimeoutMs;
+    private final long dltRetryMs;
+
+    public ParallelRecordProcessor(MeterRegistry meterRegistry,
+                                   KafkaTemplate<String, Object> kafkaTemplate,
+                                   @Value("${kafka.listener.parallel.executor:virtual}") String executorType,
+                                   @Value("${kafka.listener.parallel.pool-size:64}") int poolSize,
+                                   @Value("${kafka.listener.parallel.max-in-flight:512}") int maxInFlight,
+                                   @Value("${kafka.listener.parallel.drain-timeout-ms:30000}") long drainTimeoutMs,
+                                   @Value("${kafka.listener.parallel.dlt-retry-ms:5000}") long dltRetryMs) {
+        this.executor = "bounded".equalsIgnoreCase(executorType)
+                ? Executors.newFixedThreadPool(Math.max(1, poolSize))
+                : Executors.newVirtualThreadPerTaskExecutor();
+        this.deadLetters = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, error) -> new TopicPartition(record.topic() + "-dlt", -1));
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.drainTimeoutMs = Math.max(0, drainTimeoutMs);
+        this.dltRetryMs = Math.max(1, dltRetryMs);
+
+        Gauge.builder("kafka.listener.parallel.in-flight", this, ParallelRecordProcessor::inFlight)
+                .description("Records dispatched by the parallel listener mode and not yet completed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Dispatch {@code records} to {@code handler}, commit whatever has completed so far and pause or resume
+     * the consumer's partitions. Must be called on the consumer thread with that thread's {@code consumer}.
+     */
+    public <K, V> void process(List<ConsumerRecord<K, V>> records, Consumer<?, ?> consumer, RecordHandler<K, V> handler) {
+        processAsync(records, consumer, record -> {
+            handler.handle(record);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Like {@link #process}, but each record completes when the future returned by {@code handler} completes.
+     */
+    public <K, V> void processAsync(List<ConsumerRecord<K, V>> records, Consumer<?, ?> consumer,
+                                    AsyncRecordHandler<K, V> handler) {
+        for (ConsumerRecord<K, V> record : records) {
+            dispatch(record, handler);
+        }
+        commit(consumer, consumer.assignment(), false);
+        applyBackPressure(consumer);
+    }
+
+    public int inFlight() {
+        return pending(partitions.keySet());
+    }
+
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        Consumer<?, ?> consumer = event.getConsumer();
+        if (consumer != null) {
+            commit(consumer, consumer.assignment(), false);
+            applyBackPressure(consumer);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        while (hasPending(revoked) && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        if (hasPending(revoked)) {
+            log.warn("Partitions {} revoked with records still in flight; they will be redelivered", revoked);
+        }
+        try {
+            commit(consumer, revoked, true);
+        } finally {
+            revoked.forEach(partitions::remove);
+            paused.removeAll(revoked);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        lost.forEach(partitions::remove);
+        paused.removeAll(lost);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(drainTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("Parallel listener workers did not finish within {} ms", drainTimeoutMs);
+            executor.shutdownNow();
+        }
+    }
+
+    private <K, V> void dispatch(ConsumerRecord<K, V> record, AsyncRecordHandler<K, V> handler) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        PartitionOffsets offsets = partitions.computeIfAbsent(partition, p -> new PartitionOffsets());
+        offsets.submitted(record.offset());
+
+        // Never completes exceptionally, so the next record of the key always runs.
+        Supplier<CompletableFuture<Void>> task = () -> {
+            CompletableFuture<?> work;
+            try {
+                work = handler.handle(record).toCompletableFuture();
+            } catch (Exception e) {
+                work = CompletableFuture.failedFuture(e);
+            }
+            return work.handle((result, error) -> error)
+                    .thenCompose(error -> error == null ? CompletableFuture.<Void>completedFuture(null)
+                            : deadLetter(record, error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error))
+                    .handle((result, error) -> {
+                        if (error == null) {
+                            offsets.completed(record.offset());
+                        } else {
+                            log.error("Gave up on {}-{}@{}; it stays uncommitted and is redelivered after a restart",
+                                    record.topic(), record.partition(), record.offset(), error);
+                        }
+                        return null;
+                    });
+        };
+
+        if (record.key() == null) {
+            CompletableFuture.supplyAsync(task, executor).thenCompose(Function.identity());
+            return;
+        }
+        OrderingKey key = new OrderingKey(partition, record.key());
+        CompletableFuture<Void> tail = keyTails.compute(key, (k, previous) -> previous == null
+                ? CompletableFuture.supplyAsync(task, executor).thenCompose(Function.identity())
+                : previous.thenComposeAsync(ignored -> task.get(), executor));
+        tail.whenComplete((result, error) -> keyTails.remove(key, tail));
+    }
+
+    /**
+     * Publish a failed record to {@code <topic>-dlt}, retrying until the send succeeds or the processor shuts down.
+     */
+    private CompletableFuture<Void> deadLetter(ConsumerRecord<?, ?> record, Throwable cause) {
+        log.error("Failed to process {}-{}@{}; sending it to the dead-letter topic", record.topic(),
+                record.partition(), record.offset(), cause);
+        Exception exception = cause instanceof Exception e ? e : new IllegalStateException(cause);
+        return attemptDeadLetter(record, exception);
+    }
+
+    private CompletableFuture<Void> attemptDeadLetter(ConsumerRecord<?, ?> record, Exception exception) {
+        return CompletableFuture.runAsync(() -> deadLetters.accept(record, exception), executor)
+                .exceptionallyCompose(error -> {
+                    log.warn("Could not dead-letter {}-{}@{}; retrying in {} ms", record.topic(), record.partition(),
+                            record.offset(), dltRetryMs, error);
+                    return CompletableFuture.runAsync(() -> {
+                            }, CompletableFuture.delayedExecutor(dltRetryMs, TimeUnit.MILLISECONDS, executor))
+                            .thenCompose(ignored -> attemptDeadLetter(record, exception));
+                });
+    }
+
+    /**
+     * Pause the consumer's partitions at {@code max-in-flight} outstanding records and resume them at half.
+     */
+    private void applyBackPressure(Consumer<?, ?> consumer) {
+        Set<TopicPartition> assigned = consumer.assignment();
+        int pending = pending(assigned);
+        if (pending >= maxInFlight) {
+            List<TopicPartition> pausing = assigned.stream().filter(paused::add).toList();
+            if (!pausing.isEmpty()) {
+                consumer.pause(pausing);
+                log.debug("Paused {} with {} records in flight", pausing, pending);
+            }
+        } else if (pending <= maxInFlight / 2) {
+            List<TopicPartition> resuming = assigned.stream().filter(paused::remove).toList();
+            if (!resuming.isEmpty()) {
+                consumer.resume(resuming);
+                log.debug("Resumed {} with {} records in flight", resuming, pending);
+            }
+        }
+    }
+
+    private int pending(Collection<TopicPartition> scope) {
+        int pending = 0;
+        for (TopicPartition partition : scope) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null) {
+                pending += offsets.pending();
+            }
+        }
+        return pending;
+    }
+
+    private boolean hasPending(Collection<TopicPartition> scope) {
+        for (TopicPartition partition : scope) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null && offsets.hasPending()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void commit(Consumer<?, ?> consumer, Collection<TopicPartition> scope, boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition partition : scope) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null) {
+                long position = offsets.committable();
+                if (position >= 0 && offsets.advance(position)) {
+                    commits.put(partition, new OffsetAndMetadata(position));
+                }
+            }
+        }
+        if (commits.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            consumer.commitSync(commits);
+        } else {
+            consumer.commitAsync(commits, (committed, error) -> {
+                if (error != null) {
+                    log.warn("Failed to commit offsets {}", committed, error);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.kafka.shared.kafka;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offset bookkeeping for one partition handled by {@link ParallelRecordProcessor}.
+ * <p>
+ * Records complete out of order, so the committable position is the lowest offset still in flight,
+ * or one past the highest submitted offset once nothing is pending. Everything below that position
+ * has been processed, which keeps commits safe even though later records may already be done.
+ * <p>
+ * {@link #submitted(long)}, {@link #committable()} and {@link #advance(long)} are called on the
+ * consumer thread only; {@link #completed(long)} is called from worker threads.
+ */
+final class PartitionOffsets {
+
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private long nextOffset = -1;
+    private long committedOffset = -1;
+
+    void submitted(long offset) {
+        if (pending.add(offset)) {
+            pendingCount.incrementAndGet();
+        }
+        nextOffset = Math.max(nextOffset, offset + 1);
+    }
+
+    void completed(long offset) {
+        if (pending.remove(offset)) {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Records submitted and not completed yet.
+     */
+    int pending() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Highest offset such that every record below it has completed, or {@code -1} before the first record.
+     */
+    long committable() {
+        Long lowestPending = pending.ceiling(Long.MIN_VALUE);
+        return lowestPending != null ? lowestPending : nextOffset;
+    }
+
+    /**
+     * Record {@code offset} as committed; returns {@code false} when it would not move the position forward.
+     */
+    boolean advance(long offset) {
+        if (offset <= committedOffset) {
+            return false;
+        }
+        committedOffset = offset;
+        return true;
+    }
+}
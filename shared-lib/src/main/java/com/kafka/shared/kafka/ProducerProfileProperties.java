@@ -0,0 +1,39 @@
+package com.kafka.shared.kafka;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configured producer profiles and topic routes for {@link ProducerProfiles}.
+ * <p>
+ * {@code profiles} adds producer properties to a built-in profile or defines a new one; {@code routes}
+ * maps topic names to profiles and wins over the built-in routes. Topics without a route use
+ * {@code default-profile}.
+ * <pre>
+ * kafka:
+ *   producer:
+ *     profiles:
+ *       high-throughput:
+ *         "[linger.ms]": 50
+ *       audit:
+ *         "[acks]": all
+ *         "[enable.idempotence]": true
+ *     routes:
+ *       "[audit-events]": audit
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kafka.producer")
+public class ProducerProfileProperties {
+
+    private String defaultProfile = ProducerProfiles.DEFAULT;
+
+    private Map<String, Map<String, String>> profiles = new LinkedHashMap<>();
+
+    private Map<String, String> routes = new LinkedHashMap<>();
+}
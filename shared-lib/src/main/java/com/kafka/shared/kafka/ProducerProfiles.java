@@ -0,0 +1,192 @@
+package com.kafka.shared.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of named producer profiles, each backed by its own pooled producer, and the routing of topics
+ * to them. The {@code kafkaTemplate} bean consults it for every send (see {@link ProfileRoutingKafkaTemplate}),
+ * so callers keep sending through the one template.
+ * <p>
+ * Built-in profiles:
+ * <ul>
+ *   <li>{@code default}: the Spring Boot producer factory as configured by {@code spring.kafka.producer.*};</li>
+ *   <li>{@code low-latency}: no linger, small batches, no compression, leader-only acks;</li>
+ *   <li>{@code high-throughput}: 20 ms linger, 256 KiB batches, lz4 compression;</li>
+ *   <li>{@code idempotent}: idempotent producer with {@code acks=all}, so retries neither duplicate nor
+ *   reorder messages of a key.</li>
+ * </ul>
+ * Other profiles are copies of the default factory with the profile's properties on top, so serializers and
+ * connection settings are shared. Built-in routes send {@code notifications} and {@code workflow-replies}
+ * through {@code low-latency}, {@code data-processing} and {@code system-logs} through {@code high-throughput}
+ * and the workflow step topics through {@code idempotent}; retry and dead-letter topics follow their main
+ * topic. Both can be changed with {@link ProducerProfileProperties}.
+ * <p>
+ * Successful sends are timed into {@code kafka.producer.profile.send{profile,topic}} (from the record's create
+ * time to the acknowledgement) and failures counted in {@code kafka.producer.profile.errors{profile,topic}}.
+ * Each profile's producer has the client id {@code <application>-<profile>}, which tells the Kafka client
+ * metrics ({@code kafka.producer.*}: batch size, compression rate, request latency) apart.
+ */
+@Component
+@Slf4j
+public class ProducerProfiles {
+
+    public static final String DEFAULT = "default";
+    public static final String LOW_LATENCY = "low-latency";
+    public static final String HIGH_THROUGHPUT = "high-throughput";
+    public static final String IDEMPOTENT = "idempotent";
+
+    private static final Map<String, Map<String, Object>> BUILT_IN_PROFILES = Map.of(
+            LOW_LATENCY, Map.of(
+                    ProducerConfig.LINGER_MS_CONFIG, 0,
+                    ProducerConfig.BATCH_SIZE_CONFIG, 16_384,
+                    ProducerConfig.COMPRESSION_TYPE_CONFIG, "none",
+                    ProducerConfig.ACKS_CONFIG, "1",
+                    ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false),
+            HIGH_THROUGHPUT, Map.of(
+                    ProducerConfig.LINGER_MS_CONFIG, 20,
+                    ProducerConfig.BATCH_SIZE_CONFIG, 262_144,
+                    ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"),
+            IDEMPOTENT, Map.of(
+                    ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                    ProducerConfig.ACKS_CONFIG, "all",
+                    ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5));
+
+    private static final Map<String, String> BUILT_IN_ROUTES = Map.of(
+            "notifications", LOW_LATENCY,
+            "workflow-replies", LOW_LATENCY,
+            "data-processing", HIGH_THROUGHPUT,
+            "system-logs", HIGH_THROUGHPUT,
+            "service-calls", IDEMPOTENT,
+            "graphql-calls", IDEMPOTENT,
+            "schedule-tasks", IDEMPOTENT,
+            "workflow-external-events", IDEMPOTENT);
+
+    private static final String RETRY_SUFFIX = "-retry";
+    private static final String DLT_SUFFIX = "-dlt";
+
+    private final ProducerFactory<String, Object> defaultFactory;
+    private final MeterRegistry meterRegistry;
+    private final String applicationName;
+    private final String defaultProfile;
+    private final Map<String, Map<String, Object>> profiles = new LinkedHashMap<>();
+    private final Map<String, String> routes = new HashMap<>();
+    private final Map<String, ProducerFactory<String, Object>> factories = new ConcurrentHashMap<>();
+    private final Map<String, String> topicProfiles = new ConcurrentHashMap<>();
+
+    public ProducerProfiles(ProducerFactory<String, Object> producerFactory,
+                            ProducerProfileProperties properties,
+                            MeterRegistry meterRegistry,
+                            @Value("${spring.application.name:application}") String applicationName) {
+        this.defaultFactory = producerFactory;
+        this.meterRegistry = meterRegistry;
+        this.applicationName = applicationName;
+
+        profiles.put(DEFAULT, Map.of());
+        BUILT_IN_PROFILES.forEach((name, config) -> profiles.put(name, new HashMap<>(config)));
+        properties.getProfiles().forEach((name, config) ->
+                profiles.computeIfAbsent(name, n -> new HashMap<>()).putAll(config));
+
+        routes.putAll(BUILT_IN_ROUTES);
+        routes.putAll(properties.getRoutes());
+        routes.values().forEach(this::requireProfile);
+        this.defaultProfile = requireProfile(properties.getDefaultProfile());
+    }
+
+    public String profileFor(String topic) {
+        if (topic == null) {
+            return defaultProfile;
+        }
+        return topicProfiles.computeIfAbsent(topic, this::resolve);
+    }
+
+    public ProducerFactory<String, Object> factoryFor(String topic) {
+        return factories.computeIfAbsent(profileFor(topic), this::createFactory);
+    }
+
+    void recordSuccess(String topic, RecordMetadata metadata) {
+        Timer timer = Timer.builder("kafka.producer.profile.send")
+                .description("Time from creating a record to its acknowledgement, per producer profile")
+                .tag("profile", profileFor(topic))
+                .tag("topic", topic)
+                .register(meterRegistry);
+        if (metadata != null && metadata.hasTimestamp() && metadata.timestamp() > 0) {
+            timer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - metadata.timestamp())));
+        }
+    }
+
+    void recordFailure(String topic) {
+        Counter.builder("kafka.producer.profile.errors")
+                .description("Records a producer profile failed to deliver")
+                .tag("profile", profileFor(topic))
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        for (ProducerFactory<String, Object> factory : factories.values()) {
+            // The default factory is a Spring bean and closed by the context.
+            if (factory != defaultFactory && factory instanceof DisposableBean disposable) {
+                disposable.destroy();
+            }
+        }
+    }
+
+    private String resolve(String topic) {
+        String profile = routes.get(topic);
+        if (profile == null) {
+            String mainTopic = mainTopic(topic);
+            profile = mainTopic != null ? routes.get(mainTopic) : null;
+        }
+        return profile != null ? profile : defaultProfile;
+    }
+
+    private static String mainTopic(String topic) {
+        if (topic.endsWith(DLT_SUFFIX)) {
+            return topic.substring(0, topic.length() - DLT_SUFFIX.length());
+        }
+        int retry = topic.indexOf(RETRY_SUFFIX);
+        return retry > 0 ? topic.substring(0, retry) : null;
+    }
+
+    private ProducerFactory<String, Object> createFactory(String profile) {
+        if (DEFAULT.equals(profile)) {
+            return defaultFactory;
+        }
+        Map<String, Object> overrides = new HashMap<>(profiles.get(profile));
+        overrides.putIfAbsent(ProducerConfig.CLIENT_ID_CONFIG, applicationName + "-" + profile);
+        try {
+            ProducerFactory<String, Object> factory = defaultFactory.copyWithConfigurationOverride(overrides);
+            log.info("Created producer profile {}: {}", profile, overrides);
+            return factory;
+        } catch (UnsupportedOperationException e) {
+            log.warn("Producer factory {} cannot be copied; profile {} uses the default producer",
+                    defaultFactory.getClass().getSimpleName(), profile);
+            return defaultFactory;
+        }
+    }
+
+    private String requireProfile(String profile) {
+        if (!profiles.containsKey(profile)) {
+            throw new IllegalArgumentException("Unknown producer profile: " + profile);
+        }
+        return profile;
+    }
+}
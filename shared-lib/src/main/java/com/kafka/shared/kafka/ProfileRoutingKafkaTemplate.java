@@ -0,0 +1,40 @@
+package com.kafka.shared.kafka;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.LoggingProducerListener;
+
+/**
+ * {@link KafkaTemplate} that sends each record through the producer of the topic's {@link ProducerProfiles}
+ * profile. Transactional sends, which are bound to one producer, stay on the default factory.
+ */
+public class ProfileRoutingKafkaTemplate extends KafkaTemplate<String, Object> {
+
+    private final ProducerProfiles producerProfiles;
+
+    public ProfileRoutingKafkaTemplate(ProducerFactory<String, Object> producerFactory,
+                                       ProducerProfiles producerProfiles) {
+        super(producerFactory);
+        this.producerProfiles = producerProfiles;
+        setProducerListener(new LoggingProducerListener<>() {
+
+            @Override
+            public void onSuccess(ProducerRecord<String, Object> record, RecordMetadata metadata) {
+                producerProfiles.recordSuccess(record.topic(), metadata);
+            }
+
+            @Override
+            public void onError(ProducerRecord<String, Object> record, RecordMetadata metadata, Exception exception) {
+                producerProfiles.recordFailure(record.topic());
+                super.onError(record, metadata, exception);
+            }
+        });
+    }
+
+    @Override
+    protected ProducerFactory<String, Object> getProducerFactory(String topic) {
+        return producerProfiles.factoryFor(topic);
+    }
+}
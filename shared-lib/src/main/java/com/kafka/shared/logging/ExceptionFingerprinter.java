@@ -0,0 +1,122 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifies exceptions by a 64-bit hash of their normalized frames so that repeated failures
+ * can be stored once in {@code exception_fingerprints} instead of once per log row.
+ * <p>
+ * The hash covers the exception class and the class/method of every frame across the cause chain.
+ * Messages and line numbers are ignored, and generated class suffixes (CGLIB proxies, lambdas,
+ * JDK proxies) are stripped so the same failure hashes identically across restarts.
+ * <p>
+ * The full stack text is attached to every record of a fingerprint until {@link SystemLogWriter} reports
+ * through {@link #stored(List)} that the sink accepted one of them; afterwards log records carry the
+ * fingerprint alone. A stack held in a dropped or lost batch is therefore shipped again with the next
+ * occurrence instead of never reaching {@code exception_fingerprints}.
+ */
+@Component
+public class ExceptionFingerprinter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    /**
+     * @param id         hex fingerprint
+     * @param stackTrace rendered stack, or {@code null} when the sink already stored this fingerprint's stack
+     */
+    public record Fingerprint(String id, String stackTrace) {
+    }
+
+    private final Set<String> stored = ConcurrentHashMap.newKeySet();
+    private final int maxTracked;
+
+    public ExceptionFingerprinter(@Value("${system-logs.fingerprints.max-tracked:10000}") int maxTracked) {
+        this.maxTracked = Math.max(1, maxTracked);
+    }
+
+    public Fingerprint fingerprint(Throwable throwable) {
+        String id = Long.toHexString(hash(throwable));
+        return new Fingerprint(id, stored.contains(id) ? null : render(throwable));
+    }
+
+    /**
+     * Records that the sink accepted {@code logs}: the fingerprints whose stack they carried stop rendering it.
+     */
+    public void stored(List<SystemLog> logs) {
+        for (SystemLog log : logs) {
+            if (log.getExceptionFingerprint() != null && log.getExceptionStack() != null) {
+                if (stored.size() >= maxTracked) {
+                    // Forgetting only means a stack is shipped again; the sink keeps the first copy.
+                    stored.clear();
+                }
+                stored.add(log.getExceptionFingerprint());
+            }
+        }
+    }
+
+    private static long hash(Throwable throwable) {
+        long hash = FNV_OFFSET;
+        Throwable current = throwable;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            hash = mix(hash, current.getClass().getName());
+            for (StackTraceElement frame : current.getStackTrace()) {
+                hash = mix(hash, frame.getClassName());
+                hash = mix(hash, frame.getMethodName());
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        int length = normalizedLength(value);
+        for (int i = 0; i < length; i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= '|';
+        return hash * FNV_PRIME;
+    }
+
+    /**
+     * Length of {@code name} without generated suffixes such as {@code $$SpringCGLIB$$0},
+     * {@code $$Lambda/0x...} or the counter in {@code $Proxy123}.
+     */
+    private static int normalizedLength(String name) {
+        int generated = name.indexOf("$$");
+        if (generated > 0) {
+            return generated;
+        }
+        int length = name.length();
+        if (name.contains("$Proxy")) {
+            while (length > 0 && Character.isDigit(name.charAt(length - 1))) {
+                length--;
+            }
+        }
+        return length;
+    }
+
+    private static String render(Throwable throwable) {
+        StringBuilder sb = new StringBuilder();
+        Throwable current = throwable;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (depth > 0) {
+                sb.append("Caused by: ");
+            }
+            sb.append(current.getClass().getName()).append("\n");
+            for (StackTraceElement element : current.getStackTrace()) {
+                sb.append("\tat ").append(element).append("\n");
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return sb.toString();
+    }
+}
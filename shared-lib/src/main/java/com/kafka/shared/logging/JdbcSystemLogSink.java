@@ -0,0 +1,181 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk-inserts {@link SystemLog} records into {@code system_logs} with a single JDBC batch.
+ * Add {@code rewriteBatchedStatements=true} to the MySQL URL so the driver sends multi-row inserts.
+ * <p>
+ * Records carrying an exception fingerprint are also folded into {@code exception_fingerprints}:
+ * one upsert per distinct fingerprint in the batch bumps its occurrence count and keeps the first
+ * stack trace received, so the stack text is never stored on the log rows themselves. Both statements run
+ * in one transaction: a batch that fails is stored neither way, so replaying it from the journal does not
+ * duplicate rows or occurrence counts.
+ * <p>
+ * Only created with {@code system-logs.sink=jdbc} (the default), so services streaming to Kafka need no
+ * {@link JdbcTemplate} for it. Also used by the admin service to ingest records streamed by
+ * {@link KafkaSystemLogSink}.
+ */
+@Component
+@ConditionalOnProperty(name = "system-logs.sink", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcSystemLogSink implements SystemLogSink {
+
+    public static final String TYPE = "jdbc";
+
+    private static final String INSERT_SQL = "INSERT INTO system_logs (service_name, method_name, class_name, log_level, "
+            + "message, execution_time_ms, user_id, session_id, request_id, ip_address, user_agent, exception_stack, "
+            + "exception_fingerprint, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_FINGERPRINT_SQL = "INSERT INTO exception_fingerprints (fingerprint, exception_class, "
+            + "stack_trace, occurrence_count, first_seen, last_seen) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE occurrence_count = occurrence_count + VALUES(occurrence_count), "
+            + "exception_class = COALESCE(exception_class, VALUES(exception_class)), "
+            + "stack_trace = COALESCE(stack_trace, VALUES(stack_trace)), "
+            + "first_seen = LEAST(first_seen, VALUES(first_seen)), "
+            + "last_seen = GREATEST(last_seen, VALUES(last_seen))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcSystemLogSink(JdbcTemplate jdbcTemplate,
+                             @Value("${system-logs.writer.write-timeout-seconds:10}") int writeTimeoutSeconds) {
+        // Own template so a stalled database fails the batch (and spills it) instead of blocking the drainer
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setQueryTimeout(writeTimeoutSeconds);
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(this.jdbcTemplate.getDataSource()));
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void write(List<SystemLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            insertLogs(logs);
+            upsertFingerprints(logs);
+        });
+    }
+
+    private void insertLogs(List<SystemLog> logs) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SystemLog log = logs.get(i);
+                ps.setString(1, log.getServiceName());
+                ps.setString(2, log.getMethodName());
+                ps.setString(3, log.getClassName());
+                ps.setString(4, log.getLogLevel());
+                ps.setString(5, log.getMessage());
+                if (log.getExecutionTimeMs() != null) {
+                    ps.setLong(6, log.getExecutionTimeMs());
+                } else {
+                    ps.setNull(6, Types.BIGINT);
+                }
+                ps.setString(7, log.getUserId());
+                ps.setString(8, log.getSessionId());
+                ps.setString(9, log.getRequestId());
+                ps.setString(10, log.getIpAddress());
+                ps.setString(11, log.getUserAgent());
+                ps.setString(12, log.getExceptionFingerprint() != null ? null : log.getExceptionStack());
+                ps.setString(13, log.getExceptionFingerprint());
+                ps.setTimestamp(14, Timestamp.valueOf(createdAt(log)));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return logs.size();
+            }
+        });
+    }
+
+    private void upsertFingerprints(List<SystemLog> logs) {
+        Map<String, FingerprintBatch> fingerprints = new LinkedHashMap<>();
+        for (SystemLog log : logs) {
+            if (log.getExceptionFingerprint() != null) {
+                fingerprints.computeIfAbsent(log.getExceptionFingerprint(), FingerprintBatch::new).add(log);
+            }
+        }
+        if (fingerprints.isEmpty()) {
+            return;
+        }
+
+        List<FingerprintBatch> batches = new ArrayList<>(fingerprints.values());
+        jdbcTemplate.batchUpdate(UPSERT_FINGERPRINT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                FingerprintBatch batch = batches.get(i);
+                ps.setString(1, batch.fingerprint);
+                ps.setString(2, exceptionClass(batch.stackTrace));
+                ps.setString(3, batch.stackTrace);
+                ps.setLong(4, batch.count);
+                ps.setTimestamp(5, Timestamp.valueOf(batch.firstSeen));
+                ps.setTimestamp(6, Timestamp.valueOf(batch.lastSeen));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batches.size();
+            }
+        });
+    }
+
+    private static LocalDateTime createdAt(SystemLog log) {
+        return log.getCreatedAt() != null ? log.getCreatedAt() : LocalDateTime.now();
+    }
+
+    /**
+     * The first line of a rendered stack is the exception class name.
+     */
+    private static String exceptionClass(String stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        int end = stackTrace.indexOf('\n');
+        return end < 0 ? stackTrace : stackTrace.substring(0, end);
+    }
+
+    private static final class FingerprintBatch {
+        private final String fingerprint;
+        private String stackTrace;
+        private long count;
+        private LocalDateTime firstSeen;
+        private LocalDateTime lastSeen;
+
+        private FingerprintBatch(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private void add(SystemLog log) {
+            LocalDateTime createdAt = createdAt(log);
+            if (stackTrace == null) {
+                stackTrace = log.getExceptionStack();
+            }
+            count++;
+            firstSeen = firstSeen == null || createdAt.isBefore(firstSeen) ? createdAt : firstSeen;
+            lastSeen = lastSeen == null || createdAt.isAfter(lastSeen) ? createdAt : lastSeen;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.kafka.shared.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.dto.SystemLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes execution log records as compact {@link SystemLogEvent} JSON to the
+ * {@code system-logs} topic, keyed by service name. The spring-boot-admin service bulk-ingests
+ * the topic into {@code system_logs}, so services in this mode never touch the log table.
+ * <p>
+ * {@link #write} waits up to {@code system-logs.kafka.send-timeout-ms} for the broker to acknowledge the
+ * whole batch and throws if any record was not delivered, so {@link SystemLogWriter} spills the batch to its
+ * journal. Records of a partly delivered batch are then sent again on replay.
+ */
+@Component
+@Slf4j
+public class KafkaSystemLogSink implements SystemLogSink {
+
+    public static final String TYPE = "kafka";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final long sendTimeoutMs;
+    private final Counter failedCounter;
+
+    public KafkaSystemLogSink(KafkaTemplate<String, Object> kafkaTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${system-logs.kafka.topic:system-logs}") String topic,
+                              @Value("${system-logs.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.sendTimeoutMs = Math.max(1, sendTimeoutMs);
+        this.failedCounter = Counter.builder("system.logs.publish.failures")
+                .description("Execution log events the Kafka producer failed to deliver")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void write(List<SystemLog> logs) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(logs.size());
+        for (SystemLog systemLog : logs) {
+            String event;
+            try {
+                event = objectMapper.writeValueAsString(SystemLogEvent.from(systemLog));
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to encode execution log event for {}.{}",
+                        systemLog.getClassName(), systemLog.getMethodName(), e);
+                continue;
+            }
+
+            sends.add(kafkaTemplate.send(topic, systemLog.getServiceName(), event)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            failedCounter.increment();
+                        }
+                    }));
+        }
+        awaitDelivery(sends);
+    }
+
+    private void awaitDelivery(List<CompletableFuture<?>> sends) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        try {
+            for (CompletableFuture<?> send : sends) {
+                send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing execution log events", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to publish execution log events to " + topic, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Execution log events not acknowledged by " + topic + " within "
+                    + sendTimeoutMs + " ms", e);
+        }
+    }
+}
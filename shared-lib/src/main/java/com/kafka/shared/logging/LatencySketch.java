@@ -0,0 +1,186 @@
+package com.kafka.shared.logging;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable latency histogram with logarithmic buckets.
+ * <p>
+ * A value {@code v > 0} falls into bucket {@code ceil(log(v) / log(gamma))}, so every quantile is
+ * reported within {@link #RELATIVE_ACCURACY} of the true value regardless of the data range.
+ * Sketches built over different rows merge exactly by adding bucket counts, which is what lets
+ * minute rollups be combined into hour rollups and arbitrary query ranges.
+ * <p>
+ * Not thread-safe.
+ */
+public final class LatencySketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final byte FORMAT_VERSION = 1;
+
+    private long zeroCount;
+    private long[] counts = new long[0];
+    private int minIndex;
+    private long totalCount;
+
+    public static LatencySketch fromBytes(byte[] bytes) {
+        LatencySketch sketch = new LatencySketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported latency sketch format: " + version);
+        }
+        sketch.zeroCount = readVarLong(buffer);
+        sketch.minIndex = zigZagDecode(readVarLong(buffer));
+        int length = (int) readVarLong(buffer);
+        sketch.counts = new long[length];
+        for (int i = 0; i < length; i++) {
+            sketch.counts[i] = readVarLong(buffer);
+        }
+        sketch.totalCount = sketch.zeroCount + Arrays.stream(sketch.counts).sum();
+        return sketch;
+    }
+
+    public void add(long value) {
+        add(value, 1);
+    }
+
+    public void add(long value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        totalCount += count;
+        if (value <= 0) {
+            zeroCount += count;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        ensureCapacity(index, index);
+        counts[index - minIndex] += count;
+    }
+
+    public void merge(LatencySketch other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        totalCount += other.totalCount;
+        zeroCount += other.zeroCount;
+        if (other.counts.length == 0) {
+            return;
+        }
+        ensureCapacity(other.minIndex, other.minIndex + other.counts.length - 1);
+        int offset = other.minIndex - minIndex;
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[offset + i] += other.counts[i];
+        }
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    /**
+     * Estimated value at quantile {@code q} (0..1), or {@code 0} for an empty sketch.
+     */
+    public long quantile(double q) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.max(0.0, Math.min(1.0, q)) * totalCount);
+        long seen = zeroCount;
+        if (rank <= seen) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return representative(minIndex + i);
+            }
+        }
+        return representative(minIndex + counts.length - 1);
+    }
+
+    /**
+     * Estimated number of values strictly greater than {@code threshold}.
+     */
+    public long countAbove(long threshold) {
+        long above = 0;
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] != 0) {
+                if (representative(minIndex + i) <= threshold) {
+                    break;
+                }
+                above += counts[i];
+            }
+        }
+        return above;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + counts.length * 2);
+        out.write(FORMAT_VERSION);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, zigZagEncode(minIndex));
+        writeVarLong(out, counts.length);
+        for (long count : counts) {
+            writeVarLong(out, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static long representative(int index) {
+        return Math.round(2 * Math.pow(GAMMA, index) / (GAMMA + 1));
+    }
+
+    private void ensureCapacity(int lowIndex, int highIndex) {
+        if (counts.length == 0) {
+            minIndex = lowIndex;
+            counts = new long[highIndex - lowIndex + 1];
+            return;
+        }
+        int newMin = Math.min(minIndex, lowIndex);
+        int newMax = Math.max(minIndex + counts.length - 1, highIndex);
+        if (newMin == minIndex && newMax == minIndex + counts.length - 1) {
+            return;
+        }
+        long[] grown = new long[newMax - newMin + 1];
+        System.arraycopy(counts, 0, grown, minIndex - newMin, counts.length);
+        counts = grown;
+        minIndex = newMin;
+    }
+
+    private static long zigZagEncode(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int zigZagDecode(long value) {
+        return (int) ((value >>> 1) ^ -(value & 1));
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
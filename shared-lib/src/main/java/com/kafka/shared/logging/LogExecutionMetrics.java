@@ -0,0 +1,72 @@
+package com.kafka.shared.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanosecond-resolution {@code log.execution} timers for every {@code @LogExecution} method,
+ * tagged by service, class, method and outcome and exported with percentile histograms so
+ * Prometheus/Grafana can compute per-method p50/p99 directly.
+ * <p>
+ * Timers are recorded for every call regardless of the {@link LogPolicy}; they are resolved once
+ * per method and cached, so the hot path is a map lookup and a histogram update.
+ */
+@Component
+public class LogExecutionMetrics {
+
+    public static final String METRIC_NAME = "log.execution";
+
+    private final MeterRegistry meterRegistry;
+    private final String serviceName;
+    private final boolean enabled;
+    private final boolean percentileHistogram;
+    private final Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public LogExecutionMetrics(MeterRegistry meterRegistry,
+                               @Value("${spring.application.name:unknown-service}") String serviceName,
+                               @Value("${system-logs.metrics.enabled:true}") boolean enabled,
+                               @Value("${system-logs.metrics.percentile-histogram:true}") boolean percentileHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.serviceName = serviceName;
+        this.enabled = enabled;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void record(Method method, Class<?> targetClass, long elapsedNanos, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+        Timer[] methodTimers = timers.get(method);
+        if (methodTimers == null) {
+            methodTimers = timers.computeIfAbsent(method, m -> register(m, targetClass));
+        }
+        methodTimers[failed ? 1 : 0].record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] register(Method method, Class<?> targetClass) {
+        String className = (targetClass != null ? targetClass : method.getDeclaringClass()).getSimpleName();
+        return new Timer[]{timer(className, method.getName(), "success"), timer(className, method.getName(), "error")};
+    }
+
+    private Timer timer(String className, String methodName, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Execution time of @LogExecution methods")
+                .tag("service", serviceName)
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(meterRegistry);
+    }
+}
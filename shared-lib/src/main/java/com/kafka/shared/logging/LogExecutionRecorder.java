@@ -0,0 +1,106 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one {@code @LogExecution} call, records it in {@link LogExecutionMetrics} and, when the
+ * {@link LogPolicy} asks for it, queues a {@link SystemLog} on the {@link SystemLogWriter}.
+ * <p>
+ * Shared by both weaving modes of {@link com.kafka.shared.aspect.LoggingAspect}.
+ */
+@Component
+@RequiredArgsConstructor
+public class LogExecutionRecorder {
+
+    private final SystemLogWriter systemLogWriter;
+    private final LogPolicyResolver logPolicyResolver;
+    private final LogExecutionMetrics logExecutionMetrics;
+    private final ExceptionFingerprinter exceptionFingerprinter;
+
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object target = joinPoint.getTarget();
+        Class<?> targetClass = target != null ? target.getClass() : null;
+        LogPolicy policy = logPolicyResolver.resolve(method, targetClass);
+
+        // Decide sampling up front; the log record and request details are only built once the
+        // outcome is known to be recorded.
+        boolean sampled = policy.sample();
+        long startTime = System.nanoTime();
+
+        try {
+            Object result = joinPoint.proceed();
+
+            long elapsed = System.nanoTime() - startTime;
+            logExecutionMetrics.record(method, targetClass, elapsed, false);
+            if (policy.shouldRecordSuccess(sampled, elapsed)) {
+                systemLogWriter.append(newLogBuilder(joinPoint, elapsed)
+                        .message("Method executed successfully")
+                        .build());
+            }
+
+            return result;
+
+        } catch (Exception e) {
+            long elapsed = System.nanoTime() - startTime;
+            logExecutionMetrics.record(method, targetClass, elapsed, true);
+            if (policy.shouldRecordFailure(sampled, elapsed)) {
+                ExceptionFingerprinter.Fingerprint fingerprint = exceptionFingerprinter.fingerprint(e);
+                systemLogWriter.append(newLogBuilder(joinPoint, elapsed)
+                        .logLevel("ERROR")
+                        .message("Method execution failed: " + e.getMessage())
+                        .exceptionFingerprint(fingerprint.id())
+                        .exceptionStack(fingerprint.stackTrace())
+                        .build());
+            }
+
+            throw e;
+        }
+    }
+
+    private SystemLog.SystemLogBuilder newLogBuilder(ProceedingJoinPoint joinPoint, long elapsedNanos) {
+        Object target = joinPoint.getTarget();
+        String className = target != null
+                ? target.getClass().getSimpleName()
+                : joinPoint.getSignature().getDeclaringType().getSimpleName();
+
+        SystemLog.SystemLogBuilder logBuilder = SystemLog.builder()
+                .serviceName(logExecutionMetrics.getServiceName())
+                .className(className)
+                .methodName(joinPoint.getSignature().getName())
+                .logLevel("INFO")
+                .executionTimeMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .createdAt(LocalDateTime.now().minusNanos(elapsedNanos));
+
+        // Extract request information if available
+        ServletRequestAttributes attributes =
+                (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            HttpServletRequest request = attributes.getRequest();
+            logBuilder.ipAddress(getClientIpAddress(request))
+                    .userAgent(request.getHeader("User-Agent"))
+                    .requestId(request.getHeader("X-Request-ID"));
+        }
+
+        return logBuilder;
+    }
+
+    private String getClientIpAddress(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,33 @@
+package com.kafka.shared.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Effective capture policy for one {@code @LogExecution} method.
+ */
+public record LogPolicy(double sampleRate, long slowThresholdMs, boolean alwaysLogErrors) {
+
+    public LogPolicy {
+        sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        slowThresholdMs = Math.max(0, slowThresholdMs);
+    }
+
+    /**
+     * Roll the sampling decision for one call.
+     */
+    public boolean sample() {
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public boolean shouldRecordSuccess(boolean sampled, long elapsedNanos) {
+        if (slowThresholdMs > 0) {
+            return elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        }
+        return sampled;
+    }
+
+    public boolean shouldRecordFailure(boolean sampled, long elapsedNanos) {
+        return alwaysLogErrors || shouldRecordSuccess(sampled, elapsedNanos);
+    }
+}
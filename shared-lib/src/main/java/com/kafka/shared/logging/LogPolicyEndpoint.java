@@ -0,0 +1,48 @@
+package com.kafka.shared.logging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/logpolicies}) for changing {@code @LogExecution} capture
+ * policies at runtime without a restart.
+ * <p>
+ * Example: {@code POST /actuator/logpolicies/JwtService.extractClaim {"sampleRate": 0.001}}
+ */
+@Component
+@Endpoint(id = "logpolicies")
+@RequiredArgsConstructor
+public class LogPolicyEndpoint {
+
+    private final LogPolicyResolver logPolicyResolver;
+
+    @ReadOperation
+    public Map<String, LogPolicyProperties.Override> overrides() {
+        return logPolicyResolver.getOverrides();
+    }
+
+    @WriteOperation
+    public void setOverride(@Selector String key,
+                            @Nullable Double sampleRate,
+                            @Nullable Long slowThresholdMs,
+                            @Nullable Boolean alwaysLogErrors) {
+        LogPolicyProperties.Override override = new LogPolicyProperties.Override();
+        override.setSampleRate(sampleRate);
+        override.setSlowThresholdMs(slowThresholdMs);
+        override.setAlwaysLogErrors(alwaysLogErrors);
+        logPolicyResolver.setOverride(key, override);
+    }
+
+    @DeleteOperation
+    public void removeOverride(@Selector String key) {
+        logPolicyResolver.removeOverride(key);
+    }
+}
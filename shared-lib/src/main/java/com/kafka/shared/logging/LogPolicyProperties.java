@@ -0,0 +1,39 @@
+package com.kafka.shared.logging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configured overrides of {@code @LogExecution} capture policies.
+ * <p>
+ * Keys are either a simple class name ({@code JwtService}) or a class and method name
+ * ({@code JwtService.extractClaim}); a method entry wins over a class entry. Unset fields fall
+ * back to the next level, and finally to the annotation attributes.
+ * <pre>
+ * system-logs:
+ *   policy:
+ *     overrides:
+ *       "[JwtService]":
+ *         sample-rate: 0.01
+ *       "[WorkflowEngine.executeServiceCall]":
+ *         slow-threshold-ms: 200
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "system-logs.policy")
+public class LogPolicyProperties {
+
+    private Map<String, Override> overrides = new LinkedHashMap<>();
+
+    @Data
+    public static class Override {
+        private Double sampleRate;
+        private Long slowThresholdMs;
+        private Boolean alwaysLogErrors;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.annotation.LogExecution;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves and caches the effective {@link LogPolicy} of each {@code @LogExecution} method.
+ * <p>
+ * Overrides start from {@link LogPolicyProperties} and can be changed at runtime; every change
+ * clears the cache so the next invocation picks up the new policy.
+ */
+@Component
+public class LogPolicyResolver {
+
+    private static final LogPolicy DEFAULT_POLICY = new LogPolicy(1.0, 0, true);
+
+    private final Map<String, LogPolicyProperties.Override> overrides = new ConcurrentHashMap<>();
+    private final Map<Method, LogPolicy> cache = new ConcurrentHashMap<>();
+
+    public LogPolicyResolver(LogPolicyProperties properties) {
+        overrides.putAll(properties.getOverrides());
+    }
+
+    public LogPolicy resolve(Method method, Class<?> targetClass) {
+        LogPolicy policy = cache.get(method);
+        if (policy == null) {
+            policy = cache.computeIfAbsent(method, m -> compute(m, targetClass));
+        }
+        return policy;
+    }
+
+    public Map<String, LogPolicyProperties.Override> getOverrides() {
+        return new TreeMap<>(overrides);
+    }
+
+    public void setOverride(String key, LogPolicyProperties.Override override) {
+        overrides.put(key, override);
+        cache.clear();
+    }
+
+    public void removeOverride(String key) {
+        overrides.remove(key);
+        cache.clear();
+    }
+
+    private LogPolicy compute(Method method, Class<?> targetClass) {
+        LogExecution annotation = AnnotationUtils.findAnnotation(method, LogExecution.class);
+        double sampleRate = annotation != null ? annotation.sampleRate() : DEFAULT_POLICY.sampleRate();
+        long slowThresholdMs = annotation != null ? annotation.slowThresholdMs() : DEFAULT_POLICY.slowThresholdMs();
+        boolean alwaysLogErrors = annotation != null ? annotation.alwaysLogErrors() : DEFAULT_POLICY.alwaysLogErrors();
+
+        String className = (targetClass != null ? targetClass : method.getDeclaringClass()).getSimpleName();
+        for (String key : new String[]{className, className + "." + method.getName()}) {
+            LogPolicyProperties.Override override = overrides.get(key);
+            if (override == null) {
+                continue;
+            }
+            if (override.getSampleRate() != null) {
+                sampleRate = override.getSampleRate();
+            }
+            if (override.getSlowThresholdMs() != null) {
+                slowThresholdMs = override.getSlowThresholdMs();
+            }
+            if (override.getAlwaysLogErrors() != null) {
+                alwaysLogErrors = override.getAlwaysLogErrors();
+            }
+        }
+        return new LogPolicy(sampleRate, slowThresholdMs, alwaysLogErrors);
+    }
+}
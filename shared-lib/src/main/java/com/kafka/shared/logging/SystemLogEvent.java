@@ -0,0 +1,69 @@
+package com.kafka.shared.logging;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.kafka.shared.dto.SystemLog;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact wire form of a {@link SystemLog} published on the {@code system-logs} topic.
+ * Field names are abbreviated and null fields omitted to keep events small.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SystemLogEvent(
+        @JsonProperty("s") String serviceName,
+        @JsonProperty("c") String className,
+        @JsonProperty("m") String methodName,
+        @JsonProperty("l") String logLevel,
+        @JsonProperty("msg") String message,
+        @JsonProperty("t") Long executionTimeMs,
+        @JsonProperty("u") String userId,
+        @JsonProperty("sid") String sessionId,
+        @JsonProperty("rid") String requestId,
+        @JsonProperty("ip") String ipAddress,
+        @JsonProperty("ua") String userAgent,
+        @JsonProperty("ex") String exceptionStack,
+        @JsonProperty("fp") String exceptionFingerprint,
+        @JsonProperty("ts") long createdAtEpochMs) {
+
+    public static SystemLogEvent from(SystemLog log) {
+        LocalDateTime createdAt = log.getCreatedAt() != null ? log.getCreatedAt() : LocalDateTime.now();
+        return new SystemLogEvent(
+                log.getServiceName(),
+                log.getClassName(),
+                log.getMethodName(),
+                log.getLogLevel(),
+                log.getMessage(),
+                log.getExecutionTimeMs(),
+                log.getUserId(),
+                log.getSessionId(),
+                log.getRequestId(),
+                log.getIpAddress(),
+                log.getUserAgent(),
+                log.getExceptionStack(),
+                log.getExceptionFingerprint(),
+                createdAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    public SystemLog toSystemLog() {
+        return SystemLog.builder()
+                .serviceName(serviceName)
+                .className(className)
+                .methodName(methodName)
+                .logLevel(logLevel)
+                .message(message)
+                .executionTimeMs(executionTimeMs)
+                .userId(userId)
+                .sessionId(sessionId)
+                .requestId(requestId)
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
+                .exceptionStack(exceptionStack)
+                .exceptionFingerprint(exceptionFingerprint)
+                .createdAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtEpochMs), ZoneOffset.UTC))
+                .build();
+    }
+}
@@ -0,0 +1,514 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only spill journal for execution logs that could not be handed to the sink.
+ * <p>
+ * Records are encoded straight into memory-mapped segment files (no intermediate byte arrays) and
+ * each appended batch is forced to disk once. {@link SystemLogWriter} replays the journal in
+ * order once the sink accepts writes again; the replay position is kept in each segment header, so
+ * records spilled before a restart are replayed after it.
+ * <p>
+ * Segment layout: a 16-byte header ({@code magic, version, readPosition, reserved}) followed by
+ * records of {@code [int length][payload]}. A zero length marks the end of written data; the
+ * length is written after the payload so a torn record is never replayed. A segment is unmapped before
+ * its file is deleted, since a mapped file cannot be deleted on every platform.
+ */
+@Component
+@Slf4j
+public class SystemLogJournal {
+
+    private static final int MAGIC = 0x534C4A31; // "SLJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int READ_POSITION_OFFSET = 8;
+    private static final int MAX_STRING_CHARS = 32 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    /** {@code Unsafe.invokeCleaner}, the only way to release a mapping before GC; null if unavailable. */
+    private static final MethodHandle CLEANER = cleaner();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentId;
+    private long pendingRecords;
+
+    private final Counter spilledCounter;
+    private final Counter replayedCounter;
+
+    public SystemLogJournal(MeterRegistry meterRegistry,
+                            @Value("${system-logs.journal.enabled:true}") boolean enabled,
+                            @Value("${system-logs.journal.dir:${java.io.tmpdir}/system-log-journal/${spring.application.name:unknown-service}}") String directory,
+                            @Value("${system-logs.journal.segment-size-mb:64}") int segmentSizeMb,
+                            @Value("${system-logs.journal.max-segments:16}") int maxSegments) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = Math.max(1, segmentSizeMb) * 1024 * 1024;
+        this.maxSegments = Math.max(1, maxSegments);
+
+        Gauge.builder("system.logs.journal.pending", this, SystemLogJournal::pending)
+                .description("Execution log records waiting in the spill journal")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("system.logs.journal.spilled")
+                .description("Execution log records written to the spill journal")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("system.logs.journal.replayed")
+                .description("Execution log records replayed from the spill journal")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path path : existing) {
+            Segment segment = Segment.recover(path, segmentSize);
+            if (segment == null) {
+                log.warn("Discarding unreadable execution log journal segment {}", path);
+                Files.deleteIfExists(path);
+                continue;
+            }
+            if (segment.pendingRecords == 0) {
+                segment.delete();
+                continue;
+            }
+            segments.addLast(segment);
+            pendingRecords += segment.pendingRecords;
+            nextSegmentId = Math.max(nextSegmentId, segment.id + 1);
+        }
+        if (pendingRecords > 0) {
+            log.info("Execution log journal holds {} records from a previous run", pendingRecords);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    public synchronized boolean hasPending() {
+        return pendingRecords > 0;
+    }
+
+    public synchronized long pending() {
+        return pendingRecords;
+    }
+
+    /**
+     * Append a batch and force it to disk once. Returns the number of records kept, which is less
+     * than the batch size when the journal is disabled, full or failing.
+     */
+    public synchronized int append(List<SystemLog> logs) {
+        if (!enabled) {
+            return 0;
+        }
+        Segment touched = null;
+        int written = 0;
+        try {
+            for (SystemLog systemLog : logs) {
+                int size = RecordCodec.encodedSize(systemLog);
+                Segment segment = writableSegment(4 + size);
+                if (segment == null) {
+                    break;
+                }
+                segment.write(systemLog, size);
+                touched = segment;
+                written++;
+            }
+        } catch (IOException e) {
+            log.error("Failed to write execution log journal in {}", directory, e);
+        } finally {
+            if (touched != null) {
+                touched.buffer.force();
+            }
+        }
+        pendingRecords += written;
+        spilledCounter.increment(written);
+        return written;
+    }
+
+    /**
+     * Hand up to {@code maxRecords} of the oldest journaled records to {@code sink}. The replay position
+     * only advances once the sink returns, so a failing sink leaves the records in place.
+     */
+    public synchronized int replay(int maxRecords, SystemLogSink sink) {
+        Segment segment = segments.peekFirst();
+        if (segment == null) {
+            return 0;
+        }
+        List<SystemLog> batch = new ArrayList<>(Math.min(maxRecords, 1024));
+        int position = segment.readPosition;
+        while (batch.size() < maxRecords && position < segment.writePosition) {
+            int length = segment.buffer.getInt(position);
+            batch.add(RecordCodec.decode(segment.buffer, position + 4));
+            position += 4 + length;
+        }
+
+        if (!batch.isEmpty()) {
+            sink.write(batch);
+        }
+
+        segment.commitReadPosition(position, batch.size());
+        pendingRecords -= batch.size();
+        replayedCounter.increment(batch.size());
+        if (segment.readPosition >= segment.writePosition && (segments.size() > 1 || segment.sealed)) {
+            segments.removeFirst();
+            segment.delete();
+        }
+        return batch.size();
+    }
+
+    private Segment writableSegment(int recordSize) throws IOException {
+        Segment last = segments.peekLast();
+        if (last != null && !last.sealed && last.writePosition + recordSize <= segmentSize) {
+            return last;
+        }
+        if (last != null) {
+            last.sealed = true;
+            last.buffer.force();
+        }
+        if (recordSize > segmentSize - HEADER_SIZE || segments.size() >= maxSegments) {
+            return null;
+        }
+        Segment segment = Segment.create(directory, nextSegmentId++, segmentSize);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int readPosition;
+        private int writePosition;
+        private long pendingRecords;
+        private boolean sealed;
+
+        private Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, long id, int size) throws IOException {
+            Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+            Segment segment = new Segment(id, path, map(path, size));
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, VERSION);
+            segment.buffer.putInt(READ_POSITION_OFFSET, HEADER_SIZE);
+            segment.readPosition = HEADER_SIZE;
+            segment.writePosition = HEADER_SIZE;
+            return segment;
+        }
+
+        static Segment recover(Path path, int defaultSize) throws IOException {
+            String name = path.getFileName().toString();
+            long id;
+            try {
+                id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            } catch (RuntimeException e) {
+                return null;
+            }
+            long fileSize = Files.size(path);
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                return null;
+            }
+            Segment segment = new Segment(id, path, map(path, (int) Math.max(fileSize, defaultSize)));
+            if (segment.buffer.getInt(0) != MAGIC || segment.buffer.getInt(4) != VERSION) {
+                unmap(segment.buffer);
+                return null;
+            }
+            int limit = segment.buffer.capacity();
+            int readPosition = segment.buffer.getInt(READ_POSITION_OFFSET);
+            boolean boundary = readPosition == HEADER_SIZE;
+            int position = HEADER_SIZE;
+            long records = 0;
+            long replayed = 0;
+            while (position + 4 <= limit) {
+                int length = segment.buffer.getInt(position);
+                if (length <= 0 || position + 4 + length > limit) {
+                    break;
+                }
+                records++;
+                position += 4 + length;
+                if (position <= readPosition) {
+                    replayed++;
+                }
+                boundary |= position == readPosition;
+            }
+            if (!boundary) {
+                // Only ever written as a record boundary: anything else is a damaged header
+                log.warn("Execution log journal segment {} has an invalid replay position {}; replaying it "
+                        + "from the start", path, readPosition);
+                readPosition = HEADER_SIZE;
+                replayed = 0;
+            }
+            segment.readPosition = readPosition;
+            segment.writePosition = position;
+            segment.pendingRecords = records - replayed;
+            // Never append after a restart: a partially written record may follow the last valid one
+            segment.sealed = true;
+            return segment;
+        }
+
+        void write(SystemLog systemLog, int size) {
+            int start = writePosition;
+            RecordCodec.encode(systemLog, buffer, start + 4);
+            buffer.putInt(start, size);
+            writePosition = start + 4 + size;
+        }
+
+        void commitReadPosition(int position, int records) {
+            readPosition = position;
+            pendingRecords -= records;
+            buffer.putInt(READ_POSITION_OFFSET, position);
+        }
+
+        /**
+         * Unmap and delete the segment; it must not be used afterwards.
+         */
+        void delete() {
+            unmap(buffer);
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete execution log journal segment {}", path, e);
+            }
+        }
+
+        private static MappedByteBuffer map(Path path, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        if (CLEANER == null) {
+            return;
+        }
+        try {
+            CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            log.warn("Could not unmap execution log journal segment", e);
+        }
+    }
+
+    private static MethodHandle cleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Journal segments stay mapped until garbage collected: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Field-by-field binary form of a {@link SystemLog}. Strings are written as a varint UTF-8
+     * length (0 for null, n + 1 otherwise) followed by UTF-8 bytes encoded in place.
+     */
+    static final class RecordCodec {
+
+        private RecordCodec() {
+        }
+
+        static int encodedSize(SystemLog log) {
+            return stringSize(log.getServiceName()) + stringSize(log.getMethodName()) + stringSize(log.getClassName())
+                    + stringSize(log.getLogLevel()) + stringSize(log.getMessage()) + 1 + 8
+                    + stringSize(log.getUserId()) + stringSize(log.getSessionId()) + stringSize(log.getRequestId())
+                    + stringSize(log.getIpAddress()) + stringSize(log.getUserAgent())
+                    + stringSize(log.getExceptionStack()) + stringSize(log.getExceptionFingerprint()) + 8;
+        }
+
+        static void encode(SystemLog log, MappedByteBuffer buffer, int position) {
+            position = putString(buffer, position, log.getServiceName());
+            position = putString(buffer, position, log.getMethodName());
+            position = putString(buffer, position, log.getClassName());
+            position = putString(buffer, position, log.getLogLevel());
+            position = putString(buffer, position, log.getMessage());
+            Long executionTimeMs = log.getExecutionTimeMs();
+            buffer.put(position++, (byte) (executionTimeMs != null ? 1 : 0));
+            buffer.putLong(position, executionTimeMs != null ? executionTimeMs : 0);
+            position += 8;
+            position = putString(buffer, position, log.getUserId());
+            position = putString(buffer, position, log.getSessionId());
+            position = putString(buffer, position, log.getRequestId());
+            position = putString(buffer, position, log.getIpAddress());
+            position = putString(buffer, position, log.getUserAgent());
+            position = putString(buffer, position, log.getExceptionStack());
+            position = putString(buffer, position, log.getExceptionFingerprint());
+            LocalDateTime createdAt = log.getCreatedAt() != null ? log.getCreatedAt() : LocalDateTime.now();
+            buffer.putLong(position, createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + createdAt.getNano() / 1000);
+        }
+
+        static SystemLog decode(MappedByteBuffer buffer, int start) {
+            int[] position = {start};
+            SystemLog.SystemLogBuilder builder = SystemLog.builder()
+                    .serviceName(getString(buffer, position))
+                    .methodName(getString(buffer, position))
+                    .className(getString(buffer, position))
+                    .logLevel(getString(buffer, position))
+                    .message(getString(buffer, position));
+            boolean hasExecutionTime = buffer.get(position[0]) != 0;
+            long executionTimeMs = buffer.getLong(position[0] + 1);
+            position[0] += 9;
+            builder.executionTimeMs(hasExecutionTime ? executionTimeMs : null)
+                    .userId(getString(buffer, position))
+                    .sessionId(getString(buffer, position))
+                    .requestId(getString(buffer, position))
+                    .ipAddress(getString(buffer, position))
+                    .userAgent(getString(buffer, position))
+                    .exceptionStack(getString(buffer, position))
+                    .exceptionFingerprint(getString(buffer, position));
+            long epochMicros = buffer.getLong(position[0]);
+            return builder.createdAt(LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000L),
+                    (int) Math.floorMod(epochMicros, 1_000_000L) * 1000, ZoneOffset.UTC)).build();
+        }
+
+        private static int stringSize(String value) {
+            if (value == null) {
+                return 1;
+            }
+            int bytes = utf8Length(value);
+            return varIntSize(bytes + 1) + bytes;
+        }
+
+        private static int putString(MappedByteBuffer buffer, int position, String value) {
+            if (value == null) {
+                buffer.put(position, (byte) 0);
+                return position + 1;
+            }
+            position = putVarInt(buffer, position, utf8Length(value) + 1);
+            int end = Math.min(value.length(), MAX_STRING_CHARS);
+            for (int i = 0; i < end; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer.put(position++, (byte) c);
+                } else if (c < 0x800) {
+                    buffer.put(position++, (byte) (0xC0 | (c >> 6)));
+                    buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    char encoded = Character.isSurrogate(c) ? '?' : c;
+                    buffer.put(position++, (byte) (0xE0 | (encoded >> 12)));
+                    buffer.put(position++, (byte) (0x80 | ((encoded >> 6) & 0x3F)));
+                    buffer.put(position++, (byte) (0x80 | (encoded & 0x3F)));
+                }
+            }
+            return position;
+        }
+
+        private static String getString(MappedByteBuffer buffer, int[] position) {
+            int header = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position[0]++);
+                header |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (header == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[header - 1];
+            buffer.get(position[0], bytes);
+            position[0] += bytes.length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * UTF-8 length of the first {@link #MAX_STRING_CHARS} chars, matching {@link #putString}.
+         */
+        private static int utf8Length(String value) {
+            int end = Math.min(value.length(), MAX_STRING_CHARS);
+            int length = 0;
+            for (int i = 0; i < end; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    length += 1;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+
+        private static int varIntSize(int value) {
+            int size = 1;
+            while ((value & ~0x7F) != 0) {
+                size++;
+                value >>>= 7;
+            }
+            return size;
+        }
+
+        private static int putVarInt(MappedByteBuffer buffer, int position, int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer.put(position++, (byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put(position++, (byte) value);
+            return position;
+        }
+    }
+}
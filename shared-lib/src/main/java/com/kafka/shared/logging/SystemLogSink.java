@@ -0,0 +1,19 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+
+import java.util.List;
+
+/**
+ * Destination for batches of execution log records drained by {@link SystemLogWriter}.
+ * The active sink is selected with {@code system-logs.sink}.
+ */
+public interface SystemLogSink {
+
+    /**
+     * Value of {@code system-logs.sink} that selects this sink.
+     */
+    String type();
+
+    void write(List<SystemLog> logs);
+}
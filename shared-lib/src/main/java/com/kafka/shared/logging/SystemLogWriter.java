@@ -0,0 +1,245 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind pipeline for execution logs.
+ * <p>
+ * Hot-path threads call {@link #append(SystemLog)}, which only publishes the record into a
+ * {@link BoundedRingBuffer}. A single background drainer thread collects records into batches and
+ * hands them to the {@link SystemLogSink} selected by {@code system-logs.sink} ({@code jdbc} or
+ * {@code kafka}) once {@code batch-size} records are pending or {@code flush-interval-ms} has
+ * elapsed, whichever happens first.
+ * <p>
+ * When the sink fails, or falls so far behind that the buffer is three-quarters full, batches are
+ * spilled to the {@link SystemLogJournal} instead. While the journal holds records every new batch
+ * goes there too, and the drainer replays it in order whenever the sink is available again
+ * (retrying a failed sink every {@code system-logs.journal.retry-interval-ms}).
+ * <p>
+ * Every batch the sink accepts, directly or from the journal, is reported to the
+ * {@link ExceptionFingerprinter} so it stops attaching the stacks that are now stored.
+ */
+@Component
+@Slf4j
+public class SystemLogWriter {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    public enum OverflowPolicy {
+        /** Discard the incoming record when the buffer is full. */
+        DROP,
+        /** Write the incoming record synchronously on the caller's thread when the buffer is full. */
+        CALLER_RUNS
+    }
+
+    private final SystemLogSink sink;
+    private final SystemLogJournal journal;
+    private final BoundedRingBuffer<SystemLog> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long retryIntervalNanos;
+    private final int spillThreshold;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private volatile boolean sinkDown;
+    private volatile long sinkRetryAt;
+    private Thread drainer;
+
+    public SystemLogWriter(List<SystemLogSink> sinks,
+                           ExceptionFingerprinter exceptionFingerprinter,
+                           SystemLogJournal journal,
+                           MeterRegistry meterRegistry,
+                           @Value("${system-logs.sink:jdbc}") String sinkType,
+                           @Value("${system-logs.writer.capacity:8192}") int capacity,
+                           @Value("${system-logs.writer.batch-size:500}") int batchSize,
+                           @Value("${system-logs.writer.flush-interval-ms:1000}") long flushIntervalMs,
+                           @Value("${system-logs.writer.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                           @Value("${system-logs.journal.retry-interval-ms:5000}") long retryIntervalMs) {
+        SystemLogSink selected = sinks.stream()
+                .filter(candidate -> candidate.type().equalsIgnoreCase(sinkType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown system-logs.sink: " + sinkType));
+        this.sink = new ConfirmingSink(selected, exceptionFingerprinter);
+        this.journal = journal;
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, retryIntervalMs));
+        this.spillThreshold = buffer.capacity() / 4 * 3;
+        this.overflowPolicy = overflowPolicy;
+
+        Gauge.builder("system.logs.queue.depth", buffer, BoundedRingBuffer::size)
+                .description("Execution log records waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("system.logs.queue.capacity", buffer, BoundedRingBuffer::capacity)
+                .description("Capacity of the execution log buffer")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("system.logs.dropped")
+                .description("Execution log records dropped because the buffer was full")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("system.logs.written")
+                .description("Execution log records written by the background drainer")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("system.logs.write.failures")
+                .description("Execution log records lost because a batch could neither be written nor journaled")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        drainer = new Thread(this::drainLoop, "system-log-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5000);
+    }
+
+    /**
+     * Queue a record for asynchronous persistence. Never blocks; applies the overflow policy when
+     * the buffer is full.
+     */
+    public void append(SystemLog systemLog) {
+        if (buffer.offer(systemLog)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(drainer);
+            }
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            writeBatch(List.of(systemLog));
+        } else {
+            droppedCounter.increment();
+        }
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    private void drainLoop() {
+        List<SystemLog> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+
+        while (running || !buffer.isEmpty()) {
+            buffer.drainTo(batch, batchSize - batch.size());
+
+            long now = System.nanoTime();
+            boolean intervalElapsed = now - lastFlush >= flushIntervalNanos;
+            if (batch.size() >= batchSize || (!batch.isEmpty() && (intervalElapsed || !running))) {
+                writeBatch(batch);
+                batch.clear();
+                lastFlush = now;
+            } else if (buffer.isEmpty()) {
+                if (batch.isEmpty()) {
+                    lastFlush = now;
+                }
+                if (!replayJournal()) {
+                    LockSupport.parkNanos(this, Math.min(IDLE_PARK_NANOS, flushIntervalNanos));
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<SystemLog> batch) {
+        // Keep order: once records are journaled, later ones queue behind them
+        if (journal.hasPending() || !sinkAvailable() || buffer.size() >= spillThreshold) {
+            spill(batch);
+            return;
+        }
+        try {
+            sink.write(batch);
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            markSinkDown();
+            log.warn("Failed to write {} execution log records, spilling to the journal", batch.size(), e);
+            spill(batch);
+        }
+    }
+
+    private void spill(List<SystemLog> batch) {
+        int journaled = journal.append(batch);
+        if (journaled < batch.size()) {
+            failedCounter.increment(batch.size() - journaled);
+            log.error("Lost {} execution log records: sink unavailable and journal full or disabled",
+                    batch.size() - journaled);
+        }
+    }
+
+    /**
+     * Replay one batch from the journal if the sink is available and the buffer is not backing up.
+     *
+     * @return whether any records were replayed
+     */
+    private boolean replayJournal() {
+        if (!journal.hasPending() || !sinkAvailable() || buffer.size() >= spillThreshold) {
+            return false;
+        }
+        try {
+            int replayed = journal.replay(batchSize, sink);
+            writtenCounter.increment(replayed);
+            sinkDown = false;
+            return replayed > 0;
+        } catch (Exception e) {
+            markSinkDown();
+            log.warn("Execution log sink still unavailable, retrying journal replay in {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(retryIntervalNanos), e);
+            return false;
+        }
+    }
+
+    private boolean sinkAvailable() {
+        return !sinkDown || System.nanoTime() - sinkRetryAt >= 0;
+    }
+
+    private void markSinkDown() {
+        sinkRetryAt = System.nanoTime() + retryIntervalNanos;
+        sinkDown = true;
+    }
+
+    /**
+     * Reports every batch the delegate accepted to the {@link ExceptionFingerprinter}.
+     */
+    private record ConfirmingSink(SystemLogSink delegate, ExceptionFingerprinter exceptionFingerprinter)
+            implements SystemLogSink {
+
+        @Override
+        public String type() {
+            return delegate.type();
+        }
+
+        @Override
+        public void write(List<SystemLog> logs) {
+            delegate.write(logs);
+            exceptionFingerprinter.stored(logs);
+        }
+    }
+}
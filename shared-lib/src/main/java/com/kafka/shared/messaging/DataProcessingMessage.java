@@ -0,0 +1,19 @@
+package com.kafka.shared.messaging;
+
+import java.util.Map;
+
+/**
+ * Request from the workflow engine to run a data processing batch ({@code data-processing}).
+ */
+public record DataProcessingMessage(String processingType, int batchSize, Map<String, Object> context, long timestamp) {
+
+    public static final MessageSchema<DataProcessingMessage> SCHEMA = new MessageSchema<>(
+            4, 1, "data-processing", DataProcessingMessage.class,
+            (message, out) -> {
+                out.writeString(message.processingType());
+                out.writeInt(message.batchSize());
+                out.writeMap(message.context());
+                out.writeLong(message.timestamp());
+            },
+            (in, version) -> new DataProcessingMessage(in.readString(), in.readInt(), in.readMap(), in.readLong()));
+}
@@ -0,0 +1,48 @@
+package com.kafka.shared.messaging;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka value deserializer matching {@link EnvelopeSerializer}: envelopes are decoded into their typed
+ * message, anything else is returned as a UTF-8 string.
+ * <p>
+ * The message type comes from the envelope's schema id rather than the topic, so the same records can be
+ * read back from retry or dead-letter topics.
+ */
+public class EnvelopeDeserializer implements Deserializer<Object> {
+
+    private final MessageSchemaRegistry registry;
+
+    public EnvelopeDeserializer() {
+        this(MessageSchemaRegistry.standard());
+    }
+
+    public EnvelopeDeserializer(MessageSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length == 0 || data[0] != EnvelopeSerializer.MAGIC) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        try {
+            EnvelopeReader reader = new EnvelopeReader(data, 1, data.length);
+            int schemaId = (int) reader.readVarLong();
+            int version = reader.readByte();
+            MessageSchema<?> schema = registry.forId(schemaId);
+            if (schema == null) {
+                throw new SerializationException("Unknown envelope schema id " + schemaId + " on topic " + topic);
+            }
+            return schema.decoder().decode(reader, version);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Malformed envelope on topic " + topic, e);
+        }
+    }
+}
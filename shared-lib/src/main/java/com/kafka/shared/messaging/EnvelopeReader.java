@@ -0,0 +1,131 @@
+package com.kafka.shared.messaging;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads envelope payloads written by {@link EnvelopeWriter} directly from the record's byte array.
+ */
+public final class EnvelopeReader {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public EnvelopeReader(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int readByte() {
+        checkAvailable(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readInt() {
+        long raw = readVarLong();
+        return (int) (raw >>> 1) ^ -(int) (raw & 1);
+    }
+
+    public long readLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public double readDouble() {
+        checkAvailable(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        long length = readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        int bytes = (int) (length - 1);
+        checkAvailable(bytes);
+        String value = new String(buffer, position, bytes, StandardCharsets.UTF_8);
+        position += bytes;
+        return value;
+    }
+
+    public Object readValue() {
+        int tag = readByte();
+        return switch (tag) {
+            case EnvelopeWriter.TAG_NULL -> null;
+            case EnvelopeWriter.TAG_STRING -> readString();
+            case EnvelopeWriter.TAG_INT -> readInt();
+            case EnvelopeWriter.TAG_LONG -> readLong();
+            case EnvelopeWriter.TAG_DOUBLE -> readDouble();
+            case EnvelopeWriter.TAG_TRUE -> Boolean.TRUE;
+            case EnvelopeWriter.TAG_FALSE -> Boolean.FALSE;
+            case EnvelopeWriter.TAG_DECIMAL -> new BigDecimal(readString());
+            case EnvelopeWriter.TAG_LIST -> readList();
+            case EnvelopeWriter.TAG_MAP -> readMap();
+            default -> throw new IllegalArgumentException("Unknown envelope value tag: " + tag);
+        };
+    }
+
+    public Map<String, Object> readMap() {
+        int size = readSize();
+        if (size == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> map = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(), readValue());
+        }
+        return map;
+    }
+
+    private List<Object> readList() {
+        int size = readSize();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readValue());
+        }
+        return list;
+    }
+
+    private int readSize() {
+        long size = readVarLong();
+        // Every element takes at least one byte, which bounds sizes read from corrupt input.
+        checkAvailable(size);
+        return (int) size;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint in envelope");
+            }
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private void checkAvailable(long bytes) {
+        if (bytes < 0 || bytes > limit - position) {
+            throw new IllegalArgumentException("Truncated envelope");
+        }
+    }
+}
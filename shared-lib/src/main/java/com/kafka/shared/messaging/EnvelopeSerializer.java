@@ -0,0 +1,68 @@
+package com.kafka.shared.messaging;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Kafka value serializer for typed messages.
+ * <p>
+ * Messages with a schema in the {@link MessageSchemaRegistry} are written as an envelope:
+ * {@code [0xFE magic][schema id varint][version byte][positional fields]}. Strings and byte arrays pass
+ * through unchanged, so JSON payloads such as execution log events keep working on the same producer.
+ * The magic byte never occurs in UTF-8 text, which is how {@link EnvelopeDeserializer} tells the two apart.
+ */
+public class EnvelopeSerializer implements Serializer<Object> {
+
+    static final byte MAGIC = (byte) 0xFE;
+
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final MessageSchemaRegistry registry;
+    private final AtomicReference<EnvelopeWriter> spareWriter = new AtomicReference<>();
+
+    public EnvelopeSerializer() {
+        this(MessageSchemaRegistry.standard());
+    }
+
+    public EnvelopeSerializer(MessageSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        return encode(topic, data, registry.forType(data.getClass()));
+    }
+
+    private <T> byte[] encode(String topic, Object data, MessageSchema<T> schema) {
+        if (schema == null) {
+            throw new SerializationException("No envelope schema for " + data.getClass().getName() + " on topic " + topic);
+        }
+        // Reuse one writer between sends; concurrent callers that find it taken get their own.
+        EnvelopeWriter writer = spareWriter.getAndSet(null);
+        if (writer == null) {
+            writer = new EnvelopeWriter(256);
+        }
+        writer.reset();
+        writer.writeByte(MAGIC);
+        writer.writeVarLong(schema.id());
+        writer.writeByte(schema.version());
+        schema.encoder().encode(schema.type().cast(data), writer);
+        byte[] bytes = writer.toByteArray();
+        if (writer.capacity() <= MAX_RETAINED_CAPACITY) {
+            spareWriter.set(writer);
+        }
+        return bytes;
+    }
+}
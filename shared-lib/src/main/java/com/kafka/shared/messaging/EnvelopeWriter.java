@@ -0,0 +1,204 @@
+package com.kafka.shared.messaging;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Growable output buffer for envelope payloads.
+ * <p>
+ * Integers are zig-zag varints, strings are a varint length (0 for {@code null}, otherwise length + 1)
+ * followed by UTF-8 bytes encoded straight into the buffer, and free-form values ({@link #writeValue})
+ * are prefixed with a one-byte type tag. Instances are reused through {@link #reset()}, so steady-state
+ * encoding allocates only the final {@link #toByteArray()} copy.
+ */
+public final class EnvelopeWriter {
+
+    static final int TAG_NULL = 0;
+    static final int TAG_STRING = 1;
+    static final int TAG_INT = 2;
+    static final int TAG_LONG = 3;
+    static final int TAG_DOUBLE = 4;
+    static final int TAG_TRUE = 5;
+    static final int TAG_FALSE = 6;
+    static final int TAG_DECIMAL = 7;
+    static final int TAG_LIST = 8;
+    static final int TAG_MAP = 9;
+
+    private byte[] buffer;
+    private int position;
+
+    public EnvelopeWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeInt(int value) {
+        writeVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    public void writeLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeDouble(double value) {
+        ensureCapacity(8);
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        int length = value.length();
+        int utf8Length = utf8Length(value);
+        writeVarLong(utf8Length + 1L);
+        ensureCapacity(utf8Length);
+        if (utf8Length == length) {
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Write a JSON-like value: {@code null}, strings, numbers, booleans, collections and string-keyed maps.
+     * Other objects are written as their {@link String#valueOf(Object) string form}.
+     */
+    public void writeValue(Object value) {
+        if (value == null) {
+            writeByte(TAG_NULL);
+        } else if (value instanceof String s) {
+            writeByte(TAG_STRING);
+            writeString(s);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeByte(TAG_INT);
+            writeInt(((Number) value).intValue());
+        } else if (value instanceof Long l) {
+            writeByte(TAG_LONG);
+            writeLong(l);
+        } else if (value instanceof Double || value instanceof Float) {
+            writeByte(TAG_DOUBLE);
+            writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean b) {
+            writeByte(b ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            writeByte(TAG_DECIMAL);
+            writeString(value.toString());
+        } else if (value instanceof Collection<?> collection) {
+            writeByte(TAG_LIST);
+            writeVarLong(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            writeByte(TAG_MAP);
+            writeMapEntries(map);
+        } else {
+            writeByte(TAG_STRING);
+            writeString(String.valueOf(value));
+        }
+    }
+
+    /**
+     * Write a string-keyed map; {@code null} and empty maps are both read back as an empty map.
+     */
+    public void writeMap(Map<String, ?> map) {
+        if (map == null) {
+            writeVarLong(0);
+            return;
+        }
+        writeMapEntries(map);
+    }
+
+    private void writeMapEntries(Map<?, ?> map) {
+        writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeString(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue());
+        }
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.kafka.shared.messaging;
+
+import java.util.Map;
+
+/**
+ * Event published by a workflow for external consumers ({@code workflow-external-events}).
+ */
+public record ExternalEventMessage(String type, Map<String, Object> payload, long timestamp) {
+
+    public static final MessageSchema<ExternalEventMessage> SCHEMA = new MessageSchema<>(
+            6, 1, "workflow-external-events", ExternalEventMessage.class,
+            (message, out) -> {
+                out.writeString(message.type());
+                out.writeMap(message.payload());
+                out.writeLong(message.timestamp());
+            },
+            (in, version) -> new ExternalEventMessage(in.readString(), in.readMap(), in.readLong()));
+}
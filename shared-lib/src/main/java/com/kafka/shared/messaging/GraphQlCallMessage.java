@@ -0,0 +1,29 @@
+package com.kafka.shared.messaging;
+
+import java.util.Map;
+
+/**
+ * Request from the workflow engine to run a GraphQL query against a service ({@code graphql-calls}).
+ * <p>
+ * Version 2 adds {@code correlationId} and {@code replyTo}, as for {@link ServiceCallMessage}.
+ */
+public record GraphQlCallMessage(String service, String query, Map<String, Object> context, long timestamp,
+                                 String correlationId, String replyTo) {
+
+    public static final MessageSchema<GraphQlCallMessage> SCHEMA = new MessageSchema<>(
+            2, 2, "graphql-calls", GraphQlCallMessage.class,
+            (message, out) -> {
+                out.writeString(message.service());
+                out.writeString(message.query());
+                out.writeMap(message.context());
+                out.writeLong(message.timestamp());
+                out.writeString(message.correlationId());
+                out.writeString(message.replyTo());
+            },
+            (in, version) -> new GraphQlCallMessage(in.readString(), in.readString(), in.readMap(), in.readLong(),
+                    version >= 2 ? in.readString() : null, version >= 2 ? in.readString() : null));
+
+    public GraphQlCallMessage(String service, String query, Map<String, Object> context, long timestamp) {
+        this(service, query, context, timestamp, null, null);
+    }
+}
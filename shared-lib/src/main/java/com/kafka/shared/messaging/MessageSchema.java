@@ -0,0 +1,26 @@
+package com.kafka.shared.messaging;
+
+/**
+ * Binary schema of one message type carried in an envelope.
+ * <p>
+ * Fields are written positionally, so the wire form carries no field names. A schema evolves by
+ * appending fields and bumping {@code version}: the decoder receives the writer's version and reads
+ * only the fields that version has, while older decoders simply ignore trailing fields they do not know.
+ *
+ * @param id      envelope schema id, unique within the {@link MessageSchemaRegistry}
+ * @param version version written by {@link #encoder()}
+ * @param topic   topic the message type is published on
+ */
+public record MessageSchema<T>(int id, int version, String topic, Class<T> type,
+                               Encoder<T> encoder, Decoder<T> decoder) {
+
+    @FunctionalInterface
+    public interface Encoder<T> {
+        void encode(T message, EnvelopeWriter out);
+    }
+
+    @FunctionalInterface
+    public interface Decoder<T> {
+        T decode(EnvelopeReader in, int version);
+    }
+}
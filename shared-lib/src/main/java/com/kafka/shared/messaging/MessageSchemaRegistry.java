@@ -0,0 +1,52 @@
+package com.kafka.shared.messaging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for a schema registry: resolves envelope schema ids and message classes to their
+ * {@link MessageSchema}. All services share the {@link #standard()} instance, which Kafka-instantiated
+ * serdes use as well, so the ids are fixed in code rather than negotiated with a registry server.
+ */
+public final class MessageSchemaRegistry {
+
+    private static final MessageSchemaRegistry STANDARD = new MessageSchemaRegistry()
+            .register(ServiceCallMessage.SCHEMA)
+            .register(GraphQlCallMessage.SCHEMA)
+            .register(ScheduleTaskMessage.SCHEMA)
+            .register(DataProcessingMessage.SCHEMA)
+            .register(NotificationMessage.SCHEMA)
+            .register(ExternalEventMessage.SCHEMA)
+            .register(ServiceCallReplyMessage.SCHEMA);
+
+    private final Map<Integer, MessageSchema<?>> byId = new ConcurrentHashMap<>();
+    private final Map<Class<?>, MessageSchema<?>> byType = new ConcurrentHashMap<>();
+    private final Map<String, MessageSchema<?>> byTopic = new ConcurrentHashMap<>();
+
+    public static MessageSchemaRegistry standard() {
+        return STANDARD;
+    }
+
+    public MessageSchemaRegistry register(MessageSchema<?> schema) {
+        MessageSchema<?> existing = byId.putIfAbsent(schema.id(), schema);
+        if (existing != null && existing != schema) {
+            throw new IllegalArgumentException("Schema id " + schema.id() + " is already used by " + existing.type().getName());
+        }
+        byType.put(schema.type(), schema);
+        byTopic.put(schema.topic(), schema);
+        return this;
+    }
+
+    public MessageSchema<?> forId(int id) {
+        return byId.get(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> MessageSchema<T> forType(Class<T> type) {
+        return (MessageSchema<T>) byType.get(type);
+    }
+
+    public MessageSchema<?> forTopic(String topic) {
+        return byTopic.get(topic);
+    }
+}
@@ -0,0 +1,19 @@
+package com.kafka.shared.messaging;
+
+import java.util.Map;
+
+/**
+ * Notification emitted by a workflow step ({@code notifications}).
+ */
+public record NotificationMessage(String notificationType, String message, Map<String, Object> context, long timestamp) {
+
+    public static final MessageSchema<NotificationMessage> SCHEMA = new MessageSchema<>(
+            5, 1, "notifications", NotificationMessage.class,
+            (notification, out) -> {
+                out.writeString(notification.notificationType());
+                out.writeString(notification.message());
+                out.writeMap(notification.context());
+                out.writeLong(notification.timestamp());
+            },
+            (in, version) -> new NotificationMessage(in.readString(), in.readString(), in.readMap(), in.readLong()));
+}
@@ -0,0 +1,19 @@
+package com.kafka.shared.messaging;
+
+import java.util.Map;
+
+/**
+ * Request from the workflow engine to schedule a task ({@code schedule-tasks}).
+ */
+public record ScheduleTaskMessage(String task, String cron, Map<String, Object> context, long timestamp) {
+
+    public static final MessageSchema<ScheduleTaskMessage> SCHEMA = new MessageSchema<>(
+            3, 1, "schedule-tasks", ScheduleTaskMessage.class,
+            (message, out) -> {
+                out.writeString(message.task());
+                out.writeString(message.cron());
+                out.writeMap(message.context());
+                out.writeLong(message.timestamp());
+            },
+            (in, version) -> new ScheduleTaskMessage(in.readString(), in.readString(), in.readMap(), in.readLong()));
+}
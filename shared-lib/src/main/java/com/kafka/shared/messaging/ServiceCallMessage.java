@@ -0,0 +1,31 @@
+package com.kafka.shared.messaging;
+
+import java.util.Map;
+
+/**
+ * Request from the workflow engine to call an external service endpoint ({@code service-calls}).
+ * <p>
+ * Version 2 adds {@code correlationId} and {@code replyTo}: when set, the executor publishes a
+ * {@link ServiceCallReplyMessage} with that correlation id to {@code replyTo}. Both are {@code null} for
+ * one-way calls and for messages written with version 1.
+ */
+public record ServiceCallMessage(String service, String endpoint, Map<String, Object> context, long timestamp,
+                                 String correlationId, String replyTo) {
+
+    public static final MessageSchema<ServiceCallMessage> SCHEMA = new MessageSchema<>(
+            1, 2, "service-calls", ServiceCallMessage.class,
+            (message, out) -> {
+                out.writeString(message.service());
+                out.writeString(message.endpoint());
+                out.writeMap(message.context());
+                out.writeLong(message.timestamp());
+                out.writeString(message.correlationId());
+                out.writeString(message.replyTo());
+            },
+            (in, version) -> new ServiceCallMessage(in.readString(), in.readString(), in.readMap(), in.readLong(),
+                    version >= 2 ? in.readString() : null, version >= 2 ? in.readString() : null));
+
+    public ServiceCallMessage(String service, String endpoint, Map<String, Object> context, long timestamp) {
+        this(service, endpoint, context, timestamp, null, null);
+    }
+}
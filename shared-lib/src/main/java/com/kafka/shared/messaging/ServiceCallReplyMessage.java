@@ -0,0 +1,32 @@
+package com.kafka.shared.messaging;
+
+/**
+ * Result of a correlated {@link ServiceCallMessage} or {@link GraphQlCallMessage}, published by cbi-service to
+ * the request's {@code replyTo} topic ({@code workflow-replies}). {@code body} is the raw response on
+ * success, {@code error} the failure reason otherwise.
+ */
+public record ServiceCallReplyMessage(String correlationId, boolean success, String body, String error,
+                                      long timestamp) {
+
+    public static final String TOPIC = "workflow-replies";
+
+    public static final MessageSchema<ServiceCallReplyMessage> SCHEMA = new MessageSchema<>(
+            7, 1, TOPIC, ServiceCallReplyMessage.class,
+            (message, out) -> {
+                out.writeString(message.correlationId());
+                out.writeByte(message.success() ? 1 : 0);
+                out.writeString(message.body());
+                out.writeString(message.error());
+                out.writeLong(message.timestamp());
+            },
+            (in, version) -> new ServiceCallReplyMessage(in.readString(), in.readByte() == 1, in.readString(),
+                    in.readString(), in.readLong()));
+
+    public static ServiceCallReplyMessage success(String correlationId, String body) {
+        return new ServiceCallReplyMessage(correlationId, true, body, null, System.currentTimeMillis());
+    }
+
+    public static ServiceCallReplyMessage failure(String correlationId, String error) {
+        return new ServiceCallReplyMessage(correlationId, false, null, error, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,9 @@
+package com.kafka.shared.repository;
+
+import com.kafka.shared.dto.ExceptionFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExceptionFingerprintRepository extends JpaRepository<ExceptionFingerprint, String> {
+}
@@ -0,0 +1,28 @@
+package com.kafka.shared.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Seek position in the {@code (created_at DESC, id DESC)} ordering of {@code system_logs},
+ * exchanged with clients as an opaque URL-safe token.
+ */
+public record LogCursor(LocalDateTime createdAt, Long id) {
+
+    public static LogCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new LogCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid log cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
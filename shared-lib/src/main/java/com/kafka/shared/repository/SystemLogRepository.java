@@ -1,6 +1,8 @@
 package com.kafka.shared.repository;
 
 import com.kafka.shared.dto.SystemLog;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,6 +20,25 @@ public interface SystemLogRepository extends JpaRepository<SystemLog, Long> {
     List<SystemLog> findByLogLevelAndCreatedAtBetween(
             String logLevel, LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * Keyset page of logs in {@code (createdAt DESC, id DESC)} order. Every filter is optional; pass the
+     * last row of the previous page as {@code cursorCreatedAt}/{@code cursorId} to continue after it.
+     */
+    @Query("SELECT s FROM SystemLog s WHERE (:serviceName IS NULL OR s.serviceName = :serviceName) "
+            + "AND (:logLevel IS NULL OR s.logLevel = :logLevel) "
+            + "AND (:startDate IS NULL OR s.createdAt >= :startDate) "
+            + "AND (:endDate IS NULL OR s.createdAt <= :endDate) "
+            + "AND (:cursorCreatedAt IS NULL OR s.createdAt < :cursorCreatedAt "
+            + "OR (s.createdAt = :cursorCreatedAt AND s.id < :cursorId)) "
+            + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SystemLog> findPageAfter(@Param("serviceName") String serviceName,
+                                  @Param("logLevel") String logLevel,
+                                  @Param("startDate") LocalDateTime startDate,
+                                  @Param("endDate") LocalDateTime endDate,
+                                  @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                  @Param("cursorId") Long cursorId,
+                                  Limit limit);
+
     @Query("SELECT s FROM SystemLog s WHERE s.executionTimeMs > :threshold AND s.createdAt BETWEEN :startDate AND :endDate")
     List<SystemLog> findSlowExecutions(@Param("threshold") Long threshold,
                                        @Param("startDate") LocalDateTime startDate,
@@ -27,4 +48,24 @@ public interface SystemLogRepository extends JpaRepository<SystemLog, Long> {
     Long countByServiceNameAndDateRange(@Param("serviceName") String serviceName,
                                         @Param("startDate") LocalDateTime startDate,
                                         @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT s.exceptionFingerprint AS fingerprint, COUNT(s) AS occurrences, "
+            + "MIN(s.createdAt) AS firstSeen, MAX(s.createdAt) AS lastSeen FROM SystemLog s "
+            + "WHERE s.exceptionFingerprint IS NOT NULL AND s.createdAt BETWEEN :startDate AND :endDate "
+            + "AND (:serviceName IS NULL OR s.serviceName = :serviceName) "
+            + "GROUP BY s.exceptionFingerprint ORDER BY COUNT(s) DESC")
+    List<FingerprintOccurrences> findTopExceptionFingerprints(@Param("serviceName") String serviceName,
+                                                              @Param("startDate") LocalDateTime startDate,
+                                                              @Param("endDate") LocalDateTime endDate,
+                                                              Pageable pageable);
+
+    interface FingerprintOccurrences {
+        String getFingerprint();
+
+        Long getOccurrences();
+
+        LocalDateTime getFirstSeen();
+
+        LocalDateTime getLastSeen();
+    }
 }
@@ -0,0 +1,161 @@
+package com.kafka.shared.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ListenerAutoscalerTest {
+
+    private static final String LISTENER = "service-calls-listener";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<KafkaAdmin> kafkaAdmin = mock(ObjectProvider.class);
+    @SuppressWarnings("unchecked")
+    private final ConcurrentMessageListenerContainer<String, Object> container =
+            mock(ConcurrentMessageListenerContainer.class);
+    private final AtomicInteger concurrency = new AtomicInteger();
+    private long lag;
+    private ListenerAutoscaler autoscaler;
+
+    @BeforeEach
+    void setUp() {
+        when(registry.getListenerContainers()).thenReturn(List.<MessageListenerContainer>of(container));
+        when(container.getListenerId()).thenReturn(LISTENER);
+        when(container.isRunning()).thenReturn(true);
+        when(container.getConcurrency()).thenAnswer(invocation -> concurrency.get());
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties("service-calls"));
+        when(container.metrics()).thenAnswer(invocation -> Map.of("consumer-0", Map.of(
+                new MetricName("records-lag", "consumer-fetch-manager-metrics", "",
+                        Map.of("topic", "service-calls", "partition", "0")), metric(lag))));
+        doAnswer(invocation -> {
+            concurrency.set(invocation.getArgument(0));
+            return null;
+        }).when(container).setConcurrency(anyInt());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(container).stop(any(Runnable.class));
+        // Without a KafkaAdmin the partition count comes from the assigned partitions; keep it above max-concurrency.
+        when(container.getAssignedPartitions()).thenReturn(IntStream.range(0, 12)
+                .mapToObj(partition -> new TopicPartition("service-calls", partition)).toList());
+
+        // interval 1000 ms, concurrency 1..12, 100 records of lag per consumer, 2 ticks below target, no cooldown
+        autoscaler = new ListenerAutoscaler(registry, kafkaAdmin, meterRegistry, true, 1000, 1, 12, 100, 2, 0.6,
+                0, 0, 30000);
+    }
+
+    @Test
+    void scalesUpToTheLagTarget() {
+        concurrency.set(2);
+        lag = 450;
+
+        autoscaler.evaluate();
+
+        assertThat(concurrency).hasValue(5);
+    }
+
+    @Test
+    void keepsTheConsumersOfAContainerThatKeepsUp() {
+        concurrency.set(4);
+        lag = 20;
+
+        for (int tick = 0; tick < 10; tick++) {
+            // Four consumers busy 70% of each one-second interval: three would be overloaded.
+            listenerTime(Duration.ofMillis(2800));
+            autoscaler.evaluate();
+        }
+
+        assertThat(concurrency).hasValue(4);
+    }
+
+    @Test
+    void scalesAnIdleContainerDownOneConsumerAtATimeAfterTheConfiguredTicks() {
+        concurrency.set(4);
+        lag = 0;
+
+        listenerTime(Duration.ofMillis(100));
+        autoscaler.evaluate();
+        assertThat(concurrency).hasValue(4);
+
+        listenerTime(Duration.ofMillis(100));
+        autoscaler.evaluate();
+        assertThat(concurrency).hasValue(3);
+    }
+
+    @Test
+    void busyTickResetsTheScaleDownCountdown() {
+        concurrency.set(4);
+        lag = 0;
+
+        listenerTime(Duration.ofMillis(100));
+        autoscaler.evaluate();
+        listenerTime(Duration.ofMillis(3000));
+        autoscaler.evaluate();
+        listenerTime(Duration.ofMillis(100));
+        autoscaler.evaluate();
+
+        assertThat(concurrency).hasValue(4);
+    }
+
+    @Test
+    void waitsForTheCooldownBetweenChanges() {
+        ListenerAutoscaler coolingDown = new ListenerAutoscaler(registry, kafkaAdmin, meterRegistry, true, 1000, 1, 12,
+                100, 2, 0.6, 60_000, 0, 30000);
+        concurrency.set(1);
+        lag = 250;
+        coolingDown.evaluate();
+        assertThat(concurrency).hasValue(3);
+
+        lag = 900;
+        coolingDown.evaluate();
+
+        assertThat(concurrency).hasValue(3);
+    }
+
+    private void listenerTime(Duration busy) {
+        Timer.builder("spring.kafka.listener")
+                .tag("name", LISTENER + "-0")
+                .register(meterRegistry)
+                .record(busy);
+    }
+
+    private static Metric metric(long value) {
+        return new Metric() {
+            @Override
+            public MetricName metricName() {
+                return null;
+            }
+
+            @Override
+            public Object metricValue() {
+                return (double) value;
+            }
+        };
+    }
+}
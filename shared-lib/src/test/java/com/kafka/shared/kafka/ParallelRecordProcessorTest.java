@@ -0,0 +1,128 @@
+package com.kafka.shared.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ParallelRecordProcessorTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("service-calls", 0);
+
+    private final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private ParallelRecordProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        consumer.assign(List.of(PARTITION));
+        processor = new ParallelRecordProcessor(new SimpleMeterRegistry(), kafkaTemplate, "virtual", 4, 4, 1000, 50);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        processor.shutdown();
+    }
+
+    @Test
+    void pausesInsteadOfBlockingAtTheInFlightLimitAndResumesAtHalf() throws InterruptedException {
+        List<CompletableFuture<Void>> calls = IntStream.range(0, 4).mapToObj(i -> new CompletableFuture<Void>()).toList();
+
+        processor.processAsync(records(0, 4), consumer, record -> calls.get((int) record.offset()));
+
+        assertThat(consumer.paused()).containsExactly(PARTITION);
+        calls.get(0).complete(null);
+        calls.get(1).complete(null);
+        awaitTrue(() -> processor.inFlight() == 2);
+        processor.processAsync(List.of(), consumer, record -> CompletableFuture.completedFuture(null));
+
+        assertThat(consumer.paused()).isEmpty();
+        awaitCommitted(2);
+    }
+
+    @Test
+    void commitsOnlyPastRecordsThatCompletedContiguously() throws InterruptedException {
+        CompletableFuture<Void> slow = new CompletableFuture<>();
+
+        processor.processAsync(records(0, 3), consumer,
+                record -> record.offset() == 0 ? slow : CompletableFuture.completedFuture(null));
+        awaitTrue(() -> processor.inFlight() == 1);
+        processor.processAsync(List.of(), consumer, record -> CompletableFuture.completedFuture(null));
+        assertThat(committed()).isZero();
+
+        slow.complete(null);
+        awaitTrue(() -> processor.inFlight() == 0);
+        processor.processAsync(List.of(), consumer, record -> CompletableFuture.completedFuture(null));
+        awaitCommitted(3);
+    }
+
+    @Test
+    void failedRecordsAreDeadLetteredBeforeTheirOffsetIsCommitted() throws InterruptedException {
+        CompletableFuture<SendResult<String, Object>> dltSend = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(dltSend);
+
+        processor.processAsync(records(0, 1), consumer, record -> {
+            throw new IllegalArgumentException("bad record");
+        });
+
+        // The first dead-letter send fails and is retried; until the retry succeeds nothing is committed.
+        verify(kafkaTemplate, timeout(2000).times(2)).send(any(ProducerRecord.class));
+        processor.processAsync(List.of(), consumer, record -> CompletableFuture.completedFuture(null));
+        assertThat(processor.inFlight()).isEqualTo(1);
+        assertThat(committed()).isZero();
+
+        dltSend.complete(null);
+        awaitTrue(() -> processor.inFlight() == 0);
+        processor.processAsync(List.of(), consumer, record -> CompletableFuture.completedFuture(null));
+        awaitCommitted(1);
+    }
+
+    private static List<ConsumerRecord<String, String>> records(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(offset -> new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset,
+                        "key-" + offset, "value-" + offset))
+                .toList();
+    }
+
+    private long committed() {
+        OffsetAndMetadata committed = consumer.committed(Set.of(PARTITION)).get(PARTITION);
+        return committed != null ? committed.offset() : -1;
+    }
+
+    private void awaitCommitted(long offset) throws InterruptedException {
+        awaitTrue(() -> committed() == offset);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
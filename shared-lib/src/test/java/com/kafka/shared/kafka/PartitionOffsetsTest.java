@@ -0,0 +1,53 @@
+package com.kafka.shared.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionOffsetsTest {
+
+    private final PartitionOffsets offsets = new PartitionOffsets();
+
+    @Test
+    void nothingIsCommittableBeforeTheFirstRecord() {
+        assertThat(offsets.committable()).isEqualTo(-1);
+        assertThat(offsets.hasPending()).isFalse();
+    }
+
+    @Test
+    void committableStopsAtTheLowestRecordStillInFlight() {
+        offsets.submitted(10);
+        offsets.submitted(11);
+        offsets.submitted(12);
+        assertThat(offsets.committable()).isEqualTo(10);
+
+        offsets.completed(11);
+        offsets.completed(12);
+        assertThat(offsets.committable()).isEqualTo(10);
+        assertThat(offsets.hasPending()).isTrue();
+
+        offsets.completed(10);
+        assertThat(offsets.committable()).isEqualTo(13);
+        assertThat(offsets.hasPending()).isFalse();
+    }
+
+    @Test
+    void gapsInOffsetsDoNotHoldBackTheCommit() {
+        // Compacted topics and transaction markers leave gaps between consecutive record offsets.
+        offsets.submitted(5);
+        offsets.submitted(9);
+        offsets.completed(5);
+
+        assertThat(offsets.committable()).isEqualTo(9);
+        offsets.completed(9);
+        assertThat(offsets.committable()).isEqualTo(10);
+    }
+
+    @Test
+    void advanceOnlyMovesForward() {
+        assertThat(offsets.advance(10)).isTrue();
+        assertThat(offsets.advance(10)).isFalse();
+        assertThat(offsets.advance(7)).isFalse();
+        assertThat(offsets.advance(11)).isTrue();
+    }
+}
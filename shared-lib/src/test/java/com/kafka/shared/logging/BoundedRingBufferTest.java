@@ -0,0 +1,115 @@
+package com.kafka.shared.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertThat(new BoundedRingBuffer<>(2).capacity()).isEqualTo(2);
+        assertThat(new BoundedRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new BoundedRingBuffer<>(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new BoundedRingBuffer<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsOffersWhenFullAndAcceptsThemAgainAfterPolling() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isFalse();
+    }
+
+    @Test
+    void pollsInFifoOrderAcrossWrapAround() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        buffer.offer(0);
+        buffer.offer(1);
+        buffer.offer(2);
+        for (int i = 3; i < 10; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+            drained.add(buffer.poll());
+        }
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void drainToRespectsTheLimit() {
+        BoundedRingBuffer<String> buffer = new BoundedRingBuffer<>(8);
+        buffer.offer("a");
+        buffer.offer("b");
+        buffer.offer("c");
+        List<String> target = new ArrayList<>();
+
+        assertThat(buffer.drainTo(target, 2)).isEqualTo(2);
+        assertThat(target).containsExactly("a", "b");
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentProducersNeitherLoseNorDuplicateElements() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        Set<Integer> received = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            batch.clear();
+            if (buffer.drainTo(batch, 64) == 0) {
+                Thread.yield();
+            }
+            for (Integer element : batch) {
+                assertThat(received.add(element)).as("duplicate %d", element).isTrue();
+            }
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(received).hasSize(producers * perProducer);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,75 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExceptionFingerprinterTest {
+
+    private final ExceptionFingerprinter fingerprinter = new ExceptionFingerprinter(100);
+
+    @Test
+    void sameFailureWithADifferentMessageHasTheSameFingerprint() {
+        assertThat(fingerprinter.fingerprint(fail("first")).id())
+                .isEqualTo(fingerprinter.fingerprint(fail("second")).id());
+        assertThat(fingerprinter.fingerprint(new IllegalArgumentException("first")).id())
+                .isNotEqualTo(fingerprinter.fingerprint(fail("first")).id());
+    }
+
+    @Test
+    void generatedClassSuffixesDoNotChangeTheFingerprint() {
+        assertThat(fingerprinter.fingerprint(failIn("OrderService$$SpringCGLIB$$0")).id())
+                .isEqualTo(fingerprinter.fingerprint(failIn("OrderService$$SpringCGLIB$$1")).id());
+        assertThat(fingerprinter.fingerprint(failIn("jdk.proxy2.$Proxy123")).id())
+                .isEqualTo(fingerprinter.fingerprint(failIn("jdk.proxy2.$Proxy87")).id());
+    }
+
+    @Test
+    void keepsAttachingTheStackUntilTheSinkStoredIt() {
+        ExceptionFingerprinter.Fingerprint first = fingerprinter.fingerprint(fail("boom"));
+        // The batch carrying the first stack was lost, so the next occurrence must carry it again.
+        ExceptionFingerprinter.Fingerprint second = fingerprinter.fingerprint(fail("boom"));
+        assertThat(first.stackTrace()).contains("IllegalStateException");
+        assertThat(second.stackTrace()).isEqualTo(first.stackTrace());
+
+        fingerprinter.stored(List.of(log(second.id(), second.stackTrace())));
+
+        assertThat(fingerprinter.fingerprint(fail("boom")).stackTrace()).isNull();
+        assertThat(fingerprinter.fingerprint(new IllegalArgumentException()).stackTrace()).isNotNull();
+    }
+
+    @Test
+    void recordsWithoutTheStackDoNotConfirmIt() {
+        ExceptionFingerprinter.Fingerprint fingerprint = fingerprinter.fingerprint(fail("boom"));
+
+        fingerprinter.stored(List.of(log(fingerprint.id(), null)));
+
+        assertThat(fingerprinter.fingerprint(fail("boom")).stackTrace()).isNotNull();
+    }
+
+    private static IllegalStateException fail(String message) {
+        IllegalStateException exception = new IllegalStateException(message);
+        exception.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.kafka.cbi.service.ServiceCallExecutor", "execute", "ServiceCallExecutor.java", 42)
+        });
+        return exception;
+    }
+
+    private static IllegalStateException failIn(String className) {
+        IllegalStateException exception = new IllegalStateException();
+        exception.setStackTrace(new StackTraceElement[]{new StackTraceElement(className, "place", null, -1)});
+        return exception;
+    }
+
+    private static SystemLog log(String fingerprint, String stackTrace) {
+        return SystemLog.builder()
+                .serviceName("cbi-service")
+                .logLevel("ERROR")
+                .exceptionFingerprint(fingerprint)
+                .exceptionStack(stackTrace)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.annotation.LogExecution;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogPolicyResolverTest {
+
+    private final LogPolicyProperties properties = new LogPolicyProperties();
+
+    @Test
+    void usesTheAnnotationAttributesWithoutOverrides() throws NoSuchMethodException {
+        LogPolicy policy = new LogPolicyResolver(properties).resolve(method("sampled"), TokenService.class);
+
+        assertThat(policy).isEqualTo(new LogPolicy(0.25, 100, false));
+    }
+
+    @Test
+    void methodOverrideWinsOverClassOverrideWhichWinsOverTheAnnotation() throws NoSuchMethodException {
+        properties.getOverrides().put("TokenService", override(0.5, 300L, null));
+        properties.getOverrides().put("TokenService.sampled", override(0.01, null, null));
+
+        LogPolicy policy = new LogPolicyResolver(properties).resolve(method("sampled"), TokenService.class);
+
+        assertThat(policy).isEqualTo(new LogPolicy(0.01, 300, false));
+    }
+
+    @Test
+    void runtimeOverridesReplaceTheCachedPolicy() throws NoSuchMethodException {
+        LogPolicyResolver resolver = new LogPolicyResolver(properties);
+        Method method = method("plain");
+        assertThat(resolver.resolve(method, TokenService.class)).isEqualTo(new LogPolicy(1.0, 0, true));
+
+        resolver.setOverride("TokenService.plain", override(null, 50L, false));
+        assertThat(resolver.resolve(method, TokenService.class)).isEqualTo(new LogPolicy(1.0, 50, false));
+
+        resolver.removeOverride("TokenService.plain");
+        assertThat(resolver.resolve(method, TokenService.class)).isEqualTo(new LogPolicy(1.0, 0, true));
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return TokenService.class.getDeclaredMethod(name);
+    }
+
+    private static LogPolicyProperties.Override override(Double sampleRate, Long slowThresholdMs,
+                                                         Boolean alwaysLogErrors) {
+        LogPolicyProperties.Override override = new LogPolicyProperties.Override();
+        override.setSampleRate(sampleRate);
+        override.setSlowThresholdMs(slowThresholdMs);
+        override.setAlwaysLogErrors(alwaysLogErrors);
+        return override;
+    }
+
+    static class TokenService {
+
+        @LogExecution(sampleRate = 0.25, slowThresholdMs = 100, alwaysLogErrors = false)
+        void sampled() {
+        }
+
+        @LogExecution
+        void plain() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.kafka.shared.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogPolicyTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(250);
+
+    @Test
+    void clampsOutOfRangeAttributes() {
+        LogPolicy policy = new LogPolicy(3.0, -10, true);
+
+        assertThat(policy.sampleRate()).isEqualTo(1.0);
+        assertThat(policy.slowThresholdMs()).isZero();
+    }
+
+    @Test
+    void samplesEveryOrNoCallAtTheBounds() {
+        LogPolicy always = new LogPolicy(1.0, 0, true);
+        LogPolicy never = new LogPolicy(0.0, 0, true);
+
+        assertThat(IntStream.range(0, 1000).allMatch(i -> always.sample())).isTrue();
+        assertThat(IntStream.range(0, 1000).noneMatch(i -> never.sample())).isTrue();
+    }
+
+    @Test
+    void samplesRoughlyTheConfiguredFraction() {
+        LogPolicy policy = new LogPolicy(0.1, 0, true);
+
+        long sampled = IntStream.range(0, 20_000).filter(i -> policy.sample()).count();
+
+        assertThat(sampled).isBetween(1_500L, 2_500L);
+    }
+
+    @Test
+    void slowThresholdRecordsSlowCallsEvenWhenNotSampled() {
+        LogPolicy policy = new LogPolicy(0.0, 200, false);
+
+        assertThat(policy.shouldRecordSuccess(false, SLOW)).isTrue();
+        assertThat(policy.shouldRecordSuccess(true, FAST)).isFalse();
+    }
+
+    @Test
+    void withoutThresholdSuccessesFollowTheSample() {
+        LogPolicy policy = new LogPolicy(0.5, 0, false);
+
+        assertThat(policy.shouldRecordSuccess(true, FAST)).isTrue();
+        assertThat(policy.shouldRecordSuccess(false, SLOW)).isFalse();
+    }
+
+    @Test
+    void failuresBypassSamplingOnlyWhenAlwaysLogErrors() {
+        assertThat(new LogPolicy(0.0, 200, true).shouldRecordFailure(false, FAST)).isTrue();
+        assertThat(new LogPolicy(0.0, 200, false).shouldRecordFailure(false, FAST)).isFalse();
+        assertThat(new LogPolicy(0.0, 200, false).shouldRecordFailure(false, SLOW)).isTrue();
+    }
+}
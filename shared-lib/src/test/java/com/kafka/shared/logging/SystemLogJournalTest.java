@@ -0,0 +1,184 @@
+package com.kafka.shared.logging;
+
+import com.kafka.shared.dto.SystemLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SystemLogJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<SystemLogJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() {
+        opened.forEach(SystemLogJournal::close);
+    }
+
+    @Test
+    void replaysAppendedRecordsInOrderWithAllFields() throws IOException {
+        SystemLogJournal journal = open(16);
+        SystemLog full = SystemLog.builder()
+                .serviceName("cbi-service").methodName("execute").className("ServiceCallExecutor")
+                .logLevel("ERROR").message("Call failed: übel 🚀").executionTimeMs(42L)
+                .userId("u1").sessionId("s1").requestId("r1").ipAddress("10.0.0.1").userAgent("curl")
+                .exceptionStack("java.lang.IllegalStateException").exceptionFingerprint("abc123")
+                .createdAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5, 678_901_000))
+                .build();
+        List<SystemLog> logs = List.of(full, log(1), log(2));
+
+        assertThat(journal.append(logs)).isEqualTo(3);
+        assertThat(journal.pending()).isEqualTo(3);
+
+        RecordingSink sink = new RecordingSink();
+        assertThat(journal.replay(2, sink)).isEqualTo(2);
+        assertThat(journal.replay(10, sink)).isEqualTo(1);
+        assertThat(journal.replay(10, sink)).isZero();
+
+        assertThat(sink.written).containsExactlyElementsOf(logs);
+        assertThat(journal.hasPending()).isFalse();
+    }
+
+    @Test
+    void failingSinkLeavesRecordsInPlace() throws IOException {
+        SystemLogJournal journal = open(16);
+        journal.append(List.of(log(1), log(2)));
+
+        assertThatThrownBy(() -> journal.replay(10, new SystemLogSink() {
+            @Override
+            public String type() {
+                return "failing";
+            }
+
+            @Override
+            public void write(List<SystemLog> logs) {
+                throw new IllegalStateException("sink down");
+            }
+        })).isInstanceOf(IllegalStateException.class);
+
+        RecordingSink sink = new RecordingSink();
+        assertThat(journal.pending()).isEqualTo(2);
+        assertThat(journal.replay(10, sink)).isEqualTo(2);
+        assertThat(sink.written).containsExactly(log(1), log(2));
+    }
+
+    @Test
+    void resumesFromTheStoredReplayPositionAfterARestart() throws IOException {
+        SystemLogJournal journal = open(16);
+        journal.append(IntStream.range(0, 5).mapToObj(SystemLogJournalTest::log).toList());
+        journal.replay(2, new RecordingSink());
+        journal.close();
+
+        SystemLogJournal restarted = open(16);
+        RecordingSink sink = new RecordingSink();
+        assertThat(restarted.pending()).isEqualTo(3);
+        assertThat(restarted.replay(10, sink)).isEqualTo(3);
+        assertThat(sink.written).containsExactly(log(2), log(3), log(4));
+        // A recovered segment is sealed, so it is deleted once replayed.
+        assertThat(segmentFiles()).isEmpty();
+    }
+
+    @Test
+    void replaysASegmentFromTheStartWhenItsStoredPositionIsInvalid() throws IOException {
+        SystemLogJournal journal = open(16);
+        journal.append(List.of(log(1), log(2)));
+        journal.replay(1, new RecordingSink());
+        journal.close();
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 7), 8);
+        }
+
+        SystemLogJournal restarted = open(16);
+        RecordingSink sink = new RecordingSink();
+        assertThat(restarted.pending()).isEqualTo(2);
+        restarted.replay(10, sink);
+        assertThat(sink.written).containsExactly(log(1), log(2));
+    }
+
+    @Test
+    void keepsOnlyWhatFitsInTheSegmentLimit() throws IOException {
+        SystemLogJournal journal = open(1);
+        String message = "x".repeat(30_000);
+        List<SystemLog> logs = IntStream.range(0, 50)
+                .mapToObj(i -> {
+                    SystemLog log = log(i);
+                    log.setMessage(message);
+                    return log;
+                })
+                .toList();
+
+        int kept = journal.append(logs);
+
+        assertThat(kept).isPositive().isLessThan(logs.size());
+        assertThat(journal.pending()).isEqualTo(kept);
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void disabledJournalKeepsNothing() throws IOException {
+        SystemLogJournal journal = new SystemLogJournal(new SimpleMeterRegistry(), false, directory.toString(), 1, 1);
+        journal.open();
+
+        assertThat(journal.append(List.of(log(1)))).isZero();
+        assertThat(journal.hasPending()).isFalse();
+    }
+
+    private SystemLogJournal open(int maxSegments) throws IOException {
+        SystemLogJournal journal = new SystemLogJournal(new SimpleMeterRegistry(), true, directory.toString(), 1,
+                maxSegments);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static SystemLog log(int n) {
+        return SystemLog.builder()
+                .serviceName("workflow-service")
+                .methodName("runSteps")
+                .className("WorkflowEngine")
+                .logLevel("INFO")
+                .message("step " + n)
+                .createdAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusSeconds(n))
+                .build();
+    }
+
+    private static final class RecordingSink implements SystemLogSink {
+
+        private final List<SystemLog> written = new ArrayList<>();
+
+        @Override
+        public String type() {
+            return "recording";
+        }
+
+        @Override
+        public void write(List<SystemLog> logs) {
+            written.addAll(logs);
+        }
+    }
+}
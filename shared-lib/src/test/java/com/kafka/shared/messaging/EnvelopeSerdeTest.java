@@ -0,0 +1,99 @@
+package com.kafka.shared.messaging;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EnvelopeSerdeTest {
+
+    private static final String TOPIC = "service-calls";
+
+    private final EnvelopeSerializer serializer = new EnvelopeSerializer();
+    private final EnvelopeDeserializer deserializer = new EnvelopeDeserializer();
+
+    @Test
+    void roundTripsMessagesWithNestedContext() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("customer", "Zoë 🚀");
+        context.put("attempt", 3);
+        context.put("budget", 12_000_000_000L);
+        context.put("ratio", 0.25);
+        context.put("priority", true);
+        context.put("amount", new BigDecimal("19.99"));
+        context.put("missing", null);
+        context.put("items", List.of("a", 1, Map.of("nested", false)));
+        ServiceCallMessage message = new ServiceCallMessage("billing", "/charge", context, 1_700_000_000_000L,
+                "wf-1:step-2", ServiceCallReplyMessage.TOPIC);
+
+        byte[] bytes = serializer.serialize(TOPIC, message);
+
+        assertThat(bytes[0]).isEqualTo(EnvelopeSerializer.MAGIC);
+        assertThat(deserializer.deserialize(TOPIC, bytes)).isEqualTo(message);
+    }
+
+    @Test
+    void readsVersionOneMessagesWithoutTheCorrelationFields() {
+        EnvelopeWriter writer = new EnvelopeWriter(64);
+        writer.writeByte(EnvelopeSerializer.MAGIC);
+        writer.writeVarLong(ServiceCallMessage.SCHEMA.id());
+        writer.writeByte(1);
+        writer.writeString("billing");
+        writer.writeString("/charge");
+        writer.writeMap(Map.of("customer", "c1"));
+        writer.writeLong(42L);
+
+        Object decoded = deserializer.deserialize(TOPIC, writer.toByteArray());
+
+        assertThat(decoded).isEqualTo(new ServiceCallMessage("billing", "/charge", Map.of("customer", "c1"), 42L));
+    }
+
+    @Test
+    void passesStringsAndBytesThrough() {
+        byte[] json = serializer.serialize("system-logs", "{\"service\":\"cbi\"}");
+
+        assertThat(json).isEqualTo("{\"service\":\"cbi\"}".getBytes(StandardCharsets.UTF_8));
+        assertThat(serializer.serialize("raw", new byte[]{1, 2})).containsExactly(1, 2);
+        assertThat(deserializer.deserialize("system-logs", json)).isEqualTo("{\"service\":\"cbi\"}");
+        assertThat(deserializer.deserialize(TOPIC, new byte[0])).isEqualTo("");
+    }
+
+    @Test
+    void rejectsTypesWithoutASchema() {
+        assertThatThrownBy(() -> serializer.serialize(TOPIC, new Object()))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("No envelope schema");
+    }
+
+    @Test
+    void rejectsUnknownSchemasAndTruncatedEnvelopes() {
+        byte[] unknown = {EnvelopeSerializer.MAGIC, 0x7F, 1};
+        byte[] bytes = serializer.serialize(TOPIC, new ServiceCallMessage("billing", "/charge", Map.of("k", "v"), 1L));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 4);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, unknown))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Unknown envelope schema id 127");
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, truncated))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Malformed envelope");
+    }
+
+    @Test
+    void registryRejectsASecondSchemaWithTheSameId() {
+        MessageSchemaRegistry registry = new MessageSchemaRegistry().register(ServiceCallMessage.SCHEMA);
+        MessageSchema<String> clash = new MessageSchema<>(ServiceCallMessage.SCHEMA.id(), 1, "other", String.class,
+                (message, out) -> out.writeString(message), (in, version) -> in.readString());
+
+        assertThatThrownBy(() -> registry.register(clash)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.register(ServiceCallMessage.SCHEMA).forTopic(TOPIC)).isSameAs(ServiceCallMessage.SCHEMA);
+    }
+}
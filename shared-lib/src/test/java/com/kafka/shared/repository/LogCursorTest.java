@@ -0,0 +1,30 @@
+package com.kafka.shared.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogCursorTest {
+
+    @Test
+    void roundTripsThroughAnUrlSafeToken() {
+        LogCursor cursor = new LogCursor(LocalDateTime.of(2026, 3, 4, 5, 6, 7, 890_000_000), 12345L);
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(LogCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertThatThrownBy(() -> LogCursor.decode("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid log cursor");
+        assertThatThrownBy(() -> LogCursor.decode(new LogCursor(LocalDateTime.now(), 1L).encode().substring(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
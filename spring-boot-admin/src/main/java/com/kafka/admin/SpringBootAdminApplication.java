@@ -6,9 +6,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAdminServer
+@EnableScheduling
 @ComponentScan(basePackages = {"com.kafka.admin", "com.kafka.shared"})
 @EnableJpaRepositories(basePackages = {"com.kafka.shared"})
 @EntityScan(basePackages = {"com.kafka.shared"})
@@ -0,0 +1,20 @@
+package com.kafka.admin.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class SystemLogIngestConfig {
+
+    @Bean
+    public NewTopic systemLogsTopic(@Value("${system-logs.kafka.topic:system-logs}") String topic,
+                                    @Value("${system-logs.kafka.partitions:6}") int partitions) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+}
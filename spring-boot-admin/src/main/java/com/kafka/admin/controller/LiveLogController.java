@@ -0,0 +1,124 @@
+package com.kafka.admin.controller;
+
+import com.kafka.admin.dto.MethodStatistics;
+import com.kafka.admin.dto.SlowCall;
+import com.kafka.admin.service.LiveLogStatistics;
+import com.kafka.admin.service.LogRollup;
+import com.kafka.admin.service.SystemLogRollupService;
+import com.kafka.shared.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics over recent windows served from {@link LiveLogStatistics}. Windows longer than the
+ * in-memory horizon take the older part from the minute/hour rollups.
+ */
+@RestController
+@RequestMapping("/api/logs/live")
+@RequiredArgsConstructor
+public class LiveLogController {
+
+    private final LiveLogStatistics liveLogStatistics;
+    private final SystemLogRollupService systemLogRollupService;
+
+    @GetMapping("/statistics")
+    public ApiResponse<Object> getStatistics(
+            @RequestParam(required = false) String serviceName,
+            @RequestParam(defaultValue = "5") int windowMinutes) {
+
+        LogRollup total = new LogRollup(serviceName, null, null);
+        collect(serviceName, windowMinutes).forEach(total::merge);
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("serviceName", serviceName);
+        statistics.put("windowMinutes", windowMinutes);
+        statistics.put("calls", total.getCallCount());
+        statistics.put("errors", total.getErrorCount());
+        statistics.put("errorRate", errorRate(total));
+        statistics.put("averageMs", total.getAverageMs());
+        statistics.put("p50Ms", total.percentile(0.50));
+        statistics.put("p95Ms", total.percentile(0.95));
+        statistics.put("p99Ms", total.percentile(0.99));
+        statistics.put("maxMs", total.getMaxMs());
+
+        return ApiResponse.success("Live statistics retrieved successfully", statistics);
+    }
+
+    @GetMapping("/methods")
+    public ApiResponse<List<MethodStatistics>> getMethodStatistics(
+            @RequestParam(required = false) String serviceName,
+            @RequestParam(defaultValue = "5") int windowMinutes) {
+
+        List<MethodStatistics> methods = collect(serviceName, windowMinutes).stream()
+                .map(rollup -> MethodStatistics.builder()
+                        .serviceName(rollup.getServiceName())
+                        .className(rollup.getClassName())
+                        .methodName(rollup.getMethodName())
+                        .calls(rollup.getCallCount())
+                        .errors(rollup.getErrorCount())
+                        .errorRate(errorRate(rollup))
+                        .averageMs(rollup.getAverageMs())
+                        .p50Ms(rollup.percentile(0.50))
+                        .p95Ms(rollup.percentile(0.95))
+                        .p99Ms(rollup.percentile(0.99))
+                        .maxMs(rollup.getMaxMs())
+                        .build())
+                .sorted(Comparator.comparingLong(MethodStatistics::getP99Ms).reversed())
+                .toList();
+
+        return ApiResponse.success("Method statistics retrieved successfully", methods);
+    }
+
+    @GetMapping("/slowest")
+    public ApiResponse<List<SlowCall>> getSlowestCalls(
+            @RequestParam(required = false) String serviceName,
+            @RequestParam(required = false) String methodName,
+            @RequestParam(defaultValue = "5") int windowMinutes,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<SlowCall> slowest = liveLogStatistics.slowest(serviceName, methodName, windowMinutes, Math.max(1, limit));
+        return ApiResponse.success("Slowest calls retrieved successfully", slowest);
+    }
+
+    private Collection<LogRollup> collect(String serviceName, int windowMinutes) {
+        int horizon = liveLogStatistics.getHorizonMinutes();
+        List<LogRollup> live = liveLogStatistics.summarize(serviceName, windowMinutes);
+        if (windowMinutes <= horizon) {
+            return live;
+        }
+
+        // Minutes before the in-memory horizon come from the rollup tables
+        LocalDateTime horizonStart = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(horizon - 1);
+        Map<String, LogRollup> merged = new HashMap<>();
+        for (LogRollup rollup : systemLogRollupService.summarize(
+                serviceName, horizonStart.minusMinutes(windowMinutes - horizon), horizonStart)) {
+            merged.put(key(rollup), rollup);
+        }
+        for (LogRollup rollup : live) {
+            merged.merge(key(rollup), rollup, (older, recent) -> {
+                older.merge(recent);
+                return older;
+            });
+        }
+        return merged.values();
+    }
+
+    private static String key(LogRollup rollup) {
+        return rollup.getServiceName() + '|' + rollup.getClassName() + '|' + rollup.getMethodName();
+    }
+
+    private static double errorRate(LogRollup rollup) {
+        return rollup.getCallCount() == 0 ? 0.0 : (double) rollup.getErrorCount() / rollup.getCallCount();
+    }
+}
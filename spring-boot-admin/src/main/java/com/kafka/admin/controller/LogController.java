@@ -1,23 +1,33 @@
 package com.kafka.admin.controller;
 
+import com.kafka.admin.dto.SlowExecutionSummary;
+import com.kafka.admin.service.LogRollup;
+import com.kafka.admin.service.SystemLogRollupService;
 import com.kafka.shared.dto.ApiResponse;
+import com.kafka.shared.dto.CursorPage;
+import com.kafka.shared.dto.ExceptionFingerprint;
+import com.kafka.shared.dto.ExceptionFingerprintSummary;
 import com.kafka.shared.dto.SystemLog;
+import com.kafka.shared.repository.ExceptionFingerprintRepository;
+import com.kafka.shared.repository.LogCursor;
 import com.kafka.shared.repository.SystemLogRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/logs")
@@ -25,40 +35,47 @@ import java.util.Map;
 public class LogController {
 
     private final SystemLogRepository systemLogRepository;
+    private final ExceptionFingerprintRepository exceptionFingerprintRepository;
+    private final SystemLogRollupService systemLogRollupService;
 
     @GetMapping
-    public ApiResponse<Page<SystemLog>> getLogs(
-            @RequestParam(defaultValue = "0") int page,
+    public ApiResponse<CursorPage<SystemLog>> getLogs(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String serviceName,
             @RequestParam(required = false) String logLevel,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<SystemLog> logs;
-
-        if (serviceName != null && startDate != null && endDate != null) {
-            List<SystemLog> allLogs = systemLogRepository.findByServiceNameAndCreatedAtBetween(serviceName, startDate, endDate);
-            // Manually paginate the results
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), allLogs.size());
-            List<SystemLog> pageContent = allLogs.subList(start, end);
-            logs = new org.springframework.data.domain.PageImpl<>(pageContent, pageable, allLogs.size());
-        } else if (logLevel != null && startDate != null && endDate != null) {
-            List<SystemLog> allLogs = systemLogRepository.findByLogLevelAndCreatedAtBetween(logLevel, startDate, endDate);
-            // Manually paginate the results
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), allLogs.size());
-            List<SystemLog> pageContent = allLogs.subList(start, end);
-            logs = new org.springframework.data.domain.PageImpl<>(pageContent, pageable, allLogs.size());
-        } else {
-            logs = systemLogRepository.findAll(pageable);
+        LogCursor after;
+        try {
+            after = cursor != null ? LogCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage());
         }
 
+        int pageSize = Math.max(1, Math.min(size, 1000));
+        // Fetch one extra row to learn whether another page follows without a COUNT query
+        List<SystemLog> rows = systemLogRepository.findPageAfter(serviceName, logLevel, startDate, endDate,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, Limit.of(pageSize + 1));
+
+        boolean hasNext = rows.size() > pageSize;
+        List<SystemLog> content = hasNext ? rows.subList(0, pageSize) : rows;
+        SystemLog last = content.isEmpty() ? null : content.get(content.size() - 1);
+
+        CursorPage<SystemLog> logs = CursorPage.<SystemLog>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new LogCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+
         return ApiResponse.success("Logs retrieved successfully", logs);
     }
 
+    /**
+     * Raw log rows slower than {@code threshold}; only the last {@code system-logs.retention.raw-days} are kept.
+     */
     @GetMapping("/slow-executions")
     public ApiResponse<List<SystemLog>> getSlowExecutions(
             @RequestParam(defaultValue = "1000") Long threshold,
@@ -69,22 +86,93 @@ public class LogController {
         return ApiResponse.success("Slow executions retrieved successfully", slowExecutions);
     }
 
+    /**
+     * Per-method summary of calls slower than {@code threshold}, answered from the rollups.
+     */
+    @GetMapping("/slow-executions/summary")
+    public ApiResponse<List<SlowExecutionSummary>> getSlowExecutionSummary(
+            @RequestParam(defaultValue = "1000") Long threshold,
+            @RequestParam(required = false) String serviceName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        List<SlowExecutionSummary> slowExecutions = systemLogRollupService.summarize(serviceName, startDate, endDate).stream()
+                .filter(rollup -> rollup.getMaxMs() > threshold)
+                .map(rollup -> SlowExecutionSummary.builder()
+                        .serviceName(rollup.getServiceName())
+                        .className(rollup.getClassName())
+                        .methodName(rollup.getMethodName())
+                        .totalCalls(rollup.getCallCount())
+                        .slowCalls(rollup.getSketch().countAbove(threshold))
+                        .averageMs(rollup.getAverageMs())
+                        .p99Ms(rollup.percentile(0.99))
+                        .maxMs(rollup.getMaxMs())
+                        .build())
+                .sorted(Comparator.comparing(SlowExecutionSummary::getSlowCalls).reversed())
+                .toList();
+        return ApiResponse.success("Slow execution summary retrieved successfully", slowExecutions);
+    }
+
     @GetMapping("/statistics")
     public ApiResponse<Object> getStatistics(
             @RequestParam(required = false) String serviceName,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
 
-        Long totalLogs = serviceName != null ?
-                systemLogRepository.countByServiceNameAndDateRange(serviceName, startDate, endDate) :
-                systemLogRepository.count();
+        LogRollup total = new LogRollup(serviceName, null, null);
+        systemLogRollupService.summarize(serviceName, startDate, endDate).forEach(total::merge);
 
         Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalLogs", totalLogs);
+        statistics.put("totalLogs", total.getCallCount());
+        statistics.put("errorCount", total.getErrorCount());
+        statistics.put("averageMs", total.getAverageMs());
+        statistics.put("minMs", total.getMinMs());
+        statistics.put("maxMs", total.getMaxMs());
+        statistics.put("p50Ms", total.percentile(0.50));
+        statistics.put("p95Ms", total.percentile(0.95));
+        statistics.put("p99Ms", total.percentile(0.99));
         statistics.put("serviceName", serviceName);
         statistics.put("startDate", startDate);
         statistics.put("endDate", endDate);
 
         return ApiResponse.success("Statistics retrieved successfully", statistics);
     }
+
+    @GetMapping("/exceptions/top")
+    public ApiResponse<List<ExceptionFingerprintSummary>> getTopExceptions(
+            @RequestParam(required = false) String serviceName,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        List<SystemLogRepository.FingerprintOccurrences> occurrences = systemLogRepository.findTopExceptionFingerprints(
+                serviceName, startDate, endDate, PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+        Map<String, ExceptionFingerprint> fingerprints = exceptionFingerprintRepository
+                .findAllById(occurrences.stream().map(SystemLogRepository.FingerprintOccurrences::getFingerprint).toList())
+                .stream()
+                .collect(Collectors.toMap(ExceptionFingerprint::getFingerprint, Function.identity()));
+
+        List<ExceptionFingerprintSummary> summaries = occurrences.stream()
+                .map(occurrence -> {
+                    ExceptionFingerprint fingerprint = fingerprints.get(occurrence.getFingerprint());
+                    return ExceptionFingerprintSummary.builder()
+                            .fingerprint(occurrence.getFingerprint())
+                            .exceptionClass(fingerprint != null ? fingerprint.getExceptionClass() : null)
+                            .occurrences(occurrence.getOccurrences())
+                            .totalOccurrences(fingerprint != null ? fingerprint.getOccurrenceCount() : null)
+                            .firstSeen(occurrence.getFirstSeen())
+                            .lastSeen(occurrence.getLastSeen())
+                            .build();
+                })
+                .toList();
+
+        return ApiResponse.success("Top exceptions retrieved successfully", summaries);
+    }
+
+    @GetMapping("/exceptions/{fingerprint}")
+    public ApiResponse<ExceptionFingerprint> getException(@PathVariable String fingerprint) {
+        return exceptionFingerprintRepository.findById(fingerprint)
+                .map(found -> ApiResponse.success("Exception retrieved successfully", found))
+                .orElseGet(() -> ApiResponse.error("Unknown exception fingerprint: " + fingerprint));
+    }
 }
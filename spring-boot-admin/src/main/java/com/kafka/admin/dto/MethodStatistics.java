@@ -0,0 +1,25 @@
+package com.kafka.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MethodStatistics {
+
+    private String serviceName;
+    private String className;
+    private String methodName;
+    private long calls;
+    private long errors;
+    private double errorRate;
+    private double averageMs;
+    private long p50Ms;
+    private long p95Ms;
+    private long p99Ms;
+    private long maxMs;
+}
@@ -0,0 +1,23 @@
+package com.kafka.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowCall {
+
+    private String serviceName;
+    private String className;
+    private String methodName;
+    private String logLevel;
+    private long executionTimeMs;
+    private String requestId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package com.kafka.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowExecutionSummary {
+
+    private String serviceName;
+    private String className;
+    private String methodName;
+    private Long totalCalls;
+    private Long slowCalls;
+    private Double averageMs;
+    private Long p99Ms;
+    private Long maxMs;
+}
@@ -0,0 +1,179 @@
+package com.kafka.admin.service;
+
+import com.kafka.admin.dto.SlowCall;
+import com.kafka.shared.dto.SystemLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live per-method statistics over the last {@code system-logs.live.horizon-minutes}, fed by the
+ * ingested log stream.
+ * <p>
+ * Each service/class/method keeps a ring of one-minute slots holding a {@link LogRollup} (counts,
+ * sum/min/max, latency sketch) and the {@code system-logs.live.top-k} slowest calls of that minute.
+ * Slots are recycled as time moves on, so memory is bounded by methods × horizon and a query merges
+ * at most {@code horizon} slots per method regardless of traffic.
+ */
+@Service
+public class LiveLogStatistics {
+
+    private static final Comparator<SlowCall> BY_EXECUTION_TIME = Comparator.comparingLong(SlowCall::getExecutionTimeMs);
+
+    private final int horizonMinutes;
+    private final int topK;
+    private final Map<String, MethodWindow> windows = new ConcurrentHashMap<>();
+
+    public LiveLogStatistics(@Value("${system-logs.live.horizon-minutes:15}") int horizonMinutes,
+                             @Value("${system-logs.live.top-k:10}") int topK) {
+        this.horizonMinutes = Math.max(1, horizonMinutes);
+        this.topK = Math.max(1, topK);
+    }
+
+    public int getHorizonMinutes() {
+        return horizonMinutes;
+    }
+
+    public void record(SystemLog log) {
+        LocalDateTime createdAt = log.getCreatedAt() != null ? log.getCreatedAt() : LocalDateTime.now();
+        long minute = epochMinute(createdAt);
+        if (minute <= currentMinute() - horizonMinutes) {
+            return;
+        }
+        String key = log.getServiceName() + '|' + log.getClassName() + '|' + log.getMethodName();
+        windows.computeIfAbsent(key, k -> new MethodWindow(log.getServiceName(), log.getClassName(), log.getMethodName()))
+                .record(minute, log, createdAt);
+    }
+
+    /**
+     * Per-method aggregates for the last {@code windowMinutes} (capped at the horizon), optionally
+     * restricted to one service. Methods without calls in the window are omitted.
+     */
+    public List<LogRollup> summarize(String serviceName, int windowMinutes) {
+        long from = firstMinute(windowMinutes);
+        List<LogRollup> rollups = new ArrayList<>();
+        for (MethodWindow window : windows.values()) {
+            if (serviceName == null || serviceName.equals(window.serviceName)) {
+                LogRollup rollup = window.summarize(from);
+                if (rollup.getCallCount() > 0) {
+                    rollups.add(rollup);
+                }
+            }
+        }
+        return rollups;
+    }
+
+    /**
+     * The slowest calls of the last {@code windowMinutes} (capped at the horizon), slowest first.
+     * Exact as long as {@code limit} does not exceed {@code system-logs.live.top-k}.
+     */
+    public List<SlowCall> slowest(String serviceName, String methodName, int windowMinutes, int limit) {
+        long from = firstMinute(windowMinutes);
+        PriorityQueue<SlowCall> top = new PriorityQueue<>(BY_EXECUTION_TIME);
+        for (MethodWindow window : windows.values()) {
+            if ((serviceName == null || serviceName.equals(window.serviceName))
+                    && (methodName == null || methodName.equals(window.methodName))) {
+                window.collectSlowest(from, top, limit);
+            }
+        }
+        List<SlowCall> result = new ArrayList<>(top);
+        result.sort(BY_EXECUTION_TIME.reversed());
+        return result;
+    }
+
+    private long firstMinute(int windowMinutes) {
+        return currentMinute() - Math.max(1, Math.min(windowMinutes, horizonMinutes)) + 1;
+    }
+
+    private static long currentMinute() {
+        return epochMinute(LocalDateTime.now());
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static void offer(PriorityQueue<SlowCall> top, SlowCall call, int limit) {
+        if (top.size() < limit) {
+            top.add(call);
+        } else if (call.getExecutionTimeMs() > top.peek().getExecutionTimeMs()) {
+            top.poll();
+            top.add(call);
+        }
+    }
+
+    private final class MethodWindow {
+        private final String serviceName;
+        private final String className;
+        private final String methodName;
+        private final Slot[] slots = new Slot[horizonMinutes];
+
+        private MethodWindow(String serviceName, String className, String methodName) {
+            this.serviceName = serviceName;
+            this.className = className;
+            this.methodName = methodName;
+        }
+
+        private synchronized void record(long minute, SystemLog log, LocalDateTime createdAt) {
+            int index = (int) Math.floorMod(minute, (long) slots.length);
+            Slot slot = slots[index];
+            if (slot == null || slot.minute != minute) {
+                if (slot != null && slot.minute > minute) {
+                    // Older than what this slot already holds: outside the window
+                    return;
+                }
+                slot = new Slot(minute, new LogRollup(serviceName, className, methodName));
+                slots[index] = slot;
+            }
+
+            long executionTimeMs = log.getExecutionTimeMs() != null ? log.getExecutionTimeMs() : 0;
+            slot.rollup.add(executionTimeMs, "ERROR".equals(log.getLogLevel()));
+            offer(slot.slowest, SlowCall.builder()
+                    .serviceName(serviceName)
+                    .className(className)
+                    .methodName(methodName)
+                    .logLevel(log.getLogLevel())
+                    .executionTimeMs(executionTimeMs)
+                    .requestId(log.getRequestId())
+                    .createdAt(createdAt)
+                    .build(), topK);
+        }
+
+        private synchronized LogRollup summarize(long fromMinute) {
+            LogRollup merged = new LogRollup(serviceName, className, methodName);
+            for (Slot slot : slots) {
+                if (slot != null && slot.minute >= fromMinute) {
+                    merged.merge(slot.rollup);
+                }
+            }
+            return merged;
+        }
+
+        private synchronized void collectSlowest(long fromMinute, PriorityQueue<SlowCall> top, int limit) {
+            for (Slot slot : slots) {
+                if (slot != null && slot.minute >= fromMinute) {
+                    slot.slowest.forEach(call -> offer(top, call, limit));
+                }
+            }
+        }
+    }
+
+    private static final class Slot {
+        private final long minute;
+        private final LogRollup rollup;
+        private final PriorityQueue<SlowCall> slowest = new PriorityQueue<>(BY_EXECUTION_TIME);
+
+        private Slot(long minute, LogRollup rollup) {
+            this.minute = minute;
+            this.rollup = rollup;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.kafka.admin.service;
+
+import com.kafka.shared.logging.LatencySketch;
+import lombok.Getter;
+
+/**
+ * Aggregate of execution log rows for one service/class/method: call and error counts,
+ * sum/min/max latency and a {@link LatencySketch} for quantiles. Rollups merge losslessly, so a
+ * query range is answered by combining the stored minute and hour buckets it covers.
+ */
+@Getter
+public class LogRollup {
+
+    private final String serviceName;
+    private final String className;
+    private final String methodName;
+    private final LatencySketch sketch;
+    private long callCount;
+    private long errorCount;
+    private long sumMs;
+    private long minMs = Long.MAX_VALUE;
+    private long maxMs = Long.MIN_VALUE;
+
+    public LogRollup(String serviceName, String className, String methodName) {
+        this(serviceName, className, methodName, new LatencySketch());
+    }
+
+    LogRollup(String serviceName, String className, String methodName, LatencySketch sketch) {
+        this.serviceName = serviceName;
+        this.className = className;
+        this.methodName = methodName;
+        this.sketch = sketch;
+    }
+
+    static LogRollup restore(String serviceName, String className, String methodName, long callCount,
+                             long errorCount, long sumMs, long minMs, long maxMs, byte[] sketch) {
+        LogRollup rollup = new LogRollup(serviceName, className, methodName, LatencySketch.fromBytes(sketch));
+        rollup.callCount = callCount;
+        rollup.errorCount = errorCount;
+        rollup.sumMs = sumMs;
+        rollup.minMs = minMs;
+        rollup.maxMs = maxMs;
+        return rollup;
+    }
+
+    public void add(long executionTimeMs, boolean error) {
+        callCount++;
+        if (error) {
+            errorCount++;
+        }
+        sumMs += executionTimeMs;
+        minMs = Math.min(minMs, executionTimeMs);
+        maxMs = Math.max(maxMs, executionTimeMs);
+        sketch.add(executionTimeMs);
+    }
+
+    public void merge(LogRollup other) {
+        if (other.callCount == 0) {
+            return;
+        }
+        callCount += other.callCount;
+        errorCount += other.errorCount;
+        sumMs += other.sumMs;
+        minMs = Math.min(minMs, other.minMs);
+        maxMs = Math.max(maxMs, other.maxMs);
+        sketch.merge(other.sketch);
+    }
+
+    public double getAverageMs() {
+        return callCount == 0 ? 0.0 : (double) sumMs / callCount;
+    }
+
+    public long getMinMs() {
+        return callCount == 0 ? 0 : minMs;
+    }
+
+    public long getMaxMs() {
+        return callCount == 0 ? 0 : maxMs;
+    }
+
+    public long percentile(double quantile) {
+        return sketch.quantile(quantile);
+    }
+}
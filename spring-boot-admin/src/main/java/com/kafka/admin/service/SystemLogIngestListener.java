@@ -0,0 +1,50 @@
+package com.kafka.admin.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.dto.SystemLog;
+import com.kafka.shared.logging.JdbcSystemLogSink;
+import com.kafka.shared.logging.SystemLogEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk-ingests execution log events published by services running with
+ * {@code system-logs.sink=kafka}. Each poll is decoded and written with one JDBC batch, and the
+ * offsets are committed only after the batch is stored. Stored records also feed
+ * {@link LiveLogStatistics}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SystemLogIngestListener {
+
+    private final ObjectMapper objectMapper;
+    private final JdbcSystemLogSink jdbcSystemLogSink;
+    private final LiveLogStatistics liveLogStatistics;
+
+    @KafkaListener(topics = "${system-logs.kafka.topic:system-logs}",
+            groupId = "${system-logs.ingest.group-id:admin-system-log-ingest}",
+            batch = "true",
+            properties = "max.poll.records=${system-logs.ingest.max-poll-records:1000}")
+    public void ingest(List<String> events, Acknowledgment acknowledgment) {
+        List<SystemLog> logs = new ArrayList<>(events.size());
+        for (String event : events) {
+            try {
+                logs.add(objectMapper.readValue(event, SystemLogEvent.class).toSystemLog());
+            } catch (Exception e) {
+                log.warn("Skipping malformed execution log event: {}", event, e);
+            }
+        }
+
+        jdbcSystemLogSink.write(logs);
+        logs.forEach(liveLogStatistics::record);
+        acknowledgment.acknowledge();
+        log.debug("Ingested {} execution log events", logs.size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.kafka.admin.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the daily {@code RANGE (UNIX_TIMESTAMP(created_at))} partitions of {@code system_logs}.
+ * <p>
+ * Partitions for the next {@code system-logs.partitions.days-ahead} days are split off the
+ * {@code p_future} catch-all, and partitions whose upper bound is older than
+ * {@code system-logs.retention.raw-days} are dropped, which removes expired rows without a
+ * row-by-row {@code DELETE}. Days are UTC days.
+ */
+@Service
+@Slf4j
+public class SystemLogPartitionManager {
+
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private static final String SELECT_PARTITIONS_SQL = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION "
+            + "FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'system_logs' "
+            + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int daysAhead;
+    private final int rawRetentionDays;
+
+    public SystemLogPartitionManager(JdbcTemplate jdbcTemplate,
+                                     @Value("${system-logs.partitions.days-ahead:3}") int daysAhead,
+                                     @Value("${system-logs.retention.raw-days:7}") int rawRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.daysAhead = Math.max(1, daysAhead);
+        this.rawRetentionDays = Math.max(1, rawRetentionDays);
+    }
+
+    @Scheduled(initialDelayString = "${system-logs.partitions.initial-delay-ms:10000}",
+            fixedDelayString = "${system-logs.partitions.interval-ms:3600000}")
+    public void maintainPartitions() {
+        try {
+            Map<String, String> partitions = jdbcTemplate.query(SELECT_PARTITIONS_SQL, rs -> {
+                Map<String, String> bounds = new LinkedHashMap<>();
+                while (rs.next()) {
+                    bounds.put(rs.getString("PARTITION_NAME"), rs.getString("PARTITION_DESCRIPTION"));
+                }
+                return bounds;
+            });
+            if (partitions == null || !partitions.containsKey(FUTURE_PARTITION)) {
+                log.warn("system_logs is not partitioned by day; skipping partition maintenance");
+                return;
+            }
+
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            createPartitions(partitions, today);
+            dropExpiredPartitions(partitions, today);
+        } catch (Exception e) {
+            log.error("system_logs partition maintenance failed", e);
+        }
+    }
+
+    private void createPartitions(Map<String, String> partitions, LocalDate today) {
+        long highestBound = partitions.values().stream()
+                .filter(bound -> !"MAXVALUE".equals(bound))
+                .mapToLong(Long::parseLong)
+                .max()
+                .orElse(Long.MIN_VALUE);
+
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            long upperBound = startOfDay(day.plusDays(1));
+            if (upperBound > highestBound) {
+                definitions.add("PARTITION " + day.format(PARTITION_NAME) + " VALUES LESS THAN (" + upperBound + ")");
+            }
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE system_logs REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + String.join(", ", definitions) + ")");
+        log.info("Created {} system_logs partitions", definitions.size() - 1);
+    }
+
+    private void dropExpiredPartitions(Map<String, String> partitions, LocalDate today) {
+        long cutoff = startOfDay(today.minusDays(rawRetentionDays));
+        List<String> expired = partitions.entrySet().stream()
+                .filter(partition -> !FUTURE_PARTITION.equals(partition.getKey()))
+                .filter(partition -> Long.parseLong(partition.getValue()) <= cutoff)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE system_logs DROP PARTITION " + String.join(", ", expired));
+        log.info("Dropped expired system_logs partitions {}", expired);
+    }
+
+    private static long startOfDay(LocalDate day) {
+        return day.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,324 @@
+package com.kafka.admin.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rolls raw {@code system_logs} rows into per-minute aggregates, and completed minutes into
+ * per-hour aggregates, stored in {@code system_log_rollups}. Statistics queries read the rollups
+ * instead of scanning raw rows, so their cost depends on the number of buckets in the range rather
+ * than the number of log rows.
+ * <p>
+ * Progress is tracked on {@code ingested_at}, the time the database stored a row, not on its
+ * {@code created_at}: each run collects the minutes (by {@code created_at}) that received rows since the last
+ * run and recomputes them from all their raw rows, and re-rolls hours that were already rolled. Rows that
+ * arrive late (journal replay, consumer lag, retries) therefore land in their minute and hour as soon as they
+ * are stored, and recomputing a bucket is idempotent. Rows are picked up once they have been stored for
+ * {@code system-logs.rollup.delay-seconds}, which covers transactions that commit after their insert time.
+ * Late rows older than {@code system-logs.retention.raw-days} are not rolled up: the rest of their minute has
+ * already been dropped with its partition, so recomputing it would overwrite the stored bucket with a fraction
+ * of its calls.
+ */
+@Service
+@Slf4j
+public class SystemLogRollupService {
+
+    public static final String MINUTE = "MINUTE";
+    public static final String HOUR = "HOUR";
+
+    private static final long MAX_HOURS_PER_RUN = 24;
+
+    private static final String SELECT_RAW_SQL = "SELECT service_name, class_name, method_name, log_level, "
+            + "execution_time_ms, created_at FROM system_logs WHERE created_at >= ? AND created_at < ?";
+
+    private static final String SELECT_INGESTED_SQL = "SELECT DISTINCT created_at FROM system_logs "
+            + "WHERE ingested_at >= ? AND ingested_at < ?";
+
+    private static final String SELECT_ROLLUPS_SQL = "SELECT bucket_start, service_name, class_name, method_name, "
+            + "call_count, error_count, sum_ms, min_ms, max_ms, latency_sketch FROM system_log_rollups "
+            + "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String UPSERT_ROLLUP_SQL = "INSERT INTO system_log_rollups (granularity, bucket_start, "
+            + "service_name, class_name, method_name, call_count, error_count, sum_ms, min_ms, max_ms, latency_sketch) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE call_count = VALUES(call_count), "
+            + "error_count = VALUES(error_count), sum_ms = VALUES(sum_ms), min_ms = VALUES(min_ms), "
+            + "max_ms = VALUES(max_ms), latency_sketch = VALUES(latency_sketch)";
+
+    private static final String UPSERT_WATERMARK_SQL = "INSERT INTO system_log_rollup_watermarks (granularity, rolled_until) "
+            + "VALUES (?, ?) ON DUPLICATE KEY UPDATE rolled_until = VALUES(rolled_until)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long delaySeconds;
+    private final long maxMinutesPerRun;
+    private final int rawRetentionDays;
+    private final int minuteRetentionDays;
+    private final int hourRetentionDays;
+
+    public SystemLogRollupService(JdbcTemplate jdbcTemplate,
+                                  @Value("${system-logs.rollup.delay-seconds:120}") long delaySeconds,
+                                  @Value("${system-logs.rollup.max-minutes-per-run:60}") long maxMinutesPerRun,
+                                  @Value("${system-logs.retention.raw-days:7}") int rawRetentionDays,
+                                  @Value("${system-logs.retention.minute-rollup-days:14}") int minuteRetentionDays,
+                                  @Value("${system-logs.retention.hour-rollup-days:400}") int hourRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.delaySeconds = Math.max(0, delaySeconds);
+        this.maxMinutesPerRun = Math.max(1, maxMinutesPerRun);
+        this.rawRetentionDays = Math.max(1, rawRetentionDays);
+        this.minuteRetentionDays = minuteRetentionDays;
+        this.hourRetentionDays = hourRetentionDays;
+    }
+
+    @Scheduled(initialDelayString = "${system-logs.rollup.initial-delay-ms:30000}",
+            fixedDelayString = "${system-logs.rollup.interval-ms:60000}")
+    public void rollUp() {
+        try {
+            rollUpMinutes();
+            rollUpHours();
+            purgeExpiredRollups();
+        } catch (Exception e) {
+            log.error("Execution log rollup failed", e);
+        }
+    }
+
+    /**
+     * Per service/class/method aggregates for {@code [startDate, endDate)}, optionally restricted to
+     * one service. Whole hours are read from hour rollups and the remaining edges from minute rollups.
+     */
+    public Collection<LogRollup> summarize(String serviceName, LocalDateTime startDate, LocalDateTime endDate) {
+        Map<String, LogRollup> merged = new HashMap<>();
+        LocalDateTime hourStart = truncateUp(startDate, ChronoUnit.HOURS);
+        LocalDateTime hourWatermark = watermark(HOUR);
+        LocalDateTime hourEnd = hourWatermark != null
+                ? min(endDate.truncatedTo(ChronoUnit.HOURS), hourWatermark)
+                : hourStart;
+
+        if (hourStart.isBefore(hourEnd)) {
+            mergeRollups(merged, HOUR, serviceName, hourStart, hourEnd);
+            mergeRollups(merged, MINUTE, serviceName, startDate, hourStart);
+            mergeRollups(merged, MINUTE, serviceName, hourEnd, endDate);
+        } else {
+            mergeRollups(merged, MINUTE, serviceName, startDate, endDate);
+        }
+        return merged.values();
+    }
+
+    private void rollUpMinutes() {
+        LocalDateTime from = watermark(MINUTE);
+        if (from == null) {
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(ingested_at) FROM system_logs", Timestamp.class);
+            if (oldest == null) {
+                return;
+            }
+            from = oldest.toLocalDateTime();
+        }
+        LocalDateTime ready = LocalDateTime.now().minusSeconds(delaySeconds);
+        LocalDateTime to = min(ready, from.plusMinutes(maxMinutesPerRun));
+        if (!from.isBefore(to)) {
+            return;
+        }
+
+        // Minutes (by created_at) that received rows in [from, to) of ingestion time and still have all their raw rows
+        LocalDateTime retained = rawRetainedSince();
+        TreeSet<LocalDateTime> dirty = new TreeSet<>();
+        jdbcTemplate.query(SELECT_INGESTED_SQL, rs -> {
+            LocalDateTime minute = rs.getTimestamp(1).toLocalDateTime().truncatedTo(ChronoUnit.MINUTES);
+            if (!minute.isBefore(retained)) {
+                dirty.add(minute);
+            }
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        Map<LocalDateTime, Map<String, LogRollup>> buckets = new HashMap<>();
+        LocalDateTime rangeStart = null;
+        LocalDateTime rangeEnd = null;
+        for (LocalDateTime minute : dirty) {
+            if (rangeEnd != null && !minute.equals(rangeEnd)) {
+                aggregateRaw(buckets, rangeStart, rangeEnd);
+                rangeStart = null;
+            }
+            if (rangeStart == null) {
+                rangeStart = minute;
+            }
+            rangeEnd = minute.plusMinutes(1);
+        }
+        if (rangeStart != null) {
+            aggregateRaw(buckets, rangeStart, rangeEnd);
+        }
+
+        store(MINUTE, buckets, to);
+        rerollHours(dirty);
+        log.debug("Rolled up execution logs ingested in [{}, {}) into {} minute buckets", from, to, buckets.size());
+    }
+
+    /**
+     * Start of the oldest raw {@code system_logs} day that {@link SystemLogPartitionManager} keeps, and no earlier
+     * than the minute rollups that are kept.
+     */
+    private LocalDateTime rawRetainedSince() {
+        LocalDateTime rawDays = LocalDate.now(ZoneOffset.UTC).minusDays(rawRetentionDays).atStartOfDay();
+        LocalDateTime minuteRollups = LocalDateTime.now().minusDays(minuteRetentionDays);
+        return rawDays.isAfter(minuteRollups) ? rawDays : minuteRollups;
+    }
+
+    /**
+     * Recompute the minute buckets of {@code [from, to)} from all their raw rows.
+     */
+    private void aggregateRaw(Map<LocalDateTime, Map<String, LogRollup>> buckets, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.query(SELECT_RAW_SQL, rs -> {
+            LocalDateTime bucket = rs.getTimestamp("created_at").toLocalDateTime().truncatedTo(ChronoUnit.MINUTES);
+            String serviceName = rs.getString("service_name");
+            String className = rs.getString("class_name");
+            String methodName = rs.getString("method_name");
+            buckets.computeIfAbsent(bucket, b -> new HashMap<>())
+                    .computeIfAbsent(key(serviceName, className, methodName),
+                            k -> new LogRollup(serviceName, className, methodName))
+                    .add(rs.getLong("execution_time_ms"), "ERROR".equals(rs.getString("log_level")));
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Hours already rolled up whose minutes just changed are rolled up again; later hours are left to
+     * {@link #rollUpHours()}.
+     */
+    private void rerollHours(Set<LocalDateTime> dirtyMinutes) {
+        LocalDateTime hourWatermark = watermark(HOUR);
+        if (hourWatermark == null) {
+            return;
+        }
+        Set<LocalDateTime> hours = new TreeSet<>();
+        for (LocalDateTime minute : dirtyMinutes) {
+            LocalDateTime hour = minute.truncatedTo(ChronoUnit.HOURS);
+            if (hour.isBefore(hourWatermark)) {
+                hours.add(hour);
+            }
+        }
+        for (LocalDateTime hour : hours) {
+            upsert(HOUR, aggregateMinutes(hour, hour.plusHours(1)));
+        }
+        if (!hours.isEmpty()) {
+            log.debug("Rolled up {} hour buckets again after late execution logs", hours.size());
+        }
+    }
+
+    private void rollUpHours() {
+        LocalDateTime minuteWatermark = watermark(MINUTE);
+        if (minuteWatermark == null) {
+            return;
+        }
+        LocalDateTime from = watermark(HOUR);
+        if (from == null) {
+            Timestamp oldest = jdbcTemplate.queryForObject(
+                    "SELECT MIN(bucket_start) FROM system_log_rollups WHERE granularity = ?", Timestamp.class, MINUTE);
+            if (oldest == null) {
+                return;
+            }
+            from = oldest.toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+        }
+        LocalDateTime to = min(minuteWatermark.truncatedTo(ChronoUnit.HOURS), from.plusHours(MAX_HOURS_PER_RUN));
+        if (!from.isBefore(to)) {
+            return;
+        }
+
+        Map<LocalDateTime, Map<String, LogRollup>> buckets = aggregateMinutes(from, to);
+        store(HOUR, buckets, to);
+        log.debug("Rolled up minute buckets for [{}, {}) into {} hour buckets", from, to, buckets.size());
+    }
+
+    private Map<LocalDateTime, Map<String, LogRollup>> aggregateMinutes(LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, Map<String, LogRollup>> buckets = new HashMap<>();
+        jdbcTemplate.query(SELECT_ROLLUPS_SQL, rs -> {
+            LocalDateTime bucket = rs.getTimestamp("bucket_start").toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+            LogRollup minute = readRollup(rs);
+            buckets.computeIfAbsent(bucket, b -> new HashMap<>())
+                    .computeIfAbsent(key(minute.getServiceName(), minute.getClassName(), minute.getMethodName()),
+                            k -> new LogRollup(minute.getServiceName(), minute.getClassName(), minute.getMethodName()))
+                    .merge(minute);
+        }, MINUTE, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return buckets;
+    }
+
+    private void purgeExpiredRollups() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("DELETE FROM system_log_rollups WHERE granularity = ? AND bucket_start < ?",
+                MINUTE, Timestamp.valueOf(now.minusDays(minuteRetentionDays)));
+        jdbcTemplate.update("DELETE FROM system_log_rollups WHERE granularity = ? AND bucket_start < ?",
+                HOUR, Timestamp.valueOf(now.minusDays(hourRetentionDays)));
+    }
+
+    private void store(String granularity, Map<LocalDateTime, Map<String, LogRollup>> buckets, LocalDateTime rolledUntil) {
+        upsert(granularity, buckets);
+        jdbcTemplate.update(UPSERT_WATERMARK_SQL, granularity, Timestamp.valueOf(rolledUntil));
+    }
+
+    private void upsert(String granularity, Map<LocalDateTime, Map<String, LogRollup>> buckets) {
+        List<Object[]> rows = new ArrayList<>();
+        buckets.forEach((bucket, rollups) -> rollups.values().forEach(rollup -> rows.add(new Object[]{
+                granularity, Timestamp.valueOf(bucket), rollup.getServiceName(), rollup.getClassName(),
+                rollup.getMethodName(), rollup.getCallCount(), rollup.getErrorCount(), rollup.getSumMs(),
+                rollup.getMinMs(), rollup.getMaxMs(), rollup.getSketch().toBytes()})));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ROLLUP_SQL, rows);
+        }
+    }
+
+    private void mergeRollups(Map<String, LogRollup> merged, String granularity, String serviceName,
+                              LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        String sql = serviceName != null ? SELECT_ROLLUPS_SQL + " AND service_name = ?" : SELECT_ROLLUPS_SQL;
+        Object[] args = serviceName != null
+                ? new Object[]{granularity, Timestamp.valueOf(from), Timestamp.valueOf(to), serviceName}
+                : new Object[]{granularity, Timestamp.valueOf(from), Timestamp.valueOf(to)};
+        jdbcTemplate.query(sql, rs -> {
+            LogRollup rollup = readRollup(rs);
+            merged.merge(key(rollup.getServiceName(), rollup.getClassName(), rollup.getMethodName()), rollup,
+                    (existing, added) -> {
+                        existing.merge(added);
+                        return existing;
+                    });
+        }, args);
+    }
+
+    private LocalDateTime watermark(String granularity) {
+        List<Timestamp> watermark = jdbcTemplate.queryForList(
+                "SELECT rolled_until FROM system_log_rollup_watermarks WHERE granularity = ?", Timestamp.class, granularity);
+        return watermark.isEmpty() ? null : watermark.get(0).toLocalDateTime();
+    }
+
+    private static LogRollup readRollup(ResultSet rs) throws SQLException {
+        return LogRollup.restore(rs.getString("service_name"), rs.getString("class_name"), rs.getString("method_name"),
+                rs.getLong("call_count"), rs.getLong("error_count"), rs.getLong("sum_ms"), rs.getLong("min_ms"),
+                rs.getLong("max_ms"), rs.getBytes("latency_sketch"));
+    }
+
+    private static String key(String serviceName, String className, String methodName) {
+        return serviceName + '|' + className + '|' + methodName;
+    }
+
+    private static LocalDateTime truncateUp(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime truncated = time.truncatedTo(unit);
+        return truncated.equals(time) ? truncated : truncated.plus(1, unit);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,81 @@
+package com.kafka.admin.controller;
+
+import com.kafka.admin.service.SystemLogRollupService;
+import com.kafka.shared.dto.ApiResponse;
+import com.kafka.shared.dto.CursorPage;
+import com.kafka.shared.dto.SystemLog;
+import com.kafka.shared.repository.ExceptionFingerprintRepository;
+import com.kafka.shared.repository.LogCursor;
+import com.kafka.shared.repository.SystemLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LogControllerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 5, 1, 12, 0);
+
+    private final SystemLogRepository repository = mock(SystemLogRepository.class);
+    private final LogController controller = new LogController(repository, mock(ExceptionFingerprintRepository.class),
+            mock(SystemLogRollupService.class));
+
+    @Test
+    void fetchesOneExtraRowToDetectTheNextPageAndCursorsPastTheLastReturnedRow() {
+        when(repository.findPageAfter(eq("cbi-service"), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(Limit.of(3)))).thenReturn(rows(10, 9, 8));
+
+        CursorPage<SystemLog> page = controller.getLogs(null, 2, "cbi-service", null, null, null).getData();
+
+        assertThat(page.getContent()).extracting(SystemLog::getId).containsExactly(10L, 9L);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(LogCursor.decode(page.getNextCursor())).isEqualTo(new LogCursor(NOW.minusSeconds(9), 9L));
+    }
+
+    @Test
+    void continuesAfterTheDecodedCursorAndEndsOnAShortPage() {
+        LogCursor cursor = new LogCursor(NOW.minusSeconds(9), 9L);
+        when(repository.findPageAfter(isNull(), isNull(), isNull(), isNull(), eq(cursor.createdAt()), eq(9L),
+                eq(Limit.of(3)))).thenReturn(rows(8));
+
+        CursorPage<SystemLog> page = controller.getLogs(cursor.encode(), 2, null, null, null, null).getData();
+
+        assertThat(page.getContent()).extracting(SystemLog::getId).containsExactly(8L);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void capsThePageSize() {
+        when(repository.findPageAfter(any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        controller.getLogs(null, 50_000, null, null, null, null);
+
+        verify(repository).findPageAfter(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(1001)));
+    }
+
+    @Test
+    void rejectsAnInvalidCursorWithoutQuerying() {
+        ApiResponse<CursorPage<SystemLog>> response = controller.getLogs("garbage", 20, null, null, null, null);
+
+        assertThat(response.isSuccess()).isFalse();
+        verifyNoInteractions(repository);
+    }
+
+    private static List<SystemLog> rows(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> SystemLog.builder().id(id).createdAt(NOW.minusSeconds(id)).build())
+                .toList();
+    }
+}
@@ -0,0 +1,236 @@
+package com.kafka.admin.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SystemLogRollupServiceTest {
+
+    private final InMemoryLogTables tables = new InMemoryLogTables();
+    // no rollup delay, 24 hours per run, 7 days of raw rows, 14 days of minute rollups
+    private final SystemLogRollupService service = new SystemLogRollupService(tables, 0, 24 * 60, 7, 14, 400);
+
+    @Test
+    void lateRowRecomputesItsMinuteInsteadOfAddingToIt() {
+        LocalDateTime minute = LocalDateTime.now().minusMinutes(30).truncatedTo(ChronoUnit.MINUTES);
+        tables.insert(minute.plusSeconds(5), 100, "INFO", minute.plusSeconds(6));
+        tables.insert(minute.plusSeconds(20), 300, "INFO", minute.plusSeconds(21));
+        service.rollUp();
+        assertThat(summary(minute, minute.plusMinutes(1)).getCallCount()).isEqualTo(2);
+
+        tables.insert(minute.plusSeconds(40), 900, "ERROR", tables.watermarks.get(SystemLogRollupService.MINUTE));
+        service.rollUp();
+        service.rollUp();
+
+        LogRollup rollup = summary(minute, minute.plusMinutes(1));
+        assertThat(rollup.getCallCount()).isEqualTo(3);
+        assertThat(rollup.getErrorCount()).isEqualTo(1);
+        assertThat(rollup.getMaxMs()).isEqualTo(900);
+        assertThat(rollup.getSumMs()).isEqualTo(1300);
+    }
+
+    @Test
+    void lateRowRollsUpAnHourThatWasAlreadyRolledUpAgain() {
+        LocalDateTime hour = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.HOURS);
+        tables.insert(hour.plusMinutes(10), 100, "INFO", hour.plusMinutes(10));
+        tables.insert(hour.plusMinutes(50), 200, "INFO", hour.plusMinutes(50));
+        service.rollUp();
+        assertThat(tables.watermarks).containsKey(SystemLogRollupService.HOUR);
+        assertThat(tables.rollupCalls(SystemLogRollupService.HOUR, hour)).isEqualTo(2);
+
+        tables.insert(hour.plusMinutes(10).plusSeconds(30), 700, "INFO",
+                tables.watermarks.get(SystemLogRollupService.MINUTE));
+        service.rollUp();
+
+        assertThat(tables.rollupCalls(SystemLogRollupService.HOUR, hour)).isEqualTo(3);
+        LogRollup rollup = summary(hour, hour.plusHours(1));
+        assertThat(rollup.getCallCount()).isEqualTo(3);
+        assertThat(rollup.getMaxMs()).isEqualTo(700);
+    }
+
+    @Test
+    void lateRowOlderThanTheRawRetentionLeavesItsMinuteAlone() {
+        LocalDateTime minute = LocalDateTime.now().minusDays(9).truncatedTo(ChronoUnit.MINUTES);
+        // Rolled up while its raw rows existed; their partition has been dropped since.
+        tables.storeRollup(SystemLogRollupService.MINUTE, minute, 2, 500);
+        LocalDateTime watermark = LocalDateTime.now().minusMinutes(5);
+        tables.watermarks.put(SystemLogRollupService.MINUTE, watermark);
+
+        tables.insert(minute.plusSeconds(10), 50, "INFO", watermark);
+        service.rollUp();
+
+        assertThat(tables.rollupCalls(SystemLogRollupService.MINUTE, minute)).isEqualTo(2);
+        assertThat(tables.watermarks.get(SystemLogRollupService.MINUTE)).isAfter(watermark);
+    }
+
+    private LogRollup summary(LocalDateTime from, LocalDateTime to) {
+        Collection<LogRollup> rollups = service.summarize(null, from, to);
+        assertThat(rollups).hasSize(1);
+        return rollups.iterator().next();
+    }
+
+    /**
+     * Just enough of {@code system_logs}, {@code system_log_rollups} and {@code system_log_rollup_watermarks} for
+     * the statements {@link SystemLogRollupService} issues.
+     */
+    private static final class InMemoryLogTables extends JdbcTemplate {
+
+        private static final String SERVICE = "cbi-service";
+        private static final String CLASS = "ServiceCallExecutor";
+        private static final String METHOD = "execute";
+
+        private final List<Map<String, Object>> logs = new ArrayList<>();
+        private final Map<List<Object>, Map<String, Object>> rollups = new LinkedHashMap<>();
+        private final Map<String, LocalDateTime> watermarks = new HashMap<>();
+
+        void insert(LocalDateTime createdAt, long executionTimeMs, String logLevel, LocalDateTime ingestedAt) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("service_name", SERVICE);
+            row.put("class_name", CLASS);
+            row.put("method_name", METHOD);
+            row.put("log_level", logLevel);
+            row.put("execution_time_ms", executionTimeMs);
+            row.put("created_at", Timestamp.valueOf(createdAt));
+            row.put("ingested_at", Timestamp.valueOf(ingestedAt));
+            logs.add(row);
+        }
+
+        void storeRollup(String granularity, LocalDateTime bucket, long calls, long executionTimeMs) {
+            LogRollup rollup = new LogRollup(SERVICE, CLASS, METHOD);
+            for (int i = 0; i < calls; i++) {
+                rollup.add(executionTimeMs, false);
+            }
+            batchUpdate("INSERT INTO system_log_rollups", List.<Object[]>of(new Object[]{granularity,
+                    Timestamp.valueOf(bucket), SERVICE, CLASS, METHOD, rollup.getCallCount(), rollup.getErrorCount(),
+                    rollup.getSumMs(), rollup.getMinMs(), rollup.getMaxMs(), rollup.getSketch().toBytes()}));
+        }
+
+        long rollupCalls(String granularity, LocalDateTime bucket) {
+            Map<String, Object> row = rollups.get(List.of(granularity, Timestamp.valueOf(bucket), SERVICE, CLASS, METHOD));
+            return row != null ? (long) row.get("call_count") : 0;
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            // SELECT MIN(ingested_at) FROM system_logs
+            return requiredType.cast(logs.stream()
+                    .map(row -> (Timestamp) row.get("ingested_at"))
+                    .min(Timestamp::compareTo)
+                    .orElse(null));
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            // SELECT MIN(bucket_start) FROM system_log_rollups WHERE granularity = ?
+            return requiredType.cast(rollups.values().stream()
+                    .filter(row -> row.get("granularity").equals(args[0]))
+                    .map(row -> (Timestamp) row.get("bucket_start"))
+                    .min(Timestamp::compareTo)
+                    .orElse(null));
+        }
+
+        @Override
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            // SELECT rolled_until FROM system_log_rollup_watermarks WHERE granularity = ?
+            LocalDateTime watermark = watermarks.get((String) args[0]);
+            return watermark == null ? List.of() : List.of(elementType.cast(Timestamp.valueOf(watermark)));
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler, Object... args) {
+            try {
+                if (sql.startsWith("SELECT DISTINCT created_at")) {
+                    List<Timestamp> createdAt = logs.stream()
+                            .filter(between("ingested_at", args[0], args[1]))
+                            .map(row -> (Timestamp) row.get("created_at"))
+                            .distinct()
+                            .toList();
+                    for (Timestamp timestamp : createdAt) {
+                        handler.processRow(resultSet(Map.of("created_at", timestamp)));
+                    }
+                } else if (sql.contains("FROM system_logs")) {
+                    for (Map<String, Object> row : logs.stream().filter(between("created_at", args[0], args[1])).toList()) {
+                        handler.processRow(resultSet(row));
+                    }
+                } else {
+                    List<Map<String, Object>> rows = rollups.values().stream()
+                            .filter(row -> row.get("granularity").equals(args[0]))
+                            .filter(between("bucket_start", args[1], args[2]))
+                            .filter(row -> args.length < 4 || row.get("service_name").equals(args[3]))
+                            .toList();
+                    for (Map<String, Object> row : rows) {
+                        handler.processRow(resultSet(row));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            // INSERT INTO system_log_rollups ... ON DUPLICATE KEY UPDATE
+            String[] columns = {"granularity", "bucket_start", "service_name", "class_name", "method_name",
+                    "call_count", "error_count", "sum_ms", "min_ms", "max_ms", "latency_sketch"};
+            for (Object[] args : batchArgs) {
+                Map<String, Object> row = new HashMap<>();
+                for (int i = 0; i < columns.length; i++) {
+                    row.put(columns[i], args[i]);
+                }
+                rollups.put(List.of(args[0], args[1], args[2], args[3], args[4]), row);
+            }
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT INTO system_log_rollup_watermarks")) {
+                watermarks.put((String) args[0], ((Timestamp) args[1]).toLocalDateTime());
+                return 1;
+            }
+            // DELETE FROM system_log_rollups WHERE granularity = ? AND bucket_start < ?
+            int before = rollups.size();
+            rollups.values().removeIf(row -> row.get("granularity").equals(args[0])
+                    && ((Timestamp) row.get("bucket_start")).before((Timestamp) args[1]));
+            return before - rollups.size();
+        }
+
+        private static Predicate<Map<String, Object>> between(String column, Object from, Object to) {
+            return row -> {
+                Timestamp value = (Timestamp) row.get(column);
+                return !value.before((Timestamp) from) && value.before((Timestamp) to);
+            };
+        }
+
+        private static ResultSet resultSet(Map<String, Object> row) throws SQLException {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getTimestamp(anyInt())).thenAnswer(invocation -> row.get("created_at"));
+            when(rs.getTimestamp(anyString())).thenAnswer(invocation -> row.get(invocation.<String>getArgument(0)));
+            when(rs.getString(anyString())).thenAnswer(invocation -> row.get(invocation.<String>getArgument(0)));
+            when(rs.getLong(anyString())).thenAnswer(invocation ->
+                    ((Number) Objects.requireNonNull(row.get(invocation.<String>getArgument(0)))).longValue());
+            when(rs.getBytes(anyString())).thenAnswer(invocation -> row.get(invocation.<String>getArgument(0)));
+            return rs;
+        }
+    }
+}
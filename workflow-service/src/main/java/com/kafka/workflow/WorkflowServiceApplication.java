@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"com.kafka.workflow", "com.kafka.shared"})
 @EnableJpaRepositories(basePackages = {"com.kafka.workflow", "com.kafka.shared"})
 @EntityScan(basePackages = {"com.kafka.workflow", "com.kafka.shared"})
+@EnableScheduling
 public class WorkflowServiceApplication {
 
     public static void main(String[] args) {
@@ -3,14 +3,18 @@ package com.kafka.workflow.controller;
 import com.kafka.shared.annotation.LogExecution;
 import com.kafka.shared.dto.ApiResponse;
 import com.kafka.shared.dto.WorkflowDefinition;
+import com.kafka.workflow.dto.BulkExecutionStatus;
 import com.kafka.workflow.dto.WorkflowInstance;
+import com.kafka.workflow.plan.InvalidWorkflowDefinitionException;
 import com.kafka.workflow.repository.WorkflowInstanceRepository;
+import com.kafka.workflow.service.BulkExecutionService;
 import com.kafka.workflow.service.WorkflowDefinitionService;
 import com.kafka.workflow.service.WorkflowEngine;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +28,7 @@ public class WorkflowController {
     private final WorkflowEngine workflowEngine;
     private final WorkflowDefinitionService workflowDefinitionService;
     private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final BulkExecutionService bulkExecutionService;
 
     @PostMapping("/execute/{definitionId}")
     @LogExecution
@@ -33,8 +38,7 @@ public class WorkflowController {
 
         WorkflowDefinition definition = workflowDefinitionService.getById(definitionId);
         WorkflowInstance instance = workflowEngine.executeWorkflow(definition, contextData);
-        workflowInstanceRepository.save(instance);
-        return ApiResponse.success("Workflow executed successfully", instance);
+        return ApiResponse.success("Workflow execution started", instance);
     }
 
     @PostMapping("/execute-by-name/{workflowName}")
@@ -45,8 +49,40 @@ public class WorkflowController {
 
         WorkflowDefinition definition = workflowDefinitionService.getByName(workflowName);
         WorkflowInstance instance = workflowEngine.executeWorkflow(definition, contextData);
-        workflowInstanceRepository.save(instance);
-        return ApiResponse.success("Workflow executed successfully", instance);
+        return ApiResponse.success("Workflow execution started", instance);
+    }
+
+    /**
+     * Start one instance per line of an NDJSON body ({@code application/x-ndjson}, one context object per line).
+     * Returns when the body has been read; follow the remaining instances with {@code GET /bulk/{jobId}}.
+     */
+    @PostMapping("/execute/{definitionId}/bulk")
+    @LogExecution
+    public ApiResponse<BulkExecutionStatus> executeWorkflowBulk(
+            @PathVariable Long definitionId,
+            InputStream contexts) {
+
+        WorkflowDefinition definition = workflowDefinitionService.getById(definitionId);
+        try {
+            BulkExecutionStatus status = bulkExecutionService.execute(definition, contexts);
+            return ApiResponse.success("Bulk workflow execution started", status);
+        } catch (InvalidWorkflowDefinitionException e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/bulk")
+    @LogExecution
+    public ApiResponse<List<BulkExecutionStatus>> getBulkExecutions() {
+        return ApiResponse.success("Bulk executions retrieved", bulkExecutionService.getJobs());
+    }
+
+    @GetMapping("/bulk/{jobId}")
+    @LogExecution
+    public ApiResponse<BulkExecutionStatus> getBulkExecution(@PathVariable String jobId) {
+        BulkExecutionStatus status = bulkExecutionService.getStatus(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Bulk execution not found: " + jobId));
+        return ApiResponse.success("Bulk execution retrieved successfully", status);
     }
 
     @GetMapping("/definitions")
@@ -81,8 +117,12 @@ public class WorkflowController {
     @PostMapping("/definitions")
     @LogExecution
     public ApiResponse<WorkflowDefinition> createWorkflowDefinition(@Valid @RequestBody WorkflowDefinition definition) {
-        WorkflowDefinition created = workflowDefinitionService.create(definition);
-        return ApiResponse.success("Workflow definition created successfully", created);
+        try {
+            WorkflowDefinition created = workflowDefinitionService.create(definition);
+            return ApiResponse.success("Workflow definition created successfully", created);
+        } catch (InvalidWorkflowDefinitionException e) {
+            return ApiResponse.error(e.getMessage());
+        }
     }
 
     @PutMapping("/definitions/{id}")
@@ -91,8 +131,12 @@ public class WorkflowController {
             @PathVariable Long id,
             @Valid @RequestBody WorkflowDefinition definition) {
 
-        WorkflowDefinition updated = workflowDefinitionService.update(id, definition);
-        return ApiResponse.success("Workflow definition updated successfully", updated);
+        try {
+            WorkflowDefinition updated = workflowDefinitionService.update(id, definition);
+            return ApiResponse.success("Workflow definition updated successfully", updated);
+        } catch (InvalidWorkflowDefinitionException e) {
+            return ApiResponse.error(e.getMessage());
+        }
     }
 
     @PatchMapping("/definitions/{id}/status")
@@ -0,0 +1,31 @@
+package com.kafka.workflow.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a bulk execution job.
+ *
+ * @param accepted          NDJSON lines persisted as instances
+ * @param rejected          lines that were not valid JSON objects or could not be persisted
+ * @param suspended         instances that paused at a delay or a service call and continue on their own
+ * @param ingestPerSecond   accepted lines per second while the input was read
+ * @param settledPerSecond  instances completed, failed or suspended per second since the job started
+ * @param errors            the first rejected lines and their reasons
+ */
+public record BulkExecutionStatus(String jobId, Long definitionId, State state, long accepted, long rejected,
+                                  long completed, long failed, long suspended, LocalDateTime startedAt,
+                                  LocalDateTime inputCompletedAt, LocalDateTime finishedAt, double ingestPerSecond,
+                                  double settledPerSecond, String abortReason, List<String> errors) {
+
+    public enum State {
+        /** Still reading the request body. */
+        RECEIVING,
+        /** Input read; accepted instances are still running. */
+        RUNNING,
+        /** Every accepted instance has settled. */
+        DONE,
+        /** Reading or persisting stopped early; instances already accepted still run. */
+        ABORTED
+    }
+}
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "workflow_instances")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class WorkflowInstance {
@@ -33,6 +33,10 @@ public class WorkflowInstance {
     @Column(name = "current_step")
     private String currentStep;
 
+    /** {@link com.kafka.workflow.plan.WorkflowPlan#revision()} of the definition the instance started with. */
+    @Column(name = "definition_revision", length = 32)
+    private String definitionRevision;
+
     @Column(name = "context_data", columnDefinition = "TEXT")
     private String contextData;
 
@@ -51,6 +55,22 @@ public class WorkflowInstance {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    /** Plan step to continue with when a paused instance resumes. */
+    @Column(name = "next_step_index")
+    private Integer nextStepIndex;
+
+    /** When a paused instance is due to resume. */
+    @Column(name = "resume_at")
+    private LocalDateTime resumeAt;
+
+    /** Correlation id of the service call whose reply a paused instance waits for. */
+    @Column(name = "correlation_id", length = 64, unique = true)
+    private String correlationId;
+
+    /** Last time a node recorded progress of this instance; a RUNNING instance stale for too long crashed. */
+    @Column(name = "checkpointed_at")
+    private LocalDateTime checkpointedAt;
+
     @PrePersist
     protected void onCreate() {
         startedAt = LocalDateTime.now();
@@ -0,0 +1,21 @@
+package com.kafka.workflow.plan;
+
+import java.util.List;
+
+/**
+ * A workflow definition whose JSON cannot be compiled into a {@link WorkflowPlan}; carries every problem
+ * found, not just the first.
+ */
+public class InvalidWorkflowDefinitionException extends IllegalArgumentException {
+
+    private final List<String> errors;
+
+    public InvalidWorkflowDefinitionException(List<String> errors) {
+        super("Invalid workflow definition: " + String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
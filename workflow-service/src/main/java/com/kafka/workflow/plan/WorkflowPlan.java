@@ -0,0 +1,35 @@
+package com.kafka.workflow.plan;
+
+import com.kafka.shared.dto.WorkflowDefinition;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Immutable, validated execution plan of one revision of a workflow definition, identified by the
+ * definition's id, version and last update time. {@code revision} is a checksum of the version and the
+ * definition JSON: step indexes stored on an instance are only meaningful in a plan of the same revision.
+ */
+public record WorkflowPlan(Long definitionId, String version, LocalDateTime updatedAt, String revision,
+                           List<WorkflowStep> steps) {
+
+    public WorkflowPlan {
+        steps = List.copyOf(steps);
+    }
+
+    public static String revisionOf(WorkflowDefinition definition) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(definition.getVersion()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(definition.getDefinitionJson()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
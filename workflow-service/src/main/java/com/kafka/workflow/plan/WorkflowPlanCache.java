@@ -0,0 +1,50 @@
+package com.kafka.workflow.plan;
+
+import com.kafka.shared.dto.WorkflowDefinition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled plans by definition id. A cached plan is reused only while the definition's version and
+ * {@code updatedAt} still match it, so a definition edited elsewhere is recompiled on its next execution;
+ * {@link com.kafka.workflow.service.WorkflowDefinitionService} also evicts plans when it changes a definition.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WorkflowPlanCache {
+
+    private final WorkflowPlanCompiler compiler;
+    private final Map<Long, WorkflowPlan> plans = new ConcurrentHashMap<>();
+
+    public WorkflowPlan planFor(WorkflowDefinition definition) {
+        if (definition.getId() == null) {
+            return compiler.compile(definition);
+        }
+        WorkflowPlan cached = plans.get(definition.getId());
+        if (cached != null && isCurrent(cached, definition)) {
+            return cached;
+        }
+        WorkflowPlan plan = compiler.compile(definition);
+        plans.put(definition.getId(), plan);
+        log.debug("Compiled workflow definition {} version {} ({} steps)",
+                definition.getId(), definition.getVersion(), plan.steps().size());
+        return plan;
+    }
+
+    public void invalidate(Long definitionId) {
+        if (definitionId != null) {
+            plans.remove(definitionId);
+        }
+    }
+
+    private static boolean isCurrent(WorkflowPlan plan, WorkflowDefinition definition) {
+        return Objects.equals(plan.version(), definition.getVersion())
+                && Objects.equals(plan.updatedAt(), definition.getUpdatedAt());
+    }
+}
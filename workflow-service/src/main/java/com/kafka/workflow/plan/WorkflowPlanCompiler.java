@@ -0,0 +1,294 @@
+package com.kafka.workflow.plan;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.dto.WorkflowDefinition;
+import com.kafka.workflow.plan.expression.Expression;
+import com.kafka.workflow.plan.expression.ExpressionException;
+import com.kafka.workflow.plan.expression.ExpressionParser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles the {@code definitionJson} of a workflow definition into a {@link WorkflowPlan}.
+ * <p>
+ * Required fields must be present and non-blank, numbers must be numbers, cron expressions must parse and
+ * step names must be unique. Condition expressions are parsed into evaluator trees (see
+ * {@link ExpressionParser}) and their {@code trueStep}/{@code falseStep} must name a step of the same step
+ * list, which the engine jumps to; a blank target continues with the next step. Optional fields get the same
+ * defaults the engine always applied. All problems are collected and reported together in an
+ * {@link InvalidWorkflowDefinitionException}.
+ * <p>
+ * A {@code parallel} step forks into {@code branches}, each an object with its own {@code steps} array and
+ * optional {@code name} and {@code timeoutMs}; the step joins when every branch has finished. Branches may
+ * nest further parallel steps but not pausing {@code delay} steps, since a paused instance resumes at a
+ * top-level step.
+ * <pre>
+ * {"name": "fan-out", "type": "parallel", "branches": [
+ *   {"name": "call", "timeoutMs": 5000, "steps": [{"name": "s1", "type": "service_call", ...}]},
+ *   {"steps": [{"name": "n1", "type": "notification", ...}]}]}
+ * </pre>
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkflowPlanCompiler {
+
+    private final ObjectMapper objectMapper;
+
+    public WorkflowPlan compile(WorkflowDefinition definition) {
+        List<String> errors = new ArrayList<>();
+        JsonNode steps = readSteps(definition.getDefinitionJson(), errors);
+
+        Set<String> names = new HashSet<>();
+        List<WorkflowStep> compiled = steps != null ? compileSteps(steps, "", false, names, errors) : List.of();
+
+        if (!errors.isEmpty()) {
+            throw new InvalidWorkflowDefinitionException(errors);
+        }
+        return new WorkflowPlan(definition.getId(), definition.getVersion(), definition.getUpdatedAt(),
+                WorkflowPlan.revisionOf(definition), compiled);
+    }
+
+    private JsonNode readSteps(String definitionJson, List<String> errors) {
+        if (definitionJson == null || definitionJson.isBlank()) {
+            errors.add("definitionJson is required");
+            return null;
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(definitionJson);
+        } catch (JsonProcessingException e) {
+            errors.add("definitionJson is not valid JSON: " + e.getOriginalMessage());
+            return null;
+        }
+        JsonNode steps = root.get("steps");
+        if (steps == null || steps.isNull()) {
+            // A definition without steps is valid and completes immediately.
+            return objectMapper.createArrayNode();
+        }
+        if (!steps.isArray()) {
+            errors.add("steps must be an array");
+            return null;
+        }
+        return steps;
+    }
+
+    private List<WorkflowStep> compileSteps(JsonNode steps, String path, boolean inBranch, Set<String> names,
+                                            List<String> errors) {
+        List<WorkflowStep> compiled = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            WorkflowStep step = compileStep(steps.get(i), path + i, inBranch, names, errors);
+            if (step != null) {
+                compiled.add(step);
+            }
+        }
+        return resolveJumps(compiled, names, errors);
+    }
+
+    private WorkflowStep compileStep(JsonNode step, String index, boolean inBranch, Set<String> names,
+                                     List<String> errors) {
+        if (!step.isObject()) {
+            errors.add("step " + index + ": must be an object");
+            return null;
+        }
+        StepReader reader = new StepReader(step, "step " + index, errors);
+        String name = reader.required("name");
+        if (name != null) {
+            if (!names.add(name)) {
+                errors.add("step " + index + ": duplicate step name '" + name + "'");
+            }
+            reader = new StepReader(step, "step '" + name + "'", errors);
+        }
+        String type = reader.required("type");
+        if (type == null) {
+            return null;
+        }
+
+        int errorCount = errors.size();
+        WorkflowStep compiled = switch (type) {
+            case "service_call" -> new WorkflowStep.ServiceCall(name,
+                    reader.required("service"), reader.required("endpoint"));
+            case "graphql_call" -> new WorkflowStep.GraphQlCall(name,
+                    reader.optional("service", ""), reader.optional("query", ""));
+            case "schedule_task" -> new WorkflowStep.ScheduleTask(name,
+                    reader.required("task"), reader.cron("cron"));
+            case "data_processing" -> new WorkflowStep.DataProcessing(name,
+                    reader.required("processingType"), reader.positiveInt("batchSize"));
+            case "notification" -> new WorkflowStep.Notification(name,
+                    reader.required("notificationType"), reader.required("message"));
+            case "condition" -> {
+                String condition = reader.required("condition");
+                yield new WorkflowStep.Condition(name, condition, reader.expression(condition),
+                        reader.present("trueStep"), reader.present("falseStep"), -1, -1);
+            }
+            case "delay" -> new WorkflowStep.Delay(name, reader.nonNegativeLong("delayMs"));
+            case "external_event" -> new WorkflowStep.ExternalEvent(name, reader.optional("eventType", "generic"));
+            case "parallel" -> compileParallel(step, name, reader, index, names, errors);
+            default -> {
+                errors.add(reader.location + ": unknown step type '" + type + "'");
+                yield null;
+            }
+        };
+        if (inBranch && compiled instanceof WorkflowStep.Delay delay && delay.delayMs() > 0) {
+            errors.add(reader.location + ": delay steps cannot pause inside a parallel branch");
+        }
+        return name != null && errors.size() == errorCount ? compiled : null;
+    }
+
+    private WorkflowStep.Parallel compileParallel(JsonNode step, String name, StepReader reader, String index,
+                                                  Set<String> names, List<String> errors) {
+        JsonNode branches = step.get("branches");
+        if (branches == null || !branches.isArray() || branches.isEmpty()) {
+            errors.add(reader.location + ": 'branches' must be a non-empty array");
+            return null;
+        }
+        List<WorkflowStep.Branch> compiled = new ArrayList<>();
+        for (int b = 0; b < branches.size(); b++) {
+            JsonNode branch = branches.get(b);
+            String location = reader.location + " branch " + b;
+            JsonNode branchSteps = branch.get("steps");
+            if (!branch.isObject() || branchSteps == null || !branchSteps.isArray()) {
+                errors.add(location + ": must be an object with a 'steps' array");
+                continue;
+            }
+            StepReader branchReader = new StepReader(branch, location, errors);
+            String branchName = branchReader.optional("name", name + "-" + b);
+            long timeoutMs = branchReader.nonNegativeLong("timeoutMs");
+            compiled.add(new WorkflowStep.Branch(branchName, timeoutMs,
+                    compileSteps(branchSteps, index + "." + b + ".", true, names, errors)));
+        }
+        return new WorkflowStep.Parallel(name, compiled);
+    }
+
+    /**
+     * Replace the condition steps of one step list by copies with their jump targets resolved to indexes.
+     */
+    private static List<WorkflowStep> resolveJumps(List<WorkflowStep> steps, Set<String> names,
+                                                   List<String> errors) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < steps.size(); i++) {
+            positions.put(steps.get(i).name(), i);
+        }
+        List<WorkflowStep> resolved = new ArrayList<>(steps.size());
+        for (WorkflowStep step : steps) {
+            if (step instanceof WorkflowStep.Condition condition) {
+                step = new WorkflowStep.Condition(condition.name(), condition.condition(), condition.expression(),
+                        condition.trueStep(), condition.falseStep(),
+                        jumpTarget(condition, condition.trueStep(), positions, names, errors),
+                        jumpTarget(condition, condition.falseStep(), positions, names, errors));
+            }
+            resolved.add(step);
+        }
+        return resolved;
+    }
+
+    private static int jumpTarget(WorkflowStep.Condition condition, String target, Map<String, Integer> positions,
+                                  Set<String> names, List<String> errors) {
+        if (target == null || target.isBlank()) {
+            return -1;
+        }
+        Integer position = positions.get(target);
+        if (position != null) {
+            return position;
+        }
+        errors.add("step '" + condition.name() + "': branch target '" + target + "' is "
+                + (names.contains(target) ? "not in the same step list" : "not a step"));
+        return -1;
+    }
+
+    private record StepReader(JsonNode step, String location, List<String> errors) {
+
+        String required(String field) {
+            JsonNode value = step.get(field);
+            if (value == null || value.isNull() || !value.isValueNode() || value.asText().isBlank()) {
+                errors.add(location + ": '" + field + "' is required");
+                return null;
+            }
+            return value.asText();
+        }
+
+        /** Must be present, but may be blank. */
+        String present(String field) {
+            JsonNode value = step.get(field);
+            if (value == null || value.isNull() || !value.isValueNode()) {
+                errors.add(location + ": '" + field + "' is required");
+                return null;
+            }
+            return value.asText();
+        }
+
+        String optional(String field, String defaultValue) {
+            JsonNode value = step.get(field);
+            return value == null || value.isNull() ? defaultValue : value.asText();
+        }
+
+        String cron(String field) {
+            String expression = required(field);
+            if (expression != null && !CronExpression.isValidExpression(expression)) {
+                errors.add(location + ": '" + field + "' is not a valid cron expression: " + expression);
+            }
+            return expression;
+        }
+
+        Expression expression(String source) {
+            if (source == null) {
+                return null;
+            }
+            try {
+                return ExpressionParser.parse(source);
+            } catch (ExpressionException e) {
+                errors.add(location + ": invalid condition: " + e.getMessage());
+                return null;
+            }
+        }
+
+        int positiveInt(String field) {
+            Long value = integer(step.get(field));
+            if (value == null || value <= 0 || value > Integer.MAX_VALUE) {
+                errors.add(location + ": '" + field + "' must be a positive integer");
+                return 0;
+            }
+            return value.intValue();
+        }
+
+        long nonNegativeLong(String field) {
+            JsonNode node = step.get(field);
+            if (node == null || node.isNull()) {
+                return 0;
+            }
+            Long value = integer(node);
+            if (value == null || value < 0) {
+                errors.add(location + ": '" + field + "' must be a non-negative integer");
+                return 0;
+            }
+            return value;
+        }
+
+        /** Integral numbers, also when sent as strings by form inputs; {@code null} otherwise. */
+        private static Long integer(JsonNode value) {
+            if (value == null) {
+                return null;
+            }
+            if (value.isIntegralNumber() && value.canConvertToLong()) {
+                return value.asLong();
+            }
+            if (value.isTextual()) {
+                try {
+                    return Long.parseLong(value.asText().trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
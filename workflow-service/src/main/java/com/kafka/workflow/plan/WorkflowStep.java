@@ -0,0 +1,94 @@
+package com.kafka.workflow.plan;
+
+import com.kafka.workflow.plan.expression.Expression;
+
+import java.util.List;
+
+/**
+ * One compiled step of a {@link WorkflowPlan}. Each step type of the definition JSON maps to one record
+ * whose fields have already been read and validated by {@link WorkflowPlanCompiler}.
+ */
+public sealed interface WorkflowStep {
+
+    String name();
+
+    String type();
+
+    record ServiceCall(String name, String service, String endpoint) implements WorkflowStep {
+        public String type() {
+            return "service_call";
+        }
+    }
+
+    record GraphQlCall(String name, String service, String query) implements WorkflowStep {
+        public String type() {
+            return "graphql_call";
+        }
+    }
+
+    record ScheduleTask(String name, String task, String cron) implements WorkflowStep {
+        public String type() {
+            return "schedule_task";
+        }
+    }
+
+    record DataProcessing(String name, String processingType, int batchSize) implements WorkflowStep {
+        public String type() {
+            return "data_processing";
+        }
+    }
+
+    record Notification(String name, String notificationType, String message) implements WorkflowStep {
+        public String type() {
+            return "notification";
+        }
+    }
+
+    /**
+     * {@code expression} is the compiled {@code condition}. {@code trueIndex} and {@code falseIndex} are the
+     * positions of {@code trueStep} and {@code falseStep} in the step list holding the condition; -1 (a blank
+     * target) continues with the next step.
+     */
+    record Condition(String name, String condition, Expression expression, String trueStep, String falseStep,
+                     int trueIndex, int falseIndex) implements WorkflowStep {
+        public int next(boolean result) {
+            return result ? trueIndex : falseIndex;
+        }
+
+        public String type() {
+            return "condition";
+        }
+    }
+
+    record Delay(String name, long delayMs) implements WorkflowStep {
+        public String type() {
+            return "delay";
+        }
+    }
+
+    record ExternalEvent(String name, String eventType) implements WorkflowStep {
+        public String type() {
+            return "external_event";
+        }
+    }
+
+    /**
+     * Fork/join block: the branches run concurrently and the step completes when all of them have.
+     * A branch {@code timeoutMs} of 0 means the engine default.
+     */
+    record Parallel(String name, List<Branch> branches) implements WorkflowStep {
+        public Parallel {
+            branches = List.copyOf(branches);
+        }
+
+        public String type() {
+            return "parallel";
+        }
+    }
+
+    record Branch(String name, long timeoutMs, List<WorkflowStep> steps) {
+        public Branch {
+            steps = List.copyOf(steps);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.kafka.workflow.plan.expression;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A compiled condition expression: an immutable evaluator tree built once by {@link ExpressionParser} and
+ * safe to share between threads.
+ * <p>
+ * Comparisons and boolean logic over paths and literals allocate nothing: paths return the objects already in
+ * the context, literals are boxed once at compile time and results are the shared {@link Boolean} constants.
+ * Arithmetic and string functions allocate their results.
+ */
+public interface Expression {
+
+    /**
+     * @param context the workflow context; missing paths evaluate to {@code null}
+     */
+    Object evaluate(Map<String, Object> context);
+
+    default boolean test(Map<String, Object> context) {
+        return truthy(evaluate(context));
+    }
+
+    /**
+     * {@code null}, {@code false}, zero, empty strings and empty collections are false; everything else is true.
+     */
+    static boolean truthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        if (value instanceof CharSequence text) {
+            return !text.isEmpty();
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return !map.isEmpty();
+        }
+        return true;
+    }
+}
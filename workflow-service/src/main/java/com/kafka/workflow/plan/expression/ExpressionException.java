@@ -0,0 +1,18 @@
+package com.kafka.workflow.plan.expression;
+
+/**
+ * An expression that does not parse; {@link #getPosition()} is the offending character offset.
+ */
+public class ExpressionException extends IllegalArgumentException {
+
+    private final int position;
+
+    public ExpressionException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
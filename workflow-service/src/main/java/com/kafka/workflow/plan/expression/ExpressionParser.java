@@ -0,0 +1,456 @@
+package com.kafka.workflow.plan.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Recursive-descent parser for condition expressions over the workflow context.
+ * <p>
+ * Precedence from loosest to tightest: {@code ||}/{@code or}, {@code &&}/{@code and}, {@code !}/{@code not},
+ * comparisons ({@code == != < <= > >=}), {@code + -}, {@code * / %}, unary minus. Operands are numbers,
+ * single- or double-quoted strings, {@code true}, {@code false}, {@code null}, function calls and paths such
+ * as {@code order.items[0].price} or {@code customer?.tier}. Every path step is null-safe, {@code ?.} is
+ * accepted as a synonym of {@code .}, and a leading {@code context} names the context itself, so
+ * {@code context.flag} and {@code flag} are the same path.
+ * <p>
+ * Sub-expressions made only of literals are folded at parse time.
+ */
+public final class ExpressionParser {
+
+    private final String source;
+    private int pos;
+
+    private ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    public static Expression parse(String source) {
+        if (source == null || source.isBlank()) {
+            throw new ExpressionException("Empty expression", 0);
+        }
+        ExpressionParser parser = new ExpressionParser(source);
+        Expression expression = parser.or();
+        parser.skipWhitespace();
+        if (parser.pos < source.length()) {
+            throw parser.error("Unexpected '" + source.charAt(parser.pos) + "'");
+        }
+        return expression;
+    }
+
+    private Expression or() {
+        Expression left = and();
+        while (operator("||") || keyword("or")) {
+            left = fold(new Nodes.Or(left, and()));
+        }
+        return left;
+    }
+
+    private Expression and() {
+        Expression left = not();
+        while (operator("&&") || keyword("and")) {
+            left = fold(new Nodes.And(left, not()));
+        }
+        return left;
+    }
+
+    private Expression not() {
+        skipWhitespace();
+        if (peek() == '!' && peek(1) != '=') {
+            pos++;
+            return fold(new Nodes.Not(not()));
+        }
+        if (keyword("not")) {
+            return fold(new Nodes.Not(not()));
+        }
+        return comparison();
+    }
+
+    private Expression comparison() {
+        Expression left = additive();
+        Nodes.Comparison comparison = comparisonOperator();
+        if (comparison == null) {
+            return left;
+        }
+        Expression result = fold(new Nodes.Compare(comparison, left, additive()));
+        if (comparisonOperator() != null) {
+            throw error("Comparisons cannot be chained");
+        }
+        return result;
+    }
+
+    private Nodes.Comparison comparisonOperator() {
+        if (operator("==")) {
+            return Nodes.Comparison.EQ;
+        }
+        if (operator("!=")) {
+            return Nodes.Comparison.NE;
+        }
+        if (operator("<=")) {
+            return Nodes.Comparison.LE;
+        }
+        if (operator(">=")) {
+            return Nodes.Comparison.GE;
+        }
+        if (operator("<")) {
+            return Nodes.Comparison.LT;
+        }
+        if (operator(">")) {
+            return Nodes.Comparison.GT;
+        }
+        return null;
+    }
+
+    private Expression additive() {
+        Expression left = multiplicative();
+        while (true) {
+            if (operator("+")) {
+                left = fold(new Nodes.Arithmetic(Nodes.Operator.ADD, left, multiplicative()));
+            } else if (operator("-")) {
+                left = fold(new Nodes.Arithmetic(Nodes.Operator.SUBTRACT, left, multiplicative()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression multiplicative() {
+        Expression left = unary();
+        while (true) {
+            if (operator("*")) {
+                left = fold(new Nodes.Arithmetic(Nodes.Operator.MULTIPLY, left, unary()));
+            } else if (operator("/")) {
+                left = fold(new Nodes.Arithmetic(Nodes.Operator.DIVIDE, left, unary()));
+            } else if (operator("%")) {
+                left = fold(new Nodes.Arithmetic(Nodes.Operator.REMAINDER, left, unary()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression unary() {
+        if (operator("-")) {
+            return fold(new Nodes.Negate(unary()));
+        }
+        return primary();
+    }
+
+    private Expression primary() {
+        skipWhitespace();
+        if (pos >= source.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = source.charAt(pos);
+        if (c == '(') {
+            pos++;
+            Expression inner = or();
+            expect(')');
+            return inner;
+        }
+        if (c == '\'' || c == '"') {
+            return new Nodes.Literal(string(c));
+        }
+        if (Character.isDigit(c) || (c == '.' && Character.isDigit(peek(1)))) {
+            return new Nodes.Literal(number());
+        }
+        if (Character.isJavaIdentifierStart(c)) {
+            int start = pos;
+            String name = identifier();
+            switch (name) {
+                case "true":
+                    return new Nodes.Literal(Boolean.TRUE);
+                case "false":
+                    return new Nodes.Literal(Boolean.FALSE);
+                case "null":
+                    return new Nodes.Literal(null);
+                default:
+                    skipWhitespace();
+                    if (peek() == '(') {
+                        pos++;
+                        return call(name, start);
+                    }
+                    return path(name);
+            }
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private Expression path(String first) {
+        List<Object> segments = new ArrayList<>();
+        if (!first.equals("context")) {
+            segments.add(first);
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() == '?' && peek(1) == '.') {
+                pos += 2;
+                skipWhitespace();
+                segments.add(identifier());
+            } else if (peek() == '.') {
+                pos++;
+                skipWhitespace();
+                segments.add(identifier());
+            } else if (peek() == '[') {
+                pos++;
+                skipWhitespace();
+                char c = peek();
+                if (c == '\'' || c == '"') {
+                    segments.add(string(c));
+                } else if (Character.isDigit(c)) {
+                    Object index = number();
+                    if (!(index instanceof Long value) || value > Integer.MAX_VALUE) {
+                        throw error("Invalid index");
+                    }
+                    segments.add(value.intValue());
+                } else {
+                    throw error("Expected a quoted key or an index");
+                }
+                expect(']');
+            } else {
+                return new Nodes.Path(segments.toArray());
+            }
+        }
+    }
+
+    private Expression call(String name, int start) {
+        List<Expression> args = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ')') {
+            pos++;
+        } else {
+            do {
+                args.add(or());
+            } while (operator(","));
+            expect(')');
+        }
+        Expression[] a = args.toArray(new Expression[0]);
+        switch (name) {
+            case "abs":
+                return unary(name, a, start, v -> number(v, Math::abs));
+            case "floor":
+                return unary(name, a, start, v -> number(v, Math::floor));
+            case "ceil":
+                return unary(name, a, start, v -> number(v, Math::ceil));
+            case "round":
+                return unary(name, a, start, v -> number(v, x -> (double) Math.round(x)));
+            case "lower":
+                return unary(name, a, start, v -> v == null ? null : v.toString().toLowerCase(Locale.ROOT));
+            case "upper":
+                return unary(name, a, start, v -> v == null ? null : v.toString().toUpperCase(Locale.ROOT));
+            case "trim":
+                return unary(name, a, start, v -> v == null ? null : v.toString().trim());
+            case "length":
+                return unary(name, a, start, v -> (long) Values.length(v));
+            case "number":
+                return unary(name, a, start, v -> number(v, x -> x));
+            case "string":
+                return unary(name, a, start, Values::string);
+            case "exists":
+                return unary(name, a, start, v -> v != null ? Boolean.TRUE : Boolean.FALSE);
+            case "empty":
+                return unary(name, a, start, v -> Expression.truthy(v) ? Boolean.FALSE : Boolean.TRUE);
+            case "contains":
+                return binary(name, a, start, (c, e) -> Values.contains(c, e) ? Boolean.TRUE : Boolean.FALSE);
+            case "startsWith":
+                return binary(name, a, start, (s, p) -> s != null && p != null
+                        && s.toString().startsWith(p.toString()) ? Boolean.TRUE : Boolean.FALSE);
+            case "endsWith":
+                return binary(name, a, start, (s, p) -> s != null && p != null
+                        && s.toString().endsWith(p.toString()) ? Boolean.TRUE : Boolean.FALSE);
+            case "matches":
+                return matches(a, start);
+            case "coalesce":
+                arity(name, a, 1, start);
+                return new Nodes.Coalesce(a);
+            case "min":
+            case "max":
+                arity(name, a, 1, start);
+                return fold(new Nodes.Extremum(name.equals("max"), a), a);
+            default:
+                throw new ExpressionException("Unknown function '" + name + "'", start);
+        }
+    }
+
+    private Expression unary(String name, Expression[] args, int start, Function<Object, Object> function) {
+        if (args.length != 1) {
+            throw new ExpressionException(name + "() takes 1 argument", start);
+        }
+        return fold(new Nodes.Call1(name, function, args[0]), args);
+    }
+
+    private Expression binary(String name, Expression[] args, int start,
+                              BiFunction<Object, Object, Object> function) {
+        if (args.length != 2) {
+            throw new ExpressionException(name + "() takes 2 arguments", start);
+        }
+        return fold(new Nodes.Call2(name, function, args[0], args[1]), args);
+    }
+
+    private Expression matches(Expression[] args, int start) {
+        if (args.length != 2) {
+            throw new ExpressionException("matches() takes 2 arguments", start);
+        }
+        if (!(args[1] instanceof Nodes.Literal literal) || !(literal.value() instanceof String regex)) {
+            throw new ExpressionException("matches() needs a string literal pattern", start);
+        }
+        try {
+            return fold(new Nodes.Matches(args[0], Pattern.compile(regex)), args[0]);
+        } catch (PatternSyntaxException e) {
+            throw new ExpressionException("Invalid pattern: " + e.getDescription(), start);
+        }
+    }
+
+    private static void arity(String name, Expression[] args, int min, int start) {
+        if (args.length < min) {
+            throw new ExpressionException(name + "() takes at least " + min + " argument", start);
+        }
+    }
+
+    private static Object number(Object value, DoubleUnaryOperator operator) {
+        double x = Values.toDouble(value);
+        return value == null || Double.isNaN(x) ? null : Values.number(operator.applyAsDouble(x));
+    }
+
+    private static Expression fold(Expression node) {
+        return switch (node) {
+            case Nodes.Not n -> fold(n, n.operand());
+            case Nodes.And n -> fold(n, n.left(), n.right());
+            case Nodes.Or n -> fold(n, n.left(), n.right());
+            case Nodes.Compare n -> fold(n, n.left(), n.right());
+            case Nodes.Arithmetic n -> fold(n, n.left(), n.right());
+            case Nodes.Negate n -> fold(n, n.operand());
+            default -> node;
+        };
+    }
+
+    /**
+     * Replaces {@code node} by its value when all of its operands are literals.
+     */
+    private static Expression fold(Expression node, Expression... operands) {
+        for (Expression operand : operands) {
+            if (!(operand instanceof Nodes.Literal)) {
+                return node;
+            }
+        }
+        return new Nodes.Literal(node.evaluate(Map.of()));
+    }
+
+    private String identifier() {
+        int start = pos;
+        if (pos >= source.length() || !Character.isJavaIdentifierStart(source.charAt(pos))) {
+            throw error("Expected a name");
+        }
+        while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private String string(char quote) {
+        int start = pos++;
+        StringBuilder value = new StringBuilder();
+        while (pos < source.length()) {
+            char c = source.charAt(pos++);
+            if (c == quote) {
+                return value.toString();
+            }
+            if (c == '\\' && pos < source.length()) {
+                char escaped = source.charAt(pos++);
+                value.append(switch (escaped) {
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    default -> escaped;
+                });
+            } else {
+                value.append(c);
+            }
+        }
+        throw new ExpressionException("Unterminated string", start);
+    }
+
+    private Object number() {
+        int start = pos;
+        while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+            pos++;
+        }
+        boolean decimal = false;
+        if (peek() == '.' && Character.isDigit(peek(1))) {
+            decimal = true;
+            pos++;
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+        }
+        if ((peek() == 'e' || peek() == 'E')
+                && (Character.isDigit(peek(1)) || ((peek(1) == '+' || peek(1) == '-') && Character.isDigit(peek(2))))) {
+            decimal = true;
+            pos += 2;
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+        }
+        String text = source.substring(start, pos);
+        try {
+            return decimal ? (Object) Double.parseDouble(text) : (Object) Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new ExpressionException("Invalid number '" + text + "'", start);
+        }
+    }
+
+    private boolean operator(String operator) {
+        skipWhitespace();
+        if (!source.startsWith(operator, pos)) {
+            return false;
+        }
+        // '<' must not match the start of '<=', '!' not the start of '!=', and so on
+        if (operator.length() == 1 && "<>=!".indexOf(operator.charAt(0)) >= 0 && peek(1) == '=') {
+            return false;
+        }
+        pos += operator.length();
+        return true;
+    }
+
+    private boolean keyword(String keyword) {
+        skipWhitespace();
+        int end = pos + keyword.length();
+        if (!source.startsWith(keyword, pos)
+                || (end < source.length() && Character.isJavaIdentifierPart(source.charAt(end)))) {
+            return false;
+        }
+        pos = end;
+        return true;
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        return peek(0);
+    }
+
+    private char peek(int offset) {
+        return pos + offset < source.length() ? source.charAt(pos + offset) : '\0';
+    }
+
+    private ExpressionException error(String message) {
+        return new ExpressionException(message, pos);
+    }
+}
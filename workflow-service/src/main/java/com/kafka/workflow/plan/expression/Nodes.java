@@ -0,0 +1,177 @@
+package com.kafka.workflow.plan.expression;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluator tree nodes built by {@link ExpressionParser}.
+ */
+final class Nodes {
+
+    private Nodes() {
+    }
+
+    record Literal(Object value) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            return value;
+        }
+    }
+
+    /**
+     * Null-safe path: a missing key, a non-container or an out-of-range index anywhere yields {@code null}.
+     * Segments are map keys ({@link String}) or list indexes ({@link Integer}).
+     */
+    record Path(Object[] segments) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            Object current = context;
+            for (Object segment : segments) {
+                if (current instanceof Map<?, ?> map) {
+                    current = map.get(segment instanceof Integer index ? index.toString() : segment);
+                } else if (current instanceof List<?> list && segment instanceof Integer index) {
+                    current = index >= 0 && index < list.size() ? list.get(index) : null;
+                } else {
+                    return null;
+                }
+                if (current == null) {
+                    return null;
+                }
+            }
+            return current;
+        }
+    }
+
+    record Not(Expression operand) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            return operand.test(context) ? Boolean.FALSE : Boolean.TRUE;
+        }
+    }
+
+    record And(Expression left, Expression right) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            return left.test(context) && right.test(context) ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    record Or(Expression left, Expression right) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            return left.test(context) || right.test(context) ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    enum Comparison {
+        EQ, NE, LT, LE, GT, GE
+    }
+
+    record Compare(Comparison operator, Expression left, Expression right) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            Object a = left.evaluate(context);
+            Object b = right.evaluate(context);
+            boolean result = switch (operator) {
+                case EQ -> Values.equal(a, b);
+                case NE -> !Values.equal(a, b);
+                default -> {
+                    int order = Values.compare(a, b);
+                    yield order != Values.INCOMPARABLE && switch (operator) {
+                        case LT -> order < 0;
+                        case LE -> order <= 0;
+                        case GT -> order > 0;
+                        default -> order >= 0;
+                    };
+                }
+            };
+            return result ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    enum Operator {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, REMAINDER
+    }
+
+    /**
+     * Numeric arithmetic; {@code +} concatenates when either side is a string. Non-numeric operands give
+     * {@code null}.
+     */
+    record Arithmetic(Operator operator, Expression left, Expression right) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            Object a = left.evaluate(context);
+            Object b = right.evaluate(context);
+            if (operator == Operator.ADD && (a instanceof CharSequence || b instanceof CharSequence)) {
+                return String.valueOf(a) + b;
+            }
+            double x = Values.toDouble(a);
+            double y = Values.toDouble(b);
+            if (a == null || b == null || Double.isNaN(x) || Double.isNaN(y)) {
+                return null;
+            }
+            return Values.number(switch (operator) {
+                case ADD -> x + y;
+                case SUBTRACT -> x - y;
+                case MULTIPLY -> x * y;
+                case DIVIDE -> x / y;
+                case REMAINDER -> x % y;
+            });
+        }
+    }
+
+    record Negate(Expression operand) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            double value = Values.toDouble(operand.evaluate(context));
+            return Double.isNaN(value) ? null : Values.number(-value);
+        }
+    }
+
+    record Call1(String name, Function<Object, Object> function, Expression argument) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            return function.apply(argument.evaluate(context));
+        }
+    }
+
+    record Call2(String name, BiFunction<Object, Object, Object> function, Expression first, Expression second)
+            implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            return function.apply(first.evaluate(context), second.evaluate(context));
+        }
+    }
+
+    /**
+     * {@code matches(value, 'regex')} with the pattern compiled once.
+     */
+    record Matches(Expression argument, Pattern pattern) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            Object value = argument.evaluate(context);
+            return value != null && pattern.matcher(value.toString()).matches() ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    /**
+     * First non-null argument, evaluated lazily.
+     */
+    record Coalesce(Expression[] arguments) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            for (Expression argument : arguments) {
+                Object value = argument.evaluate(context);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    record Extremum(boolean max, Expression[] arguments) implements Expression {
+        public Object evaluate(Map<String, Object> context) {
+            Object best = null;
+            for (Expression argument : arguments) {
+                Object value = argument.evaluate(context);
+                int order = Values.compare(value, best);
+                if (best == null || (order != Values.INCOMPARABLE && (max ? order > 0 : order < 0))) {
+                    best = value;
+                }
+            }
+            return best;
+        }
+    }
+}
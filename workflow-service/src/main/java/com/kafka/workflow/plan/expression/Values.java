@@ -0,0 +1,119 @@
+package com.kafka.workflow.plan.expression;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Loose value semantics shared by the expression nodes: numbers compare numerically whatever their boxed
+ * type, numeric strings compare with numbers, and incompatible operands make comparisons false instead of
+ * throwing.
+ */
+final class Values {
+
+    /** {@link #compare} result for operands without an order. */
+    static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+    private Values() {
+    }
+
+    static boolean equal(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        if (left instanceof Number || right instanceof Number) {
+            double a = toDouble(left);
+            double b = toDouble(right);
+            return !Double.isNaN(a) && !Double.isNaN(b) && a == b;
+        }
+        if (left instanceof CharSequence && right instanceof CharSequence) {
+            return left.toString().contentEquals((CharSequence) right);
+        }
+        if (left instanceof Boolean && right instanceof CharSequence text) {
+            return left.toString().contentEquals(text);
+        }
+        if (right instanceof Boolean && left instanceof CharSequence text) {
+            return right.toString().contentEquals(text);
+        }
+        return left.equals(right);
+    }
+
+    static int compare(Object left, Object right) {
+        if (left == null || right == null) {
+            return INCOMPARABLE;
+        }
+        if (left instanceof Number || right instanceof Number) {
+            double a = toDouble(left);
+            double b = toDouble(right);
+            return Double.isNaN(a) || Double.isNaN(b) ? INCOMPARABLE : Double.compare(a, b);
+        }
+        if (left instanceof CharSequence && right instanceof CharSequence) {
+            return left.toString().compareTo(right.toString());
+        }
+        return INCOMPARABLE;
+    }
+
+    /**
+     * The numeric value of numbers and numeric strings; {@code NaN} for anything else.
+     */
+    static double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof CharSequence text) {
+            try {
+                return Double.parseDouble(text.toString().trim());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Integral results as {@link Long}, so {@code 2 + 3} prints as {@code 5} and equals a context value of 5.
+     */
+    static Object number(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return (long) value;
+        }
+        return value;
+    }
+
+    static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    static int length(Object value) {
+        if (value instanceof CharSequence text) {
+            return text.length();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        return 0;
+    }
+
+    static boolean contains(Object container, Object element) {
+        if (container instanceof CharSequence text) {
+            return element != null && text.toString().contains(element.toString());
+        }
+        if (container instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                if (equal(item, element)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (container instanceof Map<?, ?> map) {
+            return element != null && map.containsKey(element.toString());
+        }
+        return false;
+    }
+}
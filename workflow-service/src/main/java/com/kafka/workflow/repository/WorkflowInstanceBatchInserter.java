@@ -0,0 +1,70 @@
+package com.kafka.workflow.repository;
+
+import com.kafka.workflow.dto.WorkflowInstance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts new {@code RUNNING} workflow instances with one JDBC batch. JPA cannot batch inserts of
+ * {@code IDENTITY} entities, so bulk executions write here and read the generated ids back; with
+ * {@code rewriteBatchedStatements=true} MySQL receives multi-row inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WorkflowInstanceBatchInserter {
+
+    private static final String INSERT_SQL = "INSERT INTO workflow_instances (workflow_definition_id, instance_name, "
+            + "status, context_data, started_by, started_at, definition_revision) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert {@code instances} and set their generated ids, in order.
+     */
+    public void insertRunning(List<WorkflowInstance> instances) {
+        if (instances.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        WorkflowInstance instance = instances.get(i);
+                        ps.setLong(1, instance.getWorkflowDefinitionId());
+                        ps.setString(2, instance.getInstanceName());
+                        ps.setString(3, WorkflowInstance.InstanceStatus.RUNNING.name());
+                        ps.setString(4, instance.getContextData());
+                        ps.setString(5, instance.getStartedBy());
+                        ps.setTimestamp(6, Timestamp.valueOf(instance.getStartedAt()));
+                        ps.setString(7, instance.getDefinitionRevision());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return instances.size();
+                    }
+                },
+                keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != instances.size()) {
+            throw new IllegalStateException("Expected " + instances.size() + " generated ids, got " + generated.size());
+        }
+        for (int i = 0; i < instances.size(); i++) {
+            instances.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
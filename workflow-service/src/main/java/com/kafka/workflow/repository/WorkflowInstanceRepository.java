@@ -1,9 +1,78 @@
 package com.kafka.workflow.repository;
 
 import com.kafka.workflow.dto.WorkflowInstance;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface WorkflowInstanceRepository extends JpaRepository<WorkflowInstance, Long> {
-}
 
+    interface PausedInstance {
+        Long getId();
+
+        LocalDateTime getResumeAt();
+    }
+
+    /**
+     * Paused instances with a resume time and an id above {@code afterId}, in id order (keyset paging).
+     */
+    @Query("SELECT i.id AS id, i.resumeAt AS resumeAt FROM WorkflowInstance i "
+            + "WHERE i.status = com.kafka.workflow.dto.WorkflowInstance.InstanceStatus.PAUSED "
+            + "AND i.resumeAt IS NOT NULL AND i.id > :afterId ORDER BY i.id")
+    List<PausedInstance> findPausedAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    Optional<WorkflowInstance> findByCorrelationId(String correlationId);
 
+    /**
+     * Move a paused instance that is due by {@code dueBy} back to RUNNING; returns 0 if another node, timer or
+     * reply already claimed it, or if it has since paused again with a later resume time (a stale timer).
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WorkflowInstance i SET i.status = com.kafka.workflow.dto.WorkflowInstance.InstanceStatus.RUNNING, "
+            + "i.checkpointedAt = :now "
+            + "WHERE i.id = :id AND i.status = com.kafka.workflow.dto.WorkflowInstance.InstanceStatus.PAUSED "
+            + "AND (i.resumeAt IS NULL OR i.resumeAt <= :dueBy)")
+    int claimPaused(@Param("id") Long id, @Param("dueBy") LocalDateTime dueBy, @Param("now") LocalDateTime now);
+
+    /**
+     * Move the instance waiting for the reply {@code correlationId} back to RUNNING; returns 0 for late and
+     * duplicate replies.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WorkflowInstance i SET i.status = com.kafka.workflow.dto.WorkflowInstance.InstanceStatus.RUNNING, "
+            + "i.checkpointedAt = :now "
+            + "WHERE i.correlationId = :correlationId "
+            + "AND i.status = com.kafka.workflow.dto.WorkflowInstance.InstanceStatus.PAUSED")
+    int claimReply(@Param("correlationId") String correlationId, @Param("now") LocalDateTime now);
+
+    /**
+     * Ids above {@code afterId} of running instances without progress since {@code staleBefore}, in id order
+     * (keyset paging): the node running them is gone.
+     */
+    @Query("SELECT i.id FROM WorkflowInstance i "
+            + "WHERE i.status = com.kafka.workflow.dto.WorkflowInstance.InstanceStatus.RUNNING "
+            + "AND COALESCE(i.checkpointedAt, i.startedAt) < :staleBefore AND i.id > :afterId ORDER BY i.id")
+    List<Long> findInterruptedAfter(@Param("afterId") Long afterId, @Param("staleBefore") LocalDateTime staleBefore,
+                                    Pageable pageable);
+
+    /**
+     * Take over an interrupted running instance; returns 0 if another node took it over or it made progress
+     * since {@code staleBefore}.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WorkflowInstance i SET i.checkpointedAt = :now "
+            + "WHERE i.id = :id AND i.status = com.kafka.workflow.dto.WorkflowInstance.InstanceStatus.RUNNING "
+            + "AND COALESCE(i.checkpointedAt, i.startedAt) < :staleBefore")
+    int claimInterrupted(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore,
+                         @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,331 @@
+package com.kafka.workflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.annotation.LogExecution;
+import com.kafka.shared.dto.WorkflowDefinition;
+import com.kafka.workflow.dto.BulkExecutionStatus;
+import com.kafka.workflow.dto.WorkflowInstance;
+import com.kafka.workflow.plan.WorkflowPlanCache;
+import com.kafka.workflow.repository.WorkflowInstanceBatchInserter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs one workflow definition for a stream of NDJSON contexts, one JSON object per line.
+ * <p>
+ * The definition is compiled once up front. Lines are parsed as they arrive, persisted
+ * {@code workflow.bulk.batch-size} at a time with one JDBC batch insert, and started on the engine. At most
+ * {@code workflow.bulk.max-in-flight} instances of a job run at once: when the limit is reached, reading
+ * stops until instances settle, which pushes back on the uploading client through TCP instead of buffering
+ * the request. The call returns when the whole body has been read; the instances still running are tracked
+ * by the returned job, whose progress and throughput stay available for the last
+ * {@code workflow.bulk.retained-jobs} jobs.
+ */
+@Service
+@Slf4j
+public class BulkExecutionService {
+
+    private static final TypeReference<Map<String, Object>> CONTEXT_TYPE = new TypeReference<>() {
+    };
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ObjectMapper objectMapper;
+    private final WorkflowEngine workflowEngine;
+    private final WorkflowPlanCache workflowPlanCache;
+    private final WorkflowInstanceBatchInserter batchInserter;
+    private final WorkflowCheckpointWriter checkpoints;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final int retainedJobs;
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkExecutionService(ObjectMapper objectMapper,
+                                WorkflowEngine workflowEngine,
+                                WorkflowPlanCache workflowPlanCache,
+                                WorkflowInstanceBatchInserter batchInserter,
+                                WorkflowCheckpointWriter checkpoints,
+                                MeterRegistry meterRegistry,
+                                @Value("${workflow.bulk.batch-size:500}") int batchSize,
+                                @Value("${workflow.bulk.max-in-flight:1000}") int maxInFlight,
+                                @Value("${workflow.bulk.retained-jobs:100}") int retainedJobs) {
+        this.objectMapper = objectMapper;
+        this.workflowEngine = workflowEngine;
+        this.workflowPlanCache = workflowPlanCache;
+        this.batchInserter = batchInserter;
+        this.checkpoints = checkpoints;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.retainedJobs = Math.max(1, retainedJobs);
+    }
+
+    /**
+     * Read {@code ndjson} to the end, starting one instance of {@code definition} per line.
+     *
+     * @throws com.kafka.workflow.plan.InvalidWorkflowDefinitionException before anything is read if the
+     *                                                                    definition does not compile
+     */
+    @LogExecution
+    public BulkExecutionStatus execute(WorkflowDefinition definition, InputStream ndjson) {
+        String revision = workflowPlanCache.planFor(definition).revision();
+        BulkJob job = register(new BulkJob(UUID.randomUUID().toString(), definition.getId(), maxInFlight));
+        log.info("Bulk execution {} of workflow {} started", job.id, definition.getName());
+
+        List<WorkflowInstance> instances = new ArrayList<>(batchSize);
+        List<Map<String, Object>> contexts = new ArrayList<>(batchSize);
+        List<Long> lines = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> contextData = parse(job, lineNumber, line);
+                if (contextData == null) {
+                    continue;
+                }
+                instances.add(WorkflowInstance.builder()
+                        .workflowDefinitionId(definition.getId())
+                        .instanceName(definition.getName() + "_" + job.id.substring(0, 8) + "_" + lineNumber)
+                        .status(WorkflowInstance.InstanceStatus.RUNNING)
+                        .contextData(line)
+                        .startedBy("bulk:" + job.id)
+                        .definitionRevision(revision)
+                        .startedAt(LocalDateTime.now())
+                        .build());
+                contexts.add(contextData);
+                lines.add(lineNumber);
+                if (instances.size() >= batchSize) {
+                    flush(job, definition, instances, contexts, lines);
+                }
+            }
+            flush(job, definition, instances, contexts, lines);
+            job.inputComplete(null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Bulk execution {} stopped reading its input", job.id, e);
+            job.inputComplete(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.inputComplete("Interrupted");
+        }
+        return job.status();
+    }
+
+    public Optional<BulkExecutionStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(BulkJob::status);
+    }
+
+    /**
+     * Retained jobs, most recent first.
+     */
+    public List<BulkExecutionStatus> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((BulkJob job) -> job.startedAt).reversed())
+                .map(BulkJob::status)
+                .toList();
+    }
+
+    private Map<String, Object> parse(BulkJob job, long lineNumber, String line) {
+        try {
+            Map<String, Object> contextData = objectMapper.readValue(line, CONTEXT_TYPE);
+            if (contextData != null) {
+                return contextData;
+            }
+            job.reject(lineNumber, "not a JSON object");
+        } catch (JsonProcessingException e) {
+            job.reject(lineNumber, e.getOriginalMessage());
+        }
+        meterRegistry.counter("workflow.bulk.instances", "outcome", "rejected").increment();
+        return null;
+    }
+
+    private void flush(BulkJob job, WorkflowDefinition definition, List<WorkflowInstance> instances,
+                       List<Map<String, Object>> contexts, List<Long> lines) throws InterruptedException {
+        if (instances.isEmpty()) {
+            return;
+        }
+        try {
+            batchInserter.insertRunning(instances);
+        } catch (DataAccessException e) {
+            lines.forEach(line -> job.reject(line, "not persisted: " + e.getMostSpecificCause().getMessage()));
+            throw e;
+        } catch (RuntimeException e) {
+            lines.forEach(line -> job.reject(line, "not started: " + e.getMessage()));
+            throw e;
+        }
+        job.accepted(instances.size());
+        // Queued instances are RUNNING in the database: keep them from being recovered as interrupted until settled.
+        instances.forEach(instance -> checkpoints.track(instance.getId()));
+        for (int i = 0; i < instances.size(); i++) {
+            try {
+                job.inFlight.acquire();
+            } catch (InterruptedException e) {
+                abandon(job, instances, lines, i, "interrupted");
+                throw e;
+            }
+            WorkflowInstance instance = instances.get(i);
+            try {
+                workflowEngine.start(definition, instance, contexts.get(i), status -> {
+                    checkpoints.untrack(instance.getId());
+                    job.settled(status);
+                    meterRegistry.counter("workflow.bulk.instances", "outcome", outcome(status)).increment();
+                });
+            } catch (RuntimeException e) {
+                job.inFlight.release();
+                abandon(job, instances, lines, i, e.getMessage());
+                throw e;
+            }
+        }
+        instances.clear();
+        contexts.clear();
+        lines.clear();
+    }
+
+    /**
+     * Hand the persisted instances from {@code from} on, which were never started, to the recovery of
+     * interrupted instances, and stop counting them as accepted so the job can still finish.
+     */
+    private void abandon(BulkJob job, List<WorkflowInstance> instances, List<Long> lines, int from, String reason) {
+        for (int i = from; i < instances.size(); i++) {
+            checkpoints.untrack(instances.get(i).getId());
+            job.unstarted(lines.get(i), reason);
+        }
+    }
+
+    private static String outcome(WorkflowInstance.InstanceStatus status) {
+        return switch (status) {
+            case COMPLETED -> "completed";
+            case PAUSED -> "suspended";
+            default -> "failed";
+        };
+    }
+
+    private BulkJob register(BulkJob job) {
+        jobs.put(job.id, job);
+        if (jobs.size() > retainedJobs) {
+            jobs.values().stream()
+                    .filter(BulkJob::isSettled)
+                    .min(Comparator.comparing((BulkJob old) -> old.startedAt))
+                    .ifPresent(oldest -> jobs.remove(oldest.id));
+        }
+        return job;
+    }
+
+    private static final class BulkJob {
+
+        private final String id;
+        private final Long definitionId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final Semaphore inFlight;
+        private final List<String> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        private long completed;
+        private long failed;
+        private long suspended;
+        private boolean inputComplete;
+        private long inputNanos;
+        private LocalDateTime inputCompletedAt;
+        private LocalDateTime finishedAt;
+        private String abortReason;
+
+        private BulkJob(String id, Long definitionId, int maxInFlight) {
+            this.id = id;
+            this.definitionId = definitionId;
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        synchronized void accepted(int count) {
+            accepted += count;
+        }
+
+        synchronized void reject(long lineNumber, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + reason);
+            }
+        }
+
+        synchronized void unstarted(long lineNumber, String reason) {
+            accepted--;
+            reject(lineNumber, "not started, left to recovery: " + reason);
+        }
+
+        void settled(WorkflowInstance.InstanceStatus status) {
+            synchronized (this) {
+                switch (status) {
+                    case COMPLETED -> completed++;
+                    case PAUSED -> suspended++;
+                    default -> failed++;
+                }
+                finishIfSettled();
+            }
+            inFlight.release();
+        }
+
+        synchronized void inputComplete(String abortReason) {
+            this.abortReason = abortReason;
+            inputComplete = true;
+            inputNanos = System.nanoTime() - startedNanos;
+            inputCompletedAt = LocalDateTime.now();
+            finishIfSettled();
+        }
+
+        synchronized boolean isSettled() {
+            return finishedAt != null;
+        }
+
+        private void finishIfSettled() {
+            if (inputComplete && finishedAt == null && completed + failed + suspended == accepted) {
+                finishedAt = LocalDateTime.now();
+                log.info("Bulk execution {} finished: {} accepted, {} rejected, {} completed, {} failed, "
+                                + "{} suspended in {} ms ({} instances/s)", id, accepted, rejected, completed, failed,
+                        suspended, Duration.between(startedAt, finishedAt).toMillis(),
+                        String.format("%.1f", perSecond(accepted, System.nanoTime() - startedNanos)));
+            }
+        }
+
+        synchronized BulkExecutionStatus status() {
+            BulkExecutionStatus.State state = abortReason != null ? BulkExecutionStatus.State.ABORTED
+                    : !inputComplete ? BulkExecutionStatus.State.RECEIVING
+                    : finishedAt == null ? BulkExecutionStatus.State.RUNNING
+                    : BulkExecutionStatus.State.DONE;
+            long elapsed = System.nanoTime() - startedNanos;
+            long settled = completed + failed + suspended;
+            return new BulkExecutionStatus(id, definitionId, state, accepted, rejected, completed, failed, suspended,
+                    startedAt, inputCompletedAt, finishedAt,
+                    perSecond(accepted, inputComplete ? inputNanos : elapsed),
+                    perSecond(settled, finishedAt != null ? Duration.between(startedAt, finishedAt).toNanos() : elapsed),
+                    abortReason, List.copyOf(errors));
+        }
+
+        private static double perSecond(long count, long nanos) {
+            return nanos > 0 ? Math.round(count * 1e10 / nanos) / 10.0 : 0;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.kafka.workflow.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for step checkpoints of running workflow instances.
+ * <p>
+ * {@link #record} only puts the checkpoint into a map keyed by instance id, so a newer checkpoint replaces
+ * the unwritten one of the same instance. Every {@code workflow.checkpoint.flush-interval-ms} the buffer is
+ * drained into JDBC batch updates of at most {@code workflow.checkpoint.max-batch} rows; an instance that ran
+ * twenty steps since the last flush costs one row update. The updates only touch {@code RUNNING} rows, so a
+ * late checkpoint can never overwrite a pause, completion or failure.
+ * <p>
+ * The same flush refreshes {@code checkpointed_at} of the instances this node is running (see
+ * {@link #track}) at least every quarter of {@code workflow.checkpoint.recovery-grace-ms}, so a long step
+ * is not mistaken for a crashed one.
+ */
+@Component
+@Slf4j
+public class WorkflowCheckpointWriter {
+
+    private static final String CHECKPOINT_SQL = "UPDATE workflow_instances SET current_step = ?, next_step_index = ?, "
+            + "checkpointed_at = ? WHERE id = ? AND status = 'RUNNING'";
+    private static final String HEARTBEAT_SQL = "UPDATE workflow_instances SET checkpointed_at = ? "
+            + "WHERE id = ? AND status = 'RUNNING'";
+
+    /**
+     * Progress of one instance: {@code nextStep} is the plan index it resumes at after a crash.
+     */
+    record Checkpoint(long instanceId, String currentStep, int nextStep, LocalDateTime at) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxBatch;
+    private final long heartbeatNanos;
+    private final Map<Long, Checkpoint> buffer = new ConcurrentHashMap<>();
+    /** Holders per instance: a reply may start the continuation before the paused run has returned. */
+    private final Map<Long, Integer> tracked = new ConcurrentHashMap<>();
+    /** Held while a batch is written; {@link #discard} takes it so no older checkpoint lands after it returns. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter recorded;
+    private final Counter written;
+    private final Timer flushTimer;
+    private long lastHeartbeatNanos = System.nanoTime();
+
+    public WorkflowCheckpointWriter(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${workflow.checkpoint.max-batch:1000}") int maxBatch,
+                                    @Value("${workflow.checkpoint.recovery-grace-ms:120000}") long recoveryGraceMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, recoveryGraceMs / 4));
+        this.recorded = Counter.builder("workflow.checkpoints.recorded")
+                .description("Step checkpoints recorded by running workflow instances")
+                .register(meterRegistry);
+        this.written = Counter.builder("workflow.checkpoints.written")
+                .description("Checkpoint rows written after coalescing")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("workflow.checkpoints.flush")
+                .description("Time to write one drained checkpoint buffer")
+                .register(meterRegistry);
+        Gauge.builder("workflow.checkpoints.pending", buffer, Map::size)
+                .description("Instances with a checkpoint not yet written")
+                .register(meterRegistry);
+    }
+
+    void record(long instanceId, String currentStep, int nextStep) {
+        buffer.put(instanceId, new Checkpoint(instanceId, currentStep, nextStep, LocalDateTime.now()));
+        recorded.increment();
+    }
+
+    /**
+     * Drop the unwritten checkpoint of an instance about to be saved as paused, completed or failed, waiting
+     * for a flush in progress to finish.
+     */
+    void discard(long instanceId) {
+        flushLock.lock();
+        try {
+            buffer.remove(instanceId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Keep the instance's {@code checkpointed_at} fresh while this node runs it. Calls are counted: every
+     * {@code track} must be paired with one {@link #untrack}, and the instance stays tracked until the last.
+     */
+    void track(long instanceId) {
+        tracked.merge(instanceId, 1, Integer::sum);
+    }
+
+    void untrack(long instanceId) {
+        tracked.computeIfPresent(instanceId, (id, holders) -> holders > 1 ? holders - 1 : null);
+    }
+
+    boolean isTracked(long instanceId) {
+        return tracked.containsKey(instanceId);
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.checkpoint.flush-interval-ms:200}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            long start = System.nanoTime();
+            List<Checkpoint> drained = drain();
+            if (!drained.isEmpty()) {
+                write(drained);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (System.nanoTime() - lastHeartbeatNanos >= heartbeatNanos) {
+                heartbeat();
+                lastHeartbeatNanos = System.nanoTime();
+            }
+        } catch (RuntimeException e) {
+            log.error("Workflow checkpoint flush failed", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private List<Checkpoint> drain() {
+        List<Checkpoint> drained = new ArrayList<>(buffer.size());
+        for (Long instanceId : buffer.keySet()) {
+            Checkpoint checkpoint = buffer.remove(instanceId);
+            if (checkpoint != null) {
+                drained.add(checkpoint);
+            }
+        }
+        return drained;
+    }
+
+    private void write(List<Checkpoint> checkpoints) {
+        for (int from = 0; from < checkpoints.size(); from += maxBatch) {
+            List<Checkpoint> batch = checkpoints.subList(from, Math.min(checkpoints.size(), from + maxBatch));
+            try {
+                jdbcTemplate.batchUpdate(CHECKPOINT_SQL, batch, batch.size(), (ps, checkpoint) -> {
+                    ps.setString(1, checkpoint.currentStep());
+                    ps.setInt(2, checkpoint.nextStep());
+                    ps.setTimestamp(3, Timestamp.valueOf(checkpoint.at()));
+                    ps.setLong(4, checkpoint.instanceId());
+                });
+                written.increment(batch.size());
+            } catch (DataAccessException e) {
+                log.warn("Failed to write {} workflow checkpoints; retrying on the next flush", batch.size(), e);
+                // Requeue unless the instance recorded a newer checkpoint meanwhile.
+                batch.forEach(checkpoint -> buffer.putIfAbsent(checkpoint.instanceId(), checkpoint));
+            }
+        }
+    }
+
+    private void heartbeat() {
+        List<Long> ids = new ArrayList<>(tracked.keySet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < ids.size(); from += maxBatch) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + maxBatch));
+            jdbcTemplate.batchUpdate(HEARTBEAT_SQL, batch, batch.size(), (ps, id) -> {
+                ps.setTimestamp(1, now);
+                ps.setLong(2, id);
+            });
+        }
+        log.debug("Refreshed checkpoints of {} running workflow instances", ids.size());
+    }
+}
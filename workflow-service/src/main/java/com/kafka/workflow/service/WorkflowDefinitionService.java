@@ -1,6 +1,8 @@
 package com.kafka.workflow.service;
 
 import com.kafka.shared.dto.WorkflowDefinition;
+import com.kafka.workflow.plan.WorkflowPlanCache;
+import com.kafka.workflow.plan.WorkflowPlanCompiler;
 import com.kafka.workflow.repository.WorkflowDefinitionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,6 +15,8 @@ import java.util.List;
 public class WorkflowDefinitionService {
 
     private final WorkflowDefinitionRepository workflowDefinitionRepository;
+    private final WorkflowPlanCompiler workflowPlanCompiler;
+    private final WorkflowPlanCache workflowPlanCache;
 
     @Transactional(readOnly = true)
     public List<WorkflowDefinition> getAllDefinitions() {
@@ -31,8 +35,12 @@ public class WorkflowDefinitionService {
                 .orElseThrow(() -> new IllegalArgumentException("Workflow definition not found: " + name));
     }
 
+    /**
+     * @throws com.kafka.workflow.plan.InvalidWorkflowDefinitionException if the definition JSON does not compile
+     */
     @Transactional
     public WorkflowDefinition create(WorkflowDefinition definition) {
+        workflowPlanCompiler.compile(definition);
         // Default status if not set
         if (definition.getStatus() == null) {
             definition.setStatus(WorkflowDefinition.WorkflowStatus.DRAFT);
@@ -40,8 +48,12 @@ public class WorkflowDefinitionService {
         return workflowDefinitionRepository.save(definition);
     }
 
+    /**
+     * @throws com.kafka.workflow.plan.InvalidWorkflowDefinitionException if the definition JSON does not compile
+     */
     @Transactional
     public WorkflowDefinition update(Long id, WorkflowDefinition updated) {
+        workflowPlanCompiler.compile(updated);
         WorkflowDefinition existing = getById(id);
 
         existing.setName(updated.getName());
@@ -52,6 +64,7 @@ public class WorkflowDefinitionService {
             existing.setStatus(updated.getStatus());
         }
 
+        workflowPlanCache.invalidate(id);
         return workflowDefinitionRepository.save(existing);
     }
 
@@ -0,0 +1,168 @@
+package com.kafka.workflow.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Step messages of one workflow instance that have been sent but not yet acknowledged.
+ * <p>
+ * Every message is keyed by the instance, so all messages of an instance land on the same partition of a
+ * topic in step order. Sends are pipelined: a step does not wait for its acknowledgement, but at most
+ * {@code maxInFlight} messages may be outstanding, after which the next send waits for a slot.
+ * {@link #checkpoint()} waits for everything sent so far. The first failed delivery is remembered and
+ * rethrown by the next send or checkpoint, so the instance fails at the step after the failure at the latest.
+ * <p>
+ * Instances are used by one thread at a time; parallel branches each {@link #fork()} their own.
+ */
+@Slf4j
+class WorkflowDelivery {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String key;
+    private final Semaphore slots;
+    private final long ackTimeoutMs;
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+    private final AtomicReference<DeliveryFailure> failure;
+    /** Messages acknowledged and dropped from {@code pending} by earlier checkpoints. */
+    private int cleared;
+    /** Leading messages, counted from the first send, known to be acknowledged. */
+    private int acknowledged;
+
+    WorkflowDelivery(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry, String key,
+                     int maxInFlight, long ackTimeoutMs) {
+        this(kafkaTemplate, meterRegistry, key, new Semaphore(Math.max(1, maxInFlight)), Math.max(1, ackTimeoutMs),
+                new AtomicReference<>());
+    }
+
+    private WorkflowDelivery(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry, String key,
+                             Semaphore slots, long ackTimeoutMs, AtomicReference<DeliveryFailure> failure) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.key = key;
+        this.slots = slots;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.failure = failure;
+    }
+
+    /**
+     * A tracker for a parallel branch: same key, in-flight limit and failure as this one, but its
+     * {@link #checkpoint()} only waits for the branch's own messages.
+     */
+    WorkflowDelivery fork() {
+        return new WorkflowDelivery(kafkaTemplate, meterRegistry, key, slots, ackTimeoutMs, failure);
+    }
+
+    void send(String topic, Object message) {
+        rethrowFailure();
+        try {
+            if (!slots.tryAcquire(ackTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new DeliveryFailure("Timed out waiting for acknowledgements from " + topic, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeliveryFailure("Interrupted while sending to " + topic, e);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<?> send;
+        try {
+            send = kafkaTemplate.send(topic, key, message);
+        } catch (RuntimeException e) {
+            slots.release();
+            record(topic, start, false);
+            throw new DeliveryFailure("Failed to send to " + topic, e);
+        }
+        pending.add(send.whenComplete((result, error) -> {
+            slots.release();
+            record(topic, start, error == null);
+            if (error != null) {
+                failure.compareAndSet(null, new DeliveryFailure("Failed to deliver to " + topic, error));
+            }
+        }));
+    }
+
+    /**
+     * Number of messages sent through this tracker so far.
+     */
+    int sent() {
+        return cleared + pending.size();
+    }
+
+    /**
+     * Number of leading messages (in send order) that are all acknowledged, without waiting. Progress up to a
+     * step is durable once this reaches the {@link #sent()} count taken after the step.
+     */
+    int acknowledged() {
+        while (acknowledged < sent()) {
+            CompletableFuture<?> send = pending.get(acknowledged - cleared);
+            if (!send.isDone() || send.isCompletedExceptionally()) {
+                break;
+            }
+            acknowledged++;
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Wait until every message sent so far is acknowledged, failing on the first delivery error.
+     */
+    void checkpoint() {
+        if (pending.isEmpty()) {
+            rethrowFailure();
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        try {
+            for (CompletableFuture<?> send : pending) {
+                rethrowFailure();
+                send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeliveryFailure("Interrupted while waiting for acknowledgements", e);
+        } catch (ExecutionException e) {
+            // The completion callback recorded the failure; prefer its message, which names the topic.
+        } catch (TimeoutException e) {
+            throw new DeliveryFailure("Timed out after " + ackTimeoutMs + " ms waiting for acknowledgements", e);
+        }
+        rethrowFailure();
+        log.debug("Checkpoint for {}: {} messages acknowledged", key, pending.size());
+        cleared += pending.size();
+        acknowledged = cleared;
+        pending.clear();
+    }
+
+    private void rethrowFailure() {
+        DeliveryFailure error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void record(String topic, long startNanos, boolean success) {
+        Timer.builder("workflow.kafka.send")
+                .description("Time from sending a workflow step message to its acknowledgement")
+                .tag("topic", topic)
+                .tag("outcome", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static class DeliveryFailure extends RuntimeException {
+        DeliveryFailure(String message, Throwable cause) {
+            super(cause != null && cause.getMessage() != null ? message + ": " + cause.getMessage() : message, cause);
+        }
+    }
+}
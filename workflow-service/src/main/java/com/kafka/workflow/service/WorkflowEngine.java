@@ -1,26 +1,151 @@
 package com.kafka.workflow.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kafka.shared.annotation.LogExecution;
 import com.kafka.shared.dto.WorkflowDefinition;
+import com.kafka.shared.messaging.DataProcessingMessage;
+import com.kafka.shared.messaging.ExternalEventMessage;
+import com.kafka.shared.messaging.GraphQlCallMessage;
+import com.kafka.shared.messaging.NotificationMessage;
+import com.kafka.shared.messaging.ScheduleTaskMessage;
+import com.kafka.shared.messaging.ServiceCallMessage;
+import com.kafka.shared.messaging.ServiceCallReplyMessage;
 import com.kafka.workflow.dto.WorkflowInstance;
-import lombok.RequiredArgsConstructor;
+import com.kafka.workflow.plan.WorkflowPlan;
+import com.kafka.workflow.plan.WorkflowPlanCache;
+import com.kafka.workflow.plan.WorkflowStep;
+import com.kafka.workflow.repository.WorkflowDefinitionRepository;
+import com.kafka.workflow.repository.WorkflowInstanceRepository;
+import com.kafka.workflow.timer.HashedTimerWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs workflow instances.
+ * <p>
+ * {@link #executeWorkflow} persists a new instance and returns it right away; its steps run on a virtual
+ * thread, at most {@code workflow.execution.max-concurrent} instances at a time. A {@code delay} step suspends
+ * the instance: it is saved as {@code PAUSED} with the index of the next step and its {@code resumeAt} time,
+ * and a timer on a {@link HashedTimerWheel} resumes it from there. Paused instances are rescheduled from the
+ * database on startup, and a resume first claims the instance ({@code PAUSED -> RUNNING}) so it runs only once
+ * even if several nodes recover it.
+ * <p>
+ * A {@code parallel} step forks its branches onto virtual threads and joins them before the next step, so
+ * a fan-out costs its slowest branch rather than the sum of all branches.
+ * <p>
+ * A top-level {@code service_call} or {@code graphql_call} step is a request-reply exchange: the instance is
+ * paused with a fresh correlation id and a reply timeout before the request is sent, and no thread waits for
+ * the answer. The reply on {@code workflow-replies} ({@link #onReply}) claims the instance by correlation id,
+ * stores the response body in the context under the step name and continues; the timeout timer fails it.
+ * Inside parallel branches the calls stay one-way.
+ * <p>
+ * While an instance runs, each step whose messages are all acknowledged is checkpointed (current step and
+ * next plan index) through the {@link WorkflowCheckpointWriter}, which coalesces and batches the writes.
+ * A {@code RUNNING} instance whose checkpoint is older than {@code workflow.checkpoint.recovery-grace-ms}
+ * lost its node; {@link #recoverInterruptedInstances} takes it over and re-runs it from its last checkpoint,
+ * so a step after that checkpoint may be executed twice. Every continuation checks that the definition still
+ * has the revision the instance started with, and fails the instance if it was edited in between.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class WorkflowEngine {
 
+    private static final TypeReference<Map<String, Object>> CONTEXT_TYPE = new TypeReference<>() {
+    };
+    private static final int RECOVERY_PAGE_SIZE = 1000;
+    /** Guards against condition steps that jump back in an endless loop. */
+    private static final int MAX_STEPS_PER_RUN = 10_000;
+    /** {@code resume_at} is stored with second precision, so a timer may fire just before it. */
+    private static final long RESUME_SLACK_MS = 1_000;
+
     private final ObjectMapper objectMapper;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final WorkflowDefinitionRepository workflowDefinitionRepository;
+    private final WorkflowPlanCache workflowPlanCache;
+    private final WorkflowCheckpointWriter checkpoints;
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final long ackTimeoutMs;
+    private final long branchTimeoutMs;
+    private final long replyTimeoutMs;
+    private final long tickMs;
+    private final long recoveryGraceMs;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore executionSlots;
+    private final HashedTimerWheel timers;
+    /** Reply timeouts armed on this node, cancelled when the reply arrives first. */
+    private final Map<Long, HashedTimerWheel.Timeout> replyTimeouts = new ConcurrentHashMap<>();
+
+    public WorkflowEngine(ObjectMapper objectMapper,
+                          KafkaTemplate<String, Object> kafkaTemplate,
+                          WorkflowInstanceRepository workflowInstanceRepository,
+                          WorkflowDefinitionRepository workflowDefinitionRepository,
+                          WorkflowPlanCache workflowPlanCache,
+                          WorkflowCheckpointWriter checkpoints,
+                          MeterRegistry meterRegistry,
+                          @Value("${workflow.delivery.max-in-flight:32}") int maxInFlight,
+                          @Value("${workflow.delivery.ack-timeout-ms:30000}") long ackTimeoutMs,
+                          @Value("${workflow.execution.max-concurrent:256}") int maxConcurrent,
+                          @Value("${workflow.execution.branch-timeout-ms:30000}") long branchTimeoutMs,
+                          @Value("${workflow.reply.timeout-ms:60000}") long replyTimeoutMs,
+                          @Value("${workflow.timer.tick-ms:100}") long tickMs,
+                          @Value("${workflow.timer.wheel-size:512}") int wheelSize,
+                          @Value("${workflow.checkpoint.recovery-grace-ms:120000}") long recoveryGraceMs) {
+        this.objectMapper = objectMapper;
+        this.kafkaTemplate = kafkaTemplate;
+        this.workflowInstanceRepository = workflowInstanceRepository;
+        this.workflowDefinitionRepository = workflowDefinitionRepository;
+        this.workflowPlanCache = workflowPlanCache;
+        this.checkpoints = checkpoints;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = maxInFlight;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.branchTimeoutMs = Math.max(1, branchTimeoutMs);
+        this.replyTimeoutMs = Math.max(1, replyTimeoutMs);
+        this.tickMs = tickMs;
+        this.recoveryGraceMs = Math.max(1, recoveryGraceMs);
+        this.executionSlots = new Semaphore(Math.max(1, maxConcurrent));
+        this.timers = new HashedTimerWheel("workflow-timers", tickMs, wheelSize, executor, this::resume);
+
+        Gauge.builder("workflow.timers.pending", timers, HashedTimerWheel::pending)
+                .description("Paused workflow instances waiting for their resume timer")
+                .register(meterRegistry);
+    }
 
+    /**
+     * Start {@code definition}; returns the persisted {@code RUNNING} instance without waiting for its steps.
+     */
     @LogExecution
     public WorkflowInstance executeWorkflow(WorkflowDefinition definition, Map<String, Object> contextData) {
         log.info("Starting workflow execution: {}", definition.getName());
@@ -30,198 +155,609 @@ public class WorkflowEngine {
                 .instanceName(definition.getName() + "_" + System.currentTimeMillis())
                 .contextData(convertContextToString(contextData))
                 .startedBy("system")
+                .definitionRevision(WorkflowPlan.revisionOf(definition))
                 .build();
+        instance = workflowInstanceRepository.save(instance);
+        WorkflowInstance started = instance.toBuilder().build();
+
+        WorkflowInstance running = instance;
+        executor.execute(() -> runSteps(definition, running, contextData, 0));
+        return started;
+    }
+
+    /**
+     * Run an instance that was already persisted as {@code RUNNING} (see {@link BulkExecutionService});
+     * {@code onSettled} receives its status once it has completed, failed or paused.
+     */
+    public void start(WorkflowDefinition definition, WorkflowInstance instance, Map<String, Object> contextData,
+                      Consumer<WorkflowInstance.InstanceStatus> onSettled) {
+        executor.execute(() -> {
+            try {
+                runSteps(definition, instance, contextData, 0);
+            } finally {
+                onSettled.accept(instance.getStatus());
+            }
+        });
+    }
+
+    /**
+     * Continue a paused instance whose delay has elapsed, or fail one whose reply did not arrive in time.
+     */
+    @LogExecution
+    public void resume(long instanceId) {
+        replyTimeouts.remove(instanceId);
+        LocalDateTime dueBy = LocalDateTime.now().plus(Duration.ofMillis(tickMs + RESUME_SLACK_MS));
+        if (workflowInstanceRepository.claimPaused(instanceId, dueBy, LocalDateTime.now()) == 0) {
+            log.debug("Workflow instance {} is no longer paused or not yet due; not resuming", instanceId);
+            return;
+        }
+        WorkflowInstance instance = workflowInstanceRepository.findById(instanceId).orElse(null);
+        if (instance == null) {
+            return;
+        }
+        if (instance.getCorrelationId() != null) {
+            fail(instance, new IllegalStateException(
+                    "No reply to step '" + instance.getCurrentStep() + "' before " + instance.getResumeAt()));
+            return;
+        }
+        continueInstance(instance, contextData -> {
+        });
+    }
 
+    /**
+     * Complete the service call step waiting for {@code reply}; late and duplicate replies are ignored. The
+     * instance is claimed on the calling (listener) thread and continues on a virtual thread.
+     */
+    @LogExecution
+    public void onReply(ServiceCallReplyMessage reply) {
+        String correlationId = reply.correlationId();
+        if (correlationId == null || workflowInstanceRepository.claimReply(correlationId, LocalDateTime.now()) == 0) {
+            log.debug("No workflow instance waiting for reply {}", correlationId);
+            return;
+        }
+        WorkflowInstance instance = workflowInstanceRepository.findByCorrelationId(correlationId).orElse(null);
+        if (instance == null) {
+            return;
+        }
+        HashedTimerWheel.Timeout timeout = replyTimeouts.remove(instance.getId());
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        instance.setCorrelationId(null);
+        String stepName = instance.getCurrentStep();
+        executor.execute(() -> {
+            if (!reply.success()) {
+                fail(instance, new IllegalStateException("Step '" + stepName + "' failed: " + reply.error()));
+                return;
+            }
+            continueInstance(instance, contextData -> {
+                contextData.put(stepName, readReplyBody(reply.body()));
+                // The reply exists nowhere else: store it before going on, a crash would otherwise lose it.
+                instance.setContextData(convertContextToString(contextData));
+                instance.setResumeAt(null);
+                persist(instance);
+            });
+        });
+    }
+
+    /**
+     * Run the rest of a claimed instance from its {@code nextStepIndex}; {@code beforeResume} may update the
+     * context first.
+     */
+    private void continueInstance(WorkflowInstance instance, Consumer<Map<String, Object>> beforeResume) {
+        WorkflowDefinition definition = workflowDefinitionRepository.findById(instance.getWorkflowDefinitionId())
+                .orElse(null);
+        if (definition == null) {
+            fail(instance, new IllegalStateException(
+                    "Workflow definition not found: " + instance.getWorkflowDefinitionId()));
+            return;
+        }
+        Map<String, Object> contextData;
         try {
-            JsonNode workflowJson = objectMapper.readTree(definition.getDefinitionJson());
-            processWorkflowSteps(workflowJson, instance, contextData);
+            contextData = objectMapper.readValue(instance.getContextData(), CONTEXT_TYPE);
+        } catch (Exception e) {
+            fail(instance, e);
+            return;
+        }
+        beforeResume.accept(contextData);
+        int nextStep = instance.getNextStepIndex() != null ? instance.getNextStepIndex() : 0;
+        instance.setResumeAt(null);
+        log.info("Resuming workflow instance {} at step {}", instance.getInstanceName(), nextStep);
+        runSteps(definition, instance, contextData, nextStep);
+    }
+
+    /**
+     * Re-arm the timers of instances paused before the last shutdown; overdue ones resume immediately.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPausedInstances() {
+        long lastId = 0;
+        int recovered = 0;
+        List<WorkflowInstanceRepository.PausedInstance> page;
+        do {
+            page = workflowInstanceRepository.findPausedAfter(lastId, PageRequest.of(0, RECOVERY_PAGE_SIZE));
+            for (WorkflowInstanceRepository.PausedInstance paused : page) {
+                lastId = paused.getId();
+                timers.schedule(paused.getId(), millisUntil(paused.getResumeAt()));
+                recovered++;
+            }
+        } while (page.size() == RECOVERY_PAGE_SIZE);
+        if (recovered > 0) {
+            log.info("Recovered {} paused workflow instances", recovered);
+        }
+    }
+
+    /**
+     * Take over running instances whose node stopped checkpointing them, on startup and then every
+     * {@code workflow.checkpoint.recovery-interval-ms}, and continue each from its last checkpoint.
+     */
+    @Scheduled(initialDelayString = "${workflow.checkpoint.recovery-initial-delay-ms:5000}",
+            fixedDelayString = "${workflow.checkpoint.recovery-interval-ms:60000}")
+    public void recoverInterruptedInstances() {
+        try {
+            LocalDateTime staleBefore = LocalDateTime.now().minus(Duration.ofMillis(recoveryGraceMs));
+            long lastId = 0;
+            int recovered = 0;
+            List<Long> page;
+            do {
+                page = workflowInstanceRepository.findInterruptedAfter(
+                        lastId, staleBefore, PageRequest.of(0, RECOVERY_PAGE_SIZE));
+                for (Long instanceId : page) {
+                    lastId = instanceId;
+                    if (!checkpoints.isTracked(instanceId) && recoverInterrupted(instanceId, staleBefore)) {
+                        recovered++;
+                    }
+                }
+            } while (page.size() == RECOVERY_PAGE_SIZE);
+            if (recovered > 0) {
+                log.info("Recovered {} interrupted workflow instances", recovered);
+            }
+        } catch (Exception e) {
+            log.error("Error recovering interrupted workflow instances", e);
+        }
+    }
+
+    private boolean recoverInterrupted(long instanceId, LocalDateTime staleBefore) {
+        if (workflowInstanceRepository.claimInterrupted(instanceId, staleBefore, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        WorkflowInstance instance = workflowInstanceRepository.findById(instanceId).orElse(null);
+        if (instance == null) {
+            return false;
+        }
+        if (instance.getCorrelationId() != null && instance.getNextStepIndex() != null) {
+            // Interrupted between claiming a reply and storing it: send the request again.
+            instance.setNextStepIndex(instance.getNextStepIndex() - 1);
+            instance.setCorrelationId(null);
+        }
+        checkpoints.track(instanceId);
+        executor.execute(() -> {
+            try {
+                continueInstance(instance, contextData -> {
+                });
+            } finally {
+                checkpoints.untrack(instanceId);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Paused instances stay PAUSED in the database and are recovered on the next start.
+        timers.stop();
+        executor.shutdown();
+        if (!executor.awaitTermination(ackTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("Workflow executions still running after {} ms", ackTimeoutMs);
+        }
+    }
+
+    private void runSteps(WorkflowDefinition definition, WorkflowInstance instance, Map<String, Object> contextData,
+                          int fromStep) {
+        checkpoints.track(instance.getId());
+        try {
+            executionSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(instance, e);
+            checkpoints.untrack(instance.getId());
+            return;
+        }
+        try {
+            WorkflowPlan plan = workflowPlanCache.planFor(definition);
+            checkRevision(plan, instance, fromStep);
+            WorkflowDelivery delivery = new WorkflowDelivery(
+                    kafkaTemplate, meterRegistry, String.valueOf(instance.getId()), maxInFlight, ackTimeoutMs);
+            if (!processWorkflowSteps(plan, instance, contextData, delivery, fromStep)) {
+                return;
+            }
+            delivery.checkpoint();
 
             instance.setStatus(WorkflowInstance.InstanceStatus.COMPLETED);
+            instance.setNextStepIndex(null);
             instance.setCompletedAt(LocalDateTime.now());
-            instance.setExecutionTimeMs(System.currentTimeMillis() - instance.getStartedAt().toEpochSecond(java.time.ZoneOffset.UTC) * 1000);
+            instance.setExecutionTimeMs(Duration.between(instance.getStartedAt(), instance.getCompletedAt()).toMillis());
+            persist(instance);
 
             log.info("Workflow execution completed: {}", instance.getInstanceName());
 
         } catch (Exception e) {
-            instance.setStatus(WorkflowInstance.InstanceStatus.FAILED);
-            instance.setErrorMessage(e.getMessage());
-            instance.setCompletedAt(LocalDateTime.now());
+            fail(instance, e);
+        } finally {
+            executionSlots.release();
+            checkpoints.untrack(instance.getId());
+        }
+    }
+
+    /**
+     * Stored step indexes belong to the plan the instance started with; if the definition has been edited
+     * since, they may point at other steps or past the end, so the instance fails instead of continuing.
+     * Instances started before revisions were recorded adopt the current one.
+     */
+    private static void checkRevision(WorkflowPlan plan, WorkflowInstance instance, int fromStep) {
+        String started = instance.getDefinitionRevision();
+        if (started == null) {
+            instance.setDefinitionRevision(plan.revision());
+        } else if (!started.equals(plan.revision())) {
+            throw new IllegalStateException("Workflow definition " + plan.definitionId() + " changed since instance "
+                    + instance.getInstanceName() + " started (revision " + started + ", now " + plan.revision()
+                    + "); cannot continue at step " + fromStep);
+        }
+    }
+
+    /**
+     * Save an instance that leaves the checkpointed {@code RUNNING} state, or changed its context; a
+     * checkpoint still buffered for it is dropped first so it cannot overwrite the save.
+     */
+    private void persist(WorkflowInstance instance) {
+        checkpoints.discard(instance.getId());
+        instance.setCheckpointedAt(LocalDateTime.now());
+        workflowInstanceRepository.save(instance);
+    }
+
+    private void fail(WorkflowInstance instance, Exception e) {
+        instance.setStatus(WorkflowInstance.InstanceStatus.FAILED);
+        instance.setErrorMessage(e.getMessage());
+        instance.setResumeAt(null);
+        instance.setCompletedAt(LocalDateTime.now());
+        try {
+            persist(instance);
+        } catch (RuntimeException saveFailure) {
+            log.error("Failed to record failure of workflow instance {}", instance.getInstanceName(), saveFailure);
+        }
+
+        log.error("Workflow execution failed: {}", instance.getInstanceName(), e);
+    }
+
+    /**
+     * Run the plan from {@code fromStep}; returns {@code false} if a delay step paused the instance.
+     * <p>
+     * Progress past a step is checkpointed once every message sent up to that step is acknowledged, checked
+     * without waiting after each step; steps whose messages are still in flight are checkpointed later.
+     */
+    @LogExecution
+    private boolean processWorkflowSteps(WorkflowPlan plan, WorkflowInstance instance, Map<String, Object> contextData,
+                                         WorkflowDelivery delivery, int fromStep) {
+        List<WorkflowStep> steps = plan.steps();
+        Deque<StepCheckpoint> unacknowledged = new ArrayDeque<>();
+        int executed = 0;
+        for (int index = fromStep; index < steps.size(); ) {
+            WorkflowStep step = steps.get(index);
+            checkStepLimit(++executed, step);
+            log.info("Executing step: {} of type: {}", step.name(), step.type());
+
+            instance.setCurrentStep(step.name());
+
+            if (step instanceof WorkflowStep.Delay delay && delay.delayMs() > 0) {
+                pause(instance, delay, contextData, delivery, index + 1);
+                return false;
+            }
+            if (step instanceof WorkflowStep.ServiceCall || step instanceof WorkflowStep.GraphQlCall) {
+                awaitReply(instance, step, contextData, delivery, index + 1);
+                return false;
+            }
+            index = executeAt(steps, index, contextData, delivery);
+            unacknowledged.addLast(new StepCheckpoint(delivery.sent(), step.name(), index));
+            checkpointAcknowledged(instance, unacknowledged, delivery);
+        }
+        return true;
+    }
+
+    /**
+     * A step that ran: durable once the first {@code sent} messages are acknowledged.
+     */
+    private record StepCheckpoint(int sent, String step, int nextStep) {
+    }
+
+    private void checkpointAcknowledged(WorkflowInstance instance, Deque<StepCheckpoint> unacknowledged,
+                                        WorkflowDelivery delivery) {
+        int acknowledged = delivery.acknowledged();
+        StepCheckpoint latest = null;
+        while (!unacknowledged.isEmpty() && unacknowledged.peekFirst().sent() <= acknowledged) {
+            latest = unacknowledged.pollFirst();
+        }
+        if (latest != null) {
+            checkpoints.record(instance.getId(), latest.step(), latest.nextStep());
+        }
+    }
+
+    /**
+     * Execute {@code steps[index]} and return the index of the step to run next: the jump target of a
+     * condition, otherwise the following step.
+     */
+    private int executeAt(List<WorkflowStep> steps, int index, Map<String, Object> contextData,
+                          WorkflowDelivery delivery) {
+        if (steps.get(index) instanceof WorkflowStep.Condition condition) {
+            int target = executeCondition(condition, contextData);
+            return target >= 0 ? target : index + 1;
+        }
+        executeStep(steps.get(index), contextData, delivery);
+        return index + 1;
+    }
 
-            log.error("Workflow execution failed: {}", instance.getInstanceName(), e);
+    private static void checkStepLimit(int executed, WorkflowStep step) {
+        if (executed > MAX_STEPS_PER_RUN) {
+            throw new IllegalStateException("More than " + MAX_STEPS_PER_RUN
+                    + " steps executed in one run, stopped at step '" + step.name() + "'");
         }
+    }
 
-        return instance;
+    private void executeStep(WorkflowStep step, Map<String, Object> contextData, WorkflowDelivery delivery) {
+        switch (step) {
+            case WorkflowStep.ServiceCall serviceCall -> executeServiceCall(serviceCall, contextData, delivery, null);
+            case WorkflowStep.GraphQlCall graphQlCall -> executeGraphQLCall(graphQlCall, contextData, delivery, null);
+            case WorkflowStep.ScheduleTask scheduleTask -> executeScheduleTask(scheduleTask, contextData, delivery);
+            case WorkflowStep.DataProcessing dataProcessing ->
+                    executeDataProcessing(dataProcessing, contextData, delivery);
+            case WorkflowStep.Notification notification -> executeNotification(notification, contextData, delivery);
+            case WorkflowStep.Condition condition -> executeCondition(condition, contextData);
+            case WorkflowStep.Delay delay -> log.debug("Skipping zero delay step: {}", delay.name());
+            case WorkflowStep.ExternalEvent externalEvent -> executeExternalEvent(externalEvent, contextData, delivery);
+            case WorkflowStep.Parallel parallel -> executeParallel(parallel, contextData, delivery);
+        }
     }
 
+    /**
+     * Run the branches of {@code step} concurrently, one virtual thread each, and join them. Each branch
+     * waits for the acknowledgements of its own messages and must finish within its timeout. The first branch
+     * that fails or times out cancels (interrupts) the others and fails the step; messages those branches
+     * already sent are not recalled.
+     */
     @LogExecution
-    private void processWorkflowSteps(JsonNode workflowJson, WorkflowInstance instance, Map<String, Object> contextData) {
-        JsonNode steps = workflowJson.get("steps");
-
-        if (steps != null && steps.isArray()) {
-            for (JsonNode step : steps) {
-                String stepName = step.get("name").asText();
-                String stepType = step.get("type").asText();
-
-                log.info("Executing step: {} of type: {}", stepName, stepType);
-
-                instance.setCurrentStep(stepName);
-
-                switch (stepType) {
-                    case "service_call" -> executeServiceCall(step, contextData);
-                    case "graphql_call" -> executeGraphQLCall(step, contextData);
-                    case "schedule_task" -> executeScheduleTask(step, contextData);
-                    case "data_processing" -> executeDataProcessing(step, contextData);
-                    case "notification" -> executeNotification(step, contextData);
-                    case "condition" -> executeCondition(step, contextData);
-                    case "delay" -> executeDelay(step);
-                    case "external_event" -> executeExternalEvent(step, contextData);
-                    default -> log.warn("Unknown step type: {}", stepType);
+    private void executeParallel(WorkflowStep.Parallel step, Map<String, Object> contextData,
+                                 WorkflowDelivery delivery) {
+        List<WorkflowStep.Branch> branches = step.branches();
+        log.info("Forking {} branches of step: {}", branches.size(), step.name());
+
+        ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        CompletionService<WorkflowStep.Branch> completions = new ExecutorCompletionService<>(scope);
+        Map<Future<WorkflowStep.Branch>, BranchRun> running = new HashMap<>();
+        long forkedAt = System.nanoTime();
+        try {
+            for (WorkflowStep.Branch branch : branches) {
+                long timeoutMs = branch.timeoutMs() > 0 ? branch.timeoutMs() : branchTimeoutMs;
+                Future<WorkflowStep.Branch> future = completions.submit(() -> {
+                    WorkflowDelivery branchDelivery = delivery.fork();
+                    List<WorkflowStep> branchSteps = branch.steps();
+                    int executed = 0;
+                    for (int index = 0; index < branchSteps.size(); ) {
+                        WorkflowStep branchStep = branchSteps.get(index);
+                        checkStepLimit(++executed, branchStep);
+                        log.info("Executing step: {} of type: {} in branch: {}",
+                                branchStep.name(), branchStep.type(), branch.name());
+                        index = executeAt(branchSteps, index, contextData, branchDelivery);
+                    }
+                    branchDelivery.checkpoint();
+                    return branch;
+                });
+                running.put(future, new BranchRun(branch, forkedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs)));
+            }
+
+            while (!running.isEmpty()) {
+                BranchRun next = running.values().stream()
+                        .min(Comparator.comparingLong(BranchRun::deadlineNanos)).orElseThrow();
+                Future<WorkflowStep.Branch> done = completions.poll(
+                        Math.max(0, next.deadlineNanos() - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new IllegalStateException("Branch '" + next.branch().name() + "' of parallel step '"
+                            + step.name() + "' timed out");
+                }
+                BranchRun finished = running.remove(done);
+                try {
+                    done.get();
+                    log.debug("Branch {} of step {} completed", finished.branch().name(), step.name());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw new IllegalStateException("Branch '" + finished.branch().name() + "' of parallel step '"
+                            + step.name() + "' failed: " + cause.getMessage(), cause);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while joining parallel step '" + step.name() + "'", e);
+        } finally {
+            // Fail fast: interrupt the branches still running, then wait for them to unwind.
+            scope.shutdownNow();
+            scope.close();
         }
     }
 
+    private record BranchRun(WorkflowStep.Branch branch, long deadlineNanos) {
+    }
+
     @LogExecution
-    private void executeServiceCall(JsonNode step, Map<String, Object> contextData) {
-        String serviceName = step.get("service").asText();
-        String endpoint = step.get("endpoint").asText();
+    private void executeServiceCall(WorkflowStep.ServiceCall step, Map<String, Object> contextData, WorkflowDelivery delivery,
+                                    String correlationId) {
+        String serviceName = step.service();
+        String endpoint = step.endpoint();
 
         log.info("Calling service: {} at endpoint: {}", serviceName, endpoint);
 
         // Send message to Kafka for service call
-        Map<String, Object> serviceCallMessage = Map.of(
-                "service", serviceName,
-                "endpoint", endpoint,
-                "context", contextData,
-                "timestamp", LocalDateTime.now().toString()
-        );
+        ServiceCallMessage serviceCallMessage = new ServiceCallMessage(serviceName, endpoint, contextData,
+                System.currentTimeMillis(), correlationId, replyTopic(correlationId));
 
-        kafkaTemplate.send("service-calls", serviceCallMessage);
+        delivery.send("service-calls", serviceCallMessage);
     }
 
     @LogExecution
-    private void executeGraphQLCall(JsonNode step, Map<String, Object> contextData) {
-        String serviceName = step.path("service").asText();
-        String graphQlQuery = step.path("query").asText();
+    private void executeGraphQLCall(WorkflowStep.GraphQlCall step, Map<String, Object> contextData, WorkflowDelivery delivery,
+                                    String correlationId) {
+        String serviceName = step.service();
+        String graphQlQuery = step.query();
 
         log.info("Executing GraphQL call for service: {}", serviceName);
 
-        Map<String, Object> graphQlMessage = Map.of(
-                "service", serviceName,
-                "query", graphQlQuery,
-                "context", contextData,
-                "timestamp", LocalDateTime.now().toString()
-        );
+        GraphQlCallMessage graphQlMessage = new GraphQlCallMessage(serviceName, graphQlQuery, contextData,
+                System.currentTimeMillis(), correlationId, replyTopic(correlationId));
 
-        kafkaTemplate.send("graphql-calls", graphQlMessage);
+        delivery.send("graphql-calls", graphQlMessage);
     }
 
     @LogExecution
-    private void executeScheduleTask(JsonNode step, Map<String, Object> contextData) {
-        String taskName = step.get("task").asText();
-        String cronExpression = step.get("cron").asText();
+    private void executeScheduleTask(WorkflowStep.ScheduleTask step, Map<String, Object> contextData, WorkflowDelivery delivery) {
+        String taskName = step.task();
+        String cronExpression = step.cron();
 
         log.info("Scheduling task: {} with cron: {}", taskName, cronExpression);
 
         // Send message to Kafka for task scheduling
-        Map<String, Object> scheduleMessage = Map.of(
-                "task", taskName,
-                "cron", cronExpression,
-                "context", contextData,
-                "timestamp", LocalDateTime.now().toString()
-        );
+        ScheduleTaskMessage scheduleMessage = new ScheduleTaskMessage(
+                taskName, cronExpression, contextData, System.currentTimeMillis());
 
-        kafkaTemplate.send("schedule-tasks", scheduleMessage);
+        delivery.send("schedule-tasks", scheduleMessage);
     }
 
     @LogExecution
-    private void executeDataProcessing(JsonNode step, Map<String, Object> contextData) {
-        String processingType = step.get("processingType").asText();
-        int batchSize = step.get("batchSize").asInt();
+    private void executeDataProcessing(WorkflowStep.DataProcessing step, Map<String, Object> contextData, WorkflowDelivery delivery) {
+        String processingType = step.processingType();
+        int batchSize = step.batchSize();
 
         log.info("Executing data processing: {} with batch size: {}", processingType, batchSize);
 
         // Send message to Kafka for data processing
-        Map<String, Object> processingMessage = Map.of(
-                "processingType", processingType,
-                "batchSize", batchSize,
-                "context", contextData,
-                "timestamp", LocalDateTime.now().toString()
-        );
+        DataProcessingMessage processingMessage = new DataProcessingMessage(
+                processingType, batchSize, contextData, System.currentTimeMillis());
 
-        kafkaTemplate.send("data-processing", processingMessage);
+        delivery.send("data-processing", processingMessage);
     }
 
     @LogExecution
-    private void executeNotification(JsonNode step, Map<String, Object> contextData) {
-        String notificationType = step.get("notificationType").asText();
-        String message = step.get("message").asText();
+    private void executeNotification(WorkflowStep.Notification step, Map<String, Object> contextData, WorkflowDelivery delivery) {
+        String notificationType = step.notificationType();
+        String message = step.message();
 
         log.info("Sending notification: {} with message: {}", notificationType, message);
 
         // Send message to Kafka for notification
-        Map<String, Object> notificationMessage = Map.of(
-                "notificationType", notificationType,
-                "message", message,
-                "context", contextData,
-                "timestamp", LocalDateTime.now().toString()
-        );
+        NotificationMessage notificationMessage = new NotificationMessage(
+                notificationType, message, contextData, System.currentTimeMillis());
 
-        kafkaTemplate.send("notifications", notificationMessage);
+        delivery.send("notifications", notificationMessage);
     }
 
     @LogExecution
-    private void executeDelay(JsonNode step) {
-        long delayMs = step.path("delayMs").asLong(0);
-        if (delayMs <= 0) {
-            return;
+    private void pause(WorkflowInstance instance, WorkflowStep.Delay step, Map<String, Object> contextData,
+                       WorkflowDelivery delivery, int nextStep) {
+        long delayMs = step.delayMs();
+
+        // A delay is a checkpoint: everything sent before it is acknowledged before the workflow waits.
+        delivery.checkpoint();
+        log.info("Pausing workflow {} for {} ms", instance.getInstanceName(), delayMs);
+
+        instance.setStatus(WorkflowInstance.InstanceStatus.PAUSED);
+        instance.setNextStepIndex(nextStep);
+        instance.setResumeAt(LocalDateTime.now().plus(Duration.ofMillis(delayMs)));
+        instance.setContextData(convertContextToString(contextData));
+        persist(instance);
+        timers.schedule(instance.getId(), delayMs);
+    }
+
+    /**
+     * Send the request of a service call step and pause the instance until its reply or timeout. The instance
+     * is saved as waiting before the request goes out, so even an immediate reply finds it.
+     */
+    @LogExecution
+    private void awaitReply(WorkflowInstance instance, WorkflowStep step, Map<String, Object> contextData,
+                            WorkflowDelivery delivery, int nextStep) {
+        delivery.checkpoint();
+        String correlationId = instance.getId() + "-" + UUID.randomUUID();
+
+        instance.setStatus(WorkflowInstance.InstanceStatus.PAUSED);
+        instance.setNextStepIndex(nextStep);
+        instance.setResumeAt(LocalDateTime.now().plus(Duration.ofMillis(replyTimeoutMs)));
+        instance.setCorrelationId(correlationId);
+        instance.setContextData(convertContextToString(contextData));
+        persist(instance);
+        replyTimeouts.put(instance.getId(), timers.schedule(instance.getId(), replyTimeoutMs));
+        log.info("Workflow {} waiting up to {} ms for the reply to step {}",
+                instance.getInstanceName(), replyTimeoutMs, step.name());
+
+        try {
+            if (step instanceof WorkflowStep.ServiceCall serviceCall) {
+                executeServiceCall(serviceCall, contextData, delivery, correlationId);
+            } else if (step instanceof WorkflowStep.GraphQlCall graphQlCall) {
+                executeGraphQLCall(graphQlCall, contextData, delivery, correlationId);
+            }
+            delivery.checkpoint();
+        } catch (RuntimeException e) {
+            // The request may not have gone out: take the instance back and fail it, unless a reply won the race.
+            if (workflowInstanceRepository.claimReply(correlationId, LocalDateTime.now()) == 1) {
+                HashedTimerWheel.Timeout timeout = replyTimeouts.remove(instance.getId());
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+                throw e;
+            }
+            log.warn("Request of step {} reported a failure after its reply arrived", step.name(), e);
         }
+    }
+
+    private static String replyTopic(String correlationId) {
+        return correlationId != null ? ServiceCallReplyMessage.TOPIC : null;
+    }
 
-        log.info("Delaying workflow for {} ms", delayMs);
+    /**
+     * JSON response bodies become maps and lists, so conditions can read them; anything else stays a string.
+     */
+    private Object readReplyBody(String body) {
+        if (body == null || body.isBlank()) {
+            return body;
+        }
         try {
-            Thread.sleep(delayMs);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Delay step interrupted", e);
+            return objectMapper.readValue(body, Object.class);
+        } catch (Exception e) {
+            return body;
         }
     }
 
     @LogExecution
-    private void executeExternalEvent(JsonNode step, Map<String, Object> contextData) {
-        String eventType = step.path("eventType").asText("generic");
+    private void executeExternalEvent(WorkflowStep.ExternalEvent step, Map<String, Object> contextData, WorkflowDelivery delivery) {
+        String eventType = step.eventType();
 
         log.info("Publishing external event of type: {}", eventType);
 
-        Map<String, Object> eventMessage = Map.of(
-                "type", eventType,
-                "payload", contextData,
-                "timestamp", LocalDateTime.now().toString()
-        );
+        ExternalEventMessage eventMessage = new ExternalEventMessage(
+                eventType, contextData, System.currentTimeMillis());
 
-        kafkaTemplate.send("workflow-external-events", eventMessage);
+        delivery.send("workflow-external-events", eventMessage);
     }
 
+    /**
+     * Returns the index of the step to jump to, or -1 to continue with the next step.
+     */
     @LogExecution
-    private void executeCondition(JsonNode step, Map<String, Object> contextData) {
-        String condition = step.get("condition").asText();
-        String trueStep = step.get("trueStep").asText();
-        String falseStep = step.get("falseStep").asText();
+    private int executeCondition(WorkflowStep.Condition step, Map<String, Object> contextData) {
+        boolean conditionResult = step.expression().test(contextData);
+        String target = conditionResult ? step.trueStep() : step.falseStep();
 
-        log.info("Evaluating condition: {}", condition);
-
-        // Simple condition evaluation (in real implementation, use a proper expression evaluator)
-        boolean conditionResult = evaluateCondition(condition, contextData);
-
-        if (conditionResult) {
-            log.info("Condition is true, executing step: {}", trueStep);
-        } else {
-            log.info("Condition is false, executing step: {}", falseStep);
-        }
+        log.info("Condition '{}' of step {} is {}, next step: {}", step.condition(), step.name(), conditionResult,
+                target == null || target.isBlank() ? "(next)" : target);
+        return step.next(conditionResult);
     }
 
-    private boolean evaluateCondition(String condition, Map<String, Object> contextData) {
-        // Simple condition evaluation - in real implementation, use a proper expression evaluator
-        return condition.contains("true") || condition.contains("1");
+    private static long millisUntil(LocalDateTime time) {
+        return Duration.between(LocalDateTime.now(), time).toMillis();
     }
 
     private String convertContextToString(Map<String, Object> contextData) {
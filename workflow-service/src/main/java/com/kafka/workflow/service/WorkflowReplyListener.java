@@ -0,0 +1,28 @@
+package com.kafka.workflow.service;
+
+import com.kafka.shared.messaging.ServiceCallReplyMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+/**
+ * Feeds the replies of cbi-service to {@link WorkflowEngine#onReply}. Every replica of workflow-service joins
+ * the same group; whichever receives a reply claims the waiting instance through the database.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WorkflowReplyListener {
+
+    private final WorkflowEngine workflowEngine;
+
+    @KafkaListener(topics = ServiceCallReplyMessage.TOPIC, groupId = "workflow-service-group")
+    public void handleReply(@Payload ServiceCallReplyMessage reply, Acknowledgment acknowledgment) {
+        log.debug("Received reply {} (success: {})", reply.correlationId(), reply.success());
+        workflowEngine.onReply(reply);
+        acknowledgment.acknowledge();
+    }
+}
@@ -0,0 +1,239 @@
+package com.kafka.workflow.timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timer wheel for very many coarse timers, each identified by a {@code long} (e.g. an entity id).
+ * <p>
+ * Time is divided into ticks of {@code tickMs}; a timer lands in bucket {@code deadlineTick % wheelSize} with
+ * the number of full rotations still to wait. Scheduling and cancelling are O(1) and lock-free for callers:
+ * they only enqueue, and a single worker thread moves new timers into buckets and expires one bucket per tick.
+ * A pending timer costs one small node, so millions of them are cheap. Timers fire up to one tick late.
+ * <p>
+ * Expired ids are handed to {@code handler} on {@code executor}, so slow handlers never hold up the wheel.
+ */
+@Slf4j
+public class HashedTimerWheel {
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    public final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final long id;
+        private final long deadlineNanos;
+        private volatile int state = PENDING;
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout previous;
+        private Bucket bucket;
+
+        private Timeout(long id, long deadlineNanos) {
+            this.id = id;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        /**
+         * @return {@code false} if the timer already fired or was cancelled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            cancelled.add(this);
+            return true;
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.previous != null) {
+                timeout.previous.next = next;
+            }
+            if (next != null) {
+                next.previous = timeout.previous;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.previous;
+            }
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+            return next;
+        }
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+    private final LongConsumer handler;
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedTimerWheel(String name, long tickMs, int wheelSize, Executor executor, LongConsumer handler) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(1, Math.min(wheelSize, 1 << 20)) - 1) << 1;
+        this.wheel = new Bucket[Math.max(1, size)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.executor = executor;
+        this.handler = handler;
+        this.startNanos = System.nanoTime();
+        this.worker = Thread.ofPlatform().name(name).daemon().unstarted(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Fire {@code id} after {@code delayMs} (immediately, on the next tick, if not positive).
+     */
+    public Timeout schedule(long id, long delayMs) {
+        if (!running) {
+            throw new IllegalStateException("Timer wheel is stopped");
+        }
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        Timeout timeout = new Timeout(id, System.nanoTime() - startNanos + delayNanos);
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the worker; timers that have not fired are dropped.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = (tick + 1) * tickNanos;
+            long sleep = tickDeadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            removeCancelled();
+            transferAdditions();
+            expire(wheel[(int) (tick & mask)], tickDeadline);
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            // Cancelled before its transfer: it is skipped there instead.
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void transferAdditions() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = additions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state == Timeout.CANCELLED) {
+                pending.decrementAndGet();
+                continue;
+            }
+            long deadlineTick = timeout.deadlineNanos / tickNanos;
+            timeout.remainingRounds = Math.max(0, (deadlineTick - tick) / wheel.length);
+            // Timers already due go into the current bucket and expire on this tick.
+            wheel[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket, long tickDeadline) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                timeout = timeout.next;
+                continue;
+            }
+            if (timeout.deadlineNanos > tickDeadline) {
+                // Placed by rounding for a later tick of this bucket; not due yet.
+                timeout = timeout.next;
+                continue;
+            }
+            Timeout next = bucket.remove(timeout);
+            pending.decrementAndGet();
+            if (Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+                fire(timeout.id);
+            }
+            timeout = next;
+        }
+    }
+
+    private void fire(long id) {
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.accept(id);
+                } catch (RuntimeException e) {
+                    log.error("Timer {} failed", id, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not dispatch timer {}", id, e);
+        }
+    }
+}
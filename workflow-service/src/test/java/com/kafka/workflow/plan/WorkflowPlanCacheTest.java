@@ -0,0 +1,56 @@
+package com.kafka.workflow.plan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.dto.WorkflowDefinition;
+import org.junit.jupiter.api.Test;
+
+import static com.kafka.workflow.plan.WorkflowPlanCompilerTest.definition;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class WorkflowPlanCacheTest {
+
+    private static final String JSON = """
+            {"steps": [{"name": "charge", "type": "service_call", "service": "billing", "endpoint": "/charge"}]}""";
+
+    private final WorkflowPlanCompiler compiler = spy(new WorkflowPlanCompiler(new ObjectMapper()));
+    private final WorkflowPlanCache cache = new WorkflowPlanCache(compiler);
+
+    @Test
+    void reusesThePlanWhileTheDefinitionIsUnchanged() {
+        WorkflowDefinition definition = definition(JSON);
+
+        WorkflowPlan first = cache.planFor(definition);
+
+        assertThat(cache.planFor(definition.toBuilder().build())).isSameAs(first);
+        verify(compiler, times(1)).compile(definition);
+    }
+
+    @Test
+    void recompilesWhenTheVersionOrUpdateTimeChanges() {
+        WorkflowDefinition definition = definition(JSON);
+        WorkflowPlan first = cache.planFor(definition);
+
+        WorkflowPlan newVersion = cache.planFor(definition.toBuilder().version("2").build());
+        WorkflowPlan edited = cache.planFor(definition.toBuilder().version("2")
+                .updatedAt(definition.getUpdatedAt().plusMinutes(1)).build());
+
+        assertThat(newVersion).isNotSameAs(first);
+        assertThat(newVersion.version()).isEqualTo("2");
+        assertThat(edited).isNotSameAs(newVersion);
+    }
+
+    @Test
+    void invalidatedAndUnsavedDefinitionsAreCompiledAgain() {
+        WorkflowDefinition definition = definition(JSON);
+        WorkflowPlan first = cache.planFor(definition);
+
+        cache.invalidate(definition.getId());
+        assertThat(cache.planFor(definition)).isNotSameAs(first);
+
+        WorkflowDefinition unsaved = definition.toBuilder().id(null).build();
+        assertThat(cache.planFor(unsaved)).isNotSameAs(cache.planFor(unsaved));
+    }
+}
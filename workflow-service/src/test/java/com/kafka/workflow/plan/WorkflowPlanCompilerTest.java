@@ -0,0 +1,150 @@
+package com.kafka.workflow.plan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.dto.WorkflowDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.InstanceOfAssertFactories.type;
+
+class WorkflowPlanCompilerTest {
+
+    private final WorkflowPlanCompiler compiler = new WorkflowPlanCompiler(new ObjectMapper());
+
+    @Test
+    void compilesEveryStepTypeAndResolvesConditionTargets() {
+        WorkflowPlan plan = compiler.compile(definition("""
+                {"steps": [
+                  {"name": "check", "type": "condition", "condition": "amount > 100", "trueStep": "charge", "falseStep": ""},
+                  {"name": "notify", "type": "notification", "notificationType": "email", "message": "small"},
+                  {"name": "charge", "type": "service_call", "service": "billing", "endpoint": "/charge"},
+                  {"name": "report", "type": "data_processing", "processingType": "aggregate", "batchSize": "50"},
+                  {"name": "nightly", "type": "schedule_task", "task": "cleanup", "cron": "0 0 2 * * *"},
+                  {"name": "wait", "type": "delay", "delayMs": 1000},
+                  {"name": "query", "type": "graphql_call", "service": "catalog"},
+                  {"name": "event", "type": "external_event"}
+                ]}"""));
+
+        assertThat(plan.steps()).extracting(WorkflowStep::type).containsExactly("condition", "notification",
+                "service_call", "data_processing", "schedule_task", "delay", "graphql_call", "external_event");
+        assertThat(plan.steps().get(0)).asInstanceOf(type(WorkflowStep.Condition.class))
+                .satisfies(condition -> {
+                    assertThat(condition.next(true)).isEqualTo(2);
+                    assertThat(condition.next(false)).isEqualTo(-1);
+                    assertThat(condition.expression()).isNotNull();
+                });
+        assertThat(plan.steps().get(3)).isEqualTo(new WorkflowStep.DataProcessing("report", "aggregate", 50));
+        assertThat(plan.steps().get(7)).isEqualTo(new WorkflowStep.ExternalEvent("event", "generic"));
+        assertThat(plan.revision()).hasSize(32);
+    }
+
+    @Test
+    void definitionWithoutStepsCompilesToAnEmptyPlan() {
+        assertThat(compiler.compile(definition("{}")).steps()).isEmpty();
+    }
+
+    @Test
+    void reportsEveryProblemTogether() {
+        assertThatThrownBy(() -> compiler.compile(definition("""
+                {"steps": [
+                  {"name": "a", "type": "service_call", "service": "billing"},
+                  {"name": "a", "type": "delay", "delayMs": -5},
+                  {"name": "b", "type": "schedule_task", "task": "cleanup", "cron": "every day"},
+                  {"name": "c", "type": "condition", "condition": "amount >", "trueStep": "", "falseStep": ""},
+                  {"name": "d", "type": "teleport"},
+                  {"name": "e", "type": "condition", "condition": "amount > 1", "trueStep": "missing", "falseStep": ""}
+                ]}""")))
+                .asInstanceOf(type(InvalidWorkflowDefinitionException.class))
+                .extracting(InvalidWorkflowDefinitionException::getErrors)
+                .asList()
+                .containsExactlyInAnyOrder(
+                        "step 'a': 'endpoint' is required",
+                        "step 1: duplicate step name 'a'",
+                        "step 'a': 'delayMs' must be a non-negative integer",
+                        "step 'b': 'cron' is not a valid cron expression: every day",
+                        "step 'd': unknown step type 'teleport'",
+                        "step 'c': invalid condition: Unexpected end of expression at position 8",
+                        "step 'e': branch target 'missing' is not a step");
+    }
+
+    @Test
+    void compilesParallelBranchesWithDefaultNames() {
+        WorkflowPlan plan = compiler.compile(definition("""
+                {"steps": [
+                  {"name": "fan-out", "type": "parallel", "branches": [
+                    {"name": "billing", "timeoutMs": 5000, "steps": [
+                      {"name": "charge", "type": "service_call", "service": "billing", "endpoint": "/charge"}]},
+                    {"steps": [
+                      {"name": "check", "type": "condition", "condition": "amount > 100", "trueStep": "", "falseStep": "mail"},
+                      {"name": "skip", "type": "delay", "delayMs": 0},
+                      {"name": "mail", "type": "notification", "notificationType": "email", "message": "ordered"}]}
+                  ]}
+                ]}"""));
+
+        assertThat(plan.steps()).singleElement().asInstanceOf(type(WorkflowStep.Parallel.class))
+                .satisfies(parallel -> {
+                    assertThat(parallel.branches()).extracting(WorkflowStep.Branch::name)
+                            .containsExactly("billing", "fan-out-1");
+                    assertThat(parallel.branches()).extracting(WorkflowStep.Branch::timeoutMs)
+                            .containsExactly(5000L, 0L);
+                    // Jump targets are indexes into the branch's own step list.
+                    assertThat(parallel.branches().get(1).steps().get(0))
+                            .asInstanceOf(type(WorkflowStep.Condition.class))
+                            .satisfies(condition -> assertThat(condition.next(false)).isEqualTo(2));
+                });
+    }
+
+    @Test
+    void rejectsBranchesThatPauseOrJumpOutOfTheirStepList() {
+        assertThatThrownBy(() -> compiler.compile(definition("""
+                {"steps": [
+                  {"name": "before", "type": "external_event"},
+                  {"name": "fan-out", "type": "parallel", "branches": [
+                    {"name": "wait", "steps": [{"name": "sleep", "type": "delay", "delayMs": 1000}]},
+                    {"name": "jump", "steps": [
+                      {"name": "check", "type": "condition", "condition": "amount > 1", "trueStep": "before", "falseStep": ""}]}
+                  ]},
+                  {"name": "empty", "type": "parallel", "branches": []}
+                ]}""")))
+                .asInstanceOf(type(InvalidWorkflowDefinitionException.class))
+                .extracting(InvalidWorkflowDefinitionException::getErrors)
+                .asList()
+                .hasSize(3)
+                .anySatisfy(error -> assertThat(error).asString()
+                        .contains("delay steps cannot pause inside a parallel branch"))
+                .anySatisfy(error -> assertThat(error).asString().contains("not in the same step list"))
+                .anySatisfy(error -> assertThat(error).asString()
+                        .isEqualTo("step 'empty': 'branches' must be a non-empty array"));
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertThatThrownBy(() -> compiler.compile(definition("{\"steps\": {}}")))
+                .hasMessageContaining("steps must be an array");
+        assertThatThrownBy(() -> compiler.compile(definition("{not json")))
+                .hasMessageContaining("definitionJson is not valid JSON");
+    }
+
+    @Test
+    void revisionChangesWithTheVersionAndTheJson() {
+        WorkflowDefinition definition = definition("{}");
+
+        assertThat(WorkflowPlan.revisionOf(definition))
+                .isEqualTo(WorkflowPlan.revisionOf(definition.toBuilder().build()))
+                .isNotEqualTo(WorkflowPlan.revisionOf(definition.toBuilder().version("2").build()))
+                .isNotEqualTo(WorkflowPlan.revisionOf(definition.toBuilder().definitionJson("{ }").build()));
+    }
+
+    static WorkflowDefinition definition(String json) {
+        return WorkflowDefinition.builder()
+                .id(7L)
+                .name("orders")
+                .version("1")
+                .definitionJson(json)
+                .updatedAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.kafka.workflow.plan.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionParserTest {
+
+    private static final Map<String, Object> CONTEXT = Map.of(
+            "amount", 150,
+            "status", "approved",
+            "flag", true,
+            "customer", Map.of("tier", "gold", "name", " Ada "),
+            "order", Map.of("items", List.of(Map.of("price", 12.5), Map.of("price", 7))));
+
+    @Test
+    void comparesNumbersWhateverTheirBoxedType() {
+        assertThat(test("amount > 100")).isTrue();
+        assertThat(test("amount >= 150.0")).isTrue();
+        assertThat(test("amount == '150'")).isTrue();
+        assertThat(test("amount < 100")).isFalse();
+    }
+
+    @Test
+    void appliesPrecedenceOfBooleanOperators() {
+        assertThat(test("false || true && true")).isTrue();
+        assertThat(test("(false || true) && false")).isFalse();
+        assertThat(test("not status == 'rejected' and flag")).isTrue();
+        assertThat(test("!flag or amount > 1000")).isFalse();
+    }
+
+    @Test
+    void resolvesNestedPathsNullSafely() {
+        assertThat(evaluate("order.items[0].price")).isEqualTo(12.5);
+        assertThat(evaluate("customer?.tier")).isEqualTo("gold");
+        assertThat(evaluate("context.customer['tier']")).isEqualTo("gold");
+        assertThat(evaluate("missing.deeper[3].value")).isNull();
+        assertThat(evaluate("order.items[5].price")).isNull();
+    }
+
+    @Test
+    void evaluatesArithmeticAndStringConcatenation() {
+        assertThat(evaluate("order.items[0].price + order.items[1].price")).isEqualTo(19.5);
+        assertThat(evaluate("amount / 3 * 2")).isEqualTo(100L);
+        assertThat(evaluate("-amount % 7")).isEqualTo(-3L);
+        assertThat(evaluate("'tier: ' + customer.tier")).isEqualTo("tier: gold");
+        assertThat(evaluate("amount + missing")).isNull();
+    }
+
+    @Test
+    void callsBuiltInFunctions() {
+        assertThat(evaluate("upper(trim(customer.name))")).isEqualTo("ADA");
+        assertThat(evaluate("length(order.items)")).isEqualTo(2L);
+        assertThat(evaluate("coalesce(missing, customer.tier)")).isEqualTo("gold");
+        assertThat(evaluate("max(1, amount, 20)")).isEqualTo(150);
+        assertThat(test("matches(status, '^app.*')")).isTrue();
+        assertThat(test("startsWith(status, 'app') && exists(customer) && empty(missing)")).isTrue();
+    }
+
+    @Test
+    void foldsLiteralSubExpressionsAtParseTime() {
+        assertThat(ExpressionParser.parse("1 + 2 * 3")).isInstanceOf(Nodes.Literal.class);
+        assertThat(ExpressionParser.parse("1 + 2 * 3").evaluate(Map.of())).isEqualTo(7L);
+        assertThat(ExpressionParser.parse("amount + 2 * 3")).isInstanceOf(Nodes.Arithmetic.class);
+    }
+
+    @Test
+    void reportsSyntaxErrorsWithTheirPosition() {
+        assertThatThrownBy(() -> ExpressionParser.parse("amount >"))
+                .isInstanceOf(ExpressionException.class)
+                .hasMessageContaining("Unexpected end of expression");
+        assertThatThrownBy(() -> ExpressionParser.parse("1 < 2 < 3"))
+                .isInstanceOf(ExpressionException.class)
+                .hasMessageContaining("cannot be chained");
+        assertThatThrownBy(() -> ExpressionParser.parse("amount ) 1"))
+                .isInstanceOf(ExpressionException.class)
+                .satisfies(e -> assertThat(((ExpressionException) e).getPosition()).isEqualTo(7));
+        assertThatThrownBy(() -> ExpressionParser.parse("frobnicate(amount)"))
+                .hasMessageContaining("Unknown function 'frobnicate'");
+        assertThatThrownBy(() -> ExpressionParser.parse("matches(status, status)"))
+                .hasMessageContaining("string literal pattern");
+        assertThatThrownBy(() -> ExpressionParser.parse("  "))
+                .isInstanceOf(ExpressionException.class);
+    }
+
+    private static Object evaluate(String source) {
+        return ExpressionParser.parse(source).evaluate(CONTEXT);
+    }
+
+    private static boolean test(String source) {
+        return ExpressionParser.parse(source).test(CONTEXT);
+    }
+}
@@ -0,0 +1,203 @@
+package com.kafka.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.dto.WorkflowDefinition;
+import com.kafka.workflow.dto.BulkExecutionStatus;
+import com.kafka.workflow.dto.WorkflowInstance;
+import com.kafka.workflow.plan.InvalidWorkflowDefinitionException;
+import com.kafka.workflow.plan.WorkflowPlanCache;
+import com.kafka.workflow.plan.WorkflowPlanCompiler;
+import com.kafka.workflow.repository.WorkflowInstanceBatchInserter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class BulkExecutionServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WorkflowEngine workflowEngine = mock(WorkflowEngine.class);
+    private final WorkflowInstanceBatchInserter batchInserter = mock(WorkflowInstanceBatchInserter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WorkflowCheckpointWriter checkpoints =
+            new WorkflowCheckpointWriter(mock(JdbcTemplate.class), meterRegistry, 1000, 120_000);
+    /** Settle callbacks of the started instances, in start order. */
+    private final List<Consumer<WorkflowInstance.InstanceStatus>> started = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    BulkExecutionServiceTest() {
+        doAnswer(invocation -> {
+            invocation.<List<WorkflowInstance>>getArgument(0).forEach(instance -> instance.setId(ids.incrementAndGet()));
+            return null;
+        }).when(batchInserter).insertRunning(anyList());
+        doAnswer(invocation -> {
+            started.add(invocation.getArgument(3));
+            return null;
+        }).when(workflowEngine).start(any(), any(), any(), any());
+    }
+
+    @Test
+    void startsOneInstancePerLineAndFinishesWhenAllSettled() {
+        BulkExecutionService service = service(2, 10);
+
+        BulkExecutionStatus status = service.execute(definition(), ndjson("""
+                {"orderId": 1}
+
+                {"orderId": 2
+                {"orderId": 3}
+                [1, 2]
+                """));
+
+        assertThat(status.state()).isEqualTo(BulkExecutionStatus.State.RUNNING);
+        assertThat(status.accepted()).isEqualTo(2);
+        assertThat(status.rejected()).isEqualTo(2);
+        assertThat(status.errors()).hasSize(2).first().asString().startsWith("line 3: ");
+        assertThat(started).hasSize(2);
+        // The in-flight instances stay tracked so recovery does not take them over.
+        assertThat(checkpoints.isTracked(1)).isTrue();
+
+        started.get(0).accept(WorkflowInstance.InstanceStatus.COMPLETED);
+        started.get(1).accept(WorkflowInstance.InstanceStatus.PAUSED);
+
+        BulkExecutionStatus finished = service.getStatus(status.jobId()).orElseThrow();
+        assertThat(finished.state()).isEqualTo(BulkExecutionStatus.State.DONE);
+        assertThat(finished.completed()).isEqualTo(1);
+        assertThat(finished.suspended()).isEqualTo(1);
+        assertThat(finished.finishedAt()).isNotNull();
+        assertThat(checkpoints.isTracked(1)).isFalse();
+    }
+
+    @Test
+    void brokenInputAbortsTheJobButLeavesAcceptedInstancesRunning() {
+        BulkExecutionService service = service(1, 10);
+        InputStream broken = new SequenceInputStream(ndjson("{\"orderId\": 1}\n{\"orderId\""), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        BulkExecutionStatus status = service.execute(definition(), broken);
+
+        assertThat(status.state()).isEqualTo(BulkExecutionStatus.State.ABORTED);
+        assertThat(status.abortReason()).isEqualTo("Connection reset");
+        assertThat(status.accepted()).isEqualTo(1);
+        assertThat(status.finishedAt()).isNull();
+
+        started.get(0).accept(WorkflowInstance.InstanceStatus.FAILED);
+
+        BulkExecutionStatus settled = service.getStatus(status.jobId()).orElseThrow();
+        assertThat(settled.state()).isEqualTo(BulkExecutionStatus.State.ABORTED);
+        assertThat(settled.failed()).isEqualTo(1);
+        assertThat(settled.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void failedBatchInsertRejectsItsLinesAndAborts() {
+        doThrow(new DataAccessResourceFailureException("database down")).when(batchInserter).insertRunning(anyList());
+
+        BulkExecutionStatus status = service(2, 10).execute(definition(), ndjson("{\"a\": 1}\n{\"a\": 2}\n{\"a\": 3}\n"));
+
+        assertThat(status.state()).isEqualTo(BulkExecutionStatus.State.ABORTED);
+        assertThat(status.accepted()).isZero();
+        assertThat(status.errors()).containsExactly("line 1: not persisted: database down",
+                "line 2: not persisted: database down");
+        assertThat(status.finishedAt()).isNotNull();
+        verifyNoInteractions(workflowEngine);
+    }
+
+    @Test
+    void instancesLeftUnstartedAreHandedToRecovery() {
+        doAnswer(invocation -> {
+            if (started.size() == 1) {
+                throw new IllegalStateException("executor shut down");
+            }
+            started.add(invocation.getArgument(3));
+            return null;
+        }).when(workflowEngine).start(any(), any(), any(), any());
+
+        BulkExecutionStatus status = service(3, 10).execute(definition(), ndjson("{\"a\": 1}\n{\"a\": 2}\n{\"a\": 3}\n"));
+
+        assertThat(status.state()).isEqualTo(BulkExecutionStatus.State.ABORTED);
+        assertThat(status.accepted()).isEqualTo(1);
+        assertThat(status.errors()).containsExactly(
+                "line 2: not started, left to recovery: executor shut down",
+                "line 3: not started, left to recovery: executor shut down");
+        assertThat(checkpoints.isTracked(1)).isTrue();
+        assertThat(checkpoints.isTracked(2)).isFalse();
+        assertThat(checkpoints.isTracked(3)).isFalse();
+    }
+
+    @Test
+    void stopsReadingWhileMaxInFlightInstancesRun() throws Exception {
+        BulkExecutionService service = service(1, 1);
+
+        CompletableFuture<BulkExecutionStatus> execution = CompletableFuture.supplyAsync(
+                () -> service.execute(definition(), ndjson("{\"a\": 1}\n{\"a\": 2}\n")));
+
+        Thread.sleep(200);
+        assertThat(execution).isNotDone();
+        assertThat(started).hasSize(1);
+
+        started.get(0).accept(WorkflowInstance.InstanceStatus.COMPLETED);
+        BulkExecutionStatus status = execution.get(5, TimeUnit.SECONDS);
+        assertThat(status.accepted()).isEqualTo(2);
+        assertThat(started).hasSize(2);
+    }
+
+    @Test
+    void invalidDefinitionFailsBeforeReadingAnything() {
+        WorkflowDefinition invalid = definition().toBuilder().definitionJson("{\"steps\": [{\"name\": \"x\"}]}").build();
+        InputStream untouched = mock(InputStream.class);
+
+        assertThatThrownBy(() -> service(2, 10).execute(invalid, untouched))
+                .isInstanceOf(InvalidWorkflowDefinitionException.class);
+        verifyNoInteractions(untouched);
+        verify(batchInserter, never()).insertRunning(anyList());
+    }
+
+    private BulkExecutionService service(int batchSize, int maxInFlight) {
+        return new BulkExecutionService(objectMapper, workflowEngine,
+                new WorkflowPlanCache(new WorkflowPlanCompiler(objectMapper)), batchInserter, checkpoints,
+                meterRegistry, batchSize, maxInFlight, 10);
+    }
+
+    private static WorkflowDefinition definition() {
+        return WorkflowDefinition.builder()
+                .id(7L)
+                .name("orders")
+                .version("1")
+                .definitionJson("""
+                        {"steps": [{"name": "confirm", "type": "notification", "notificationType": "email", "message": "ok"}]}""")
+                .updatedAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                .build();
+    }
+
+    private static InputStream ndjson(String lines) {
+        return new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8));
+    }
+}
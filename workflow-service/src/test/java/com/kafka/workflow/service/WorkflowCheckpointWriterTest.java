@@ -0,0 +1,111 @@
+package com.kafka.workflow.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkflowCheckpointWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    /** Rows of every successful batch update, by statement. */
+    private final List<Object> checkpointRows = new ArrayList<>();
+    private final List<Object> heartbeatRows = new ArrayList<>();
+    private boolean databaseDown;
+
+    WorkflowCheckpointWriterTest() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            Collection<?> rows = invocation.getArgument(1);
+            String sql = invocation.getArgument(0);
+            (sql.contains("current_step") ? checkpointRows : heartbeatRows).addAll(rows);
+            return new int[][]{new int[rows.size()]};
+        });
+    }
+
+    @Test
+    void writesOnlyTheLatestCheckpointOfEachInstance() {
+        WorkflowCheckpointWriter writer = writer(120_000);
+        writer.record(1, "a", 1);
+        writer.record(1, "b", 2);
+        writer.record(2, "a", 1);
+        writer.record(1, "c", 3);
+
+        writer.flush();
+
+        assertThat(checkpointRows).hasSize(2)
+                .extracting("instanceId", "currentStep", "nextStep")
+                .containsExactlyInAnyOrder(
+                        tuple(1L, "c", 3),
+                        tuple(2L, "a", 1));
+        writer.flush();
+        assertThat(checkpointRows).hasSize(2);
+    }
+
+    @Test
+    void discardedCheckpointIsNeverWritten() {
+        WorkflowCheckpointWriter writer = writer(120_000);
+        writer.record(1, "a", 1);
+
+        writer.discard(1);
+        writer.flush();
+
+        assertThat(checkpointRows).isEmpty();
+    }
+
+    @Test
+    void failedWriteIsRetriedUnlessANewerCheckpointArrived() {
+        WorkflowCheckpointWriter writer = writer(120_000);
+        writer.record(1, "a", 1);
+        writer.record(2, "a", 1);
+        databaseDown = true;
+        writer.flush();
+
+        writer.record(2, "b", 2);
+        databaseDown = false;
+        writer.flush();
+
+        assertThat(checkpointRows)
+                .extracting("instanceId", "currentStep")
+                .containsExactlyInAnyOrder(
+                        tuple(1L, "a"),
+                        tuple(2L, "b"));
+    }
+
+    @Test
+    void heartbeatRefreshesInstancesTrackedUntilTheirLastUntrack() throws InterruptedException {
+        // recovery grace 4 ms: a heartbeat is due every millisecond
+        WorkflowCheckpointWriter writer = writer(4);
+        writer.track(1);
+        writer.track(1);
+        writer.track(2);
+        writer.untrack(1);
+        writer.untrack(2);
+
+        Thread.sleep(5);
+        writer.flush();
+
+        assertThat(writer.isTracked(1)).isTrue();
+        assertThat(writer.isTracked(2)).isFalse();
+        assertThat(heartbeatRows).containsExactly(1L);
+    }
+
+    private WorkflowCheckpointWriter writer(long recoveryGraceMs) {
+        return new WorkflowCheckpointWriter(jdbcTemplate, new SimpleMeterRegistry(), 1000, recoveryGraceMs);
+    }
+}
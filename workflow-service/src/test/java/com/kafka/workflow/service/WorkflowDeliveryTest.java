@@ -0,0 +1,123 @@
+package com.kafka.workflow.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkflowDeliveryTest {
+
+    private static final String KEY = "instance-42";
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+
+    WorkflowDeliveryTest() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            CompletableFuture<SendResult<String, Object>> send = new CompletableFuture<>();
+            sends.add(send);
+            return send;
+        });
+    }
+
+    @Test
+    void keysEveryMessageByTheInstanceAndCountsOnlyLeadingAcknowledgements() {
+        WorkflowDelivery delivery = delivery(8, 1000);
+
+        delivery.send("service-calls", "step-1");
+        delivery.send("notifications", "step-2");
+        delivery.send("service-calls", "step-3");
+        sends.get(1).complete(null);
+        assertThat(delivery.acknowledged()).isZero();
+
+        sends.get(0).complete(null);
+        assertThat(delivery.acknowledged()).isEqualTo(2);
+        assertThat(delivery.sent()).isEqualTo(3);
+        verify(kafkaTemplate, times(2)).send(eq("service-calls"), eq(KEY), any());
+        verify(kafkaTemplate).send("notifications", KEY, "step-2");
+    }
+
+    @Test
+    void checkpointWaitsForEverythingSentSoFar() {
+        WorkflowDelivery delivery = delivery(8, 1000);
+        delivery.send("service-calls", "step-1");
+        delivery.send("service-calls", "step-2");
+        sends.forEach(send -> CompletableFuture.runAsync(() -> send.complete(null)));
+
+        delivery.checkpoint();
+
+        assertThat(delivery.acknowledged()).isEqualTo(2);
+        delivery.send("service-calls", "step-3");
+        assertThat(delivery.sent()).isEqualTo(3);
+        assertThat(delivery.acknowledged()).isEqualTo(2);
+    }
+
+    @Test
+    void aFailedDeliveryFailsTheNextSendAndCheckpoint() {
+        WorkflowDelivery delivery = delivery(8, 1000);
+        delivery.send("service-calls", "step-1");
+        sends.get(0).completeExceptionally(new IllegalStateException("broker down"));
+
+        assertThatThrownBy(() -> delivery.send("service-calls", "step-2"))
+                .isInstanceOf(WorkflowDelivery.DeliveryFailure.class)
+                .hasMessageContaining("service-calls")
+                .hasMessageContaining("broker down");
+        assertThatThrownBy(delivery::checkpoint).isInstanceOf(WorkflowDelivery.DeliveryFailure.class);
+        assertThat(delivery.acknowledged()).isZero();
+    }
+
+    @Test
+    void waitsForASlotOnceMaxInFlightMessagesAreOutstanding() {
+        WorkflowDelivery delivery = delivery(2, 50);
+        delivery.send("service-calls", "step-1");
+        delivery.send("service-calls", "step-2");
+
+        assertThatThrownBy(() -> delivery.send("service-calls", "step-3"))
+                .isInstanceOf(WorkflowDelivery.DeliveryFailure.class)
+                .hasMessageContaining("Timed out");
+
+        sends.get(0).complete(null);
+        delivery.send("service-calls", "step-3");
+        assertThat(sends).hasSize(3);
+    }
+
+    @Test
+    void forkedBranchesShareTheLimitAndFailureButCheckpointTheirOwnMessages() {
+        WorkflowDelivery parent = delivery(2, 50);
+        WorkflowDelivery left = parent.fork();
+        WorkflowDelivery right = parent.fork();
+
+        left.send("service-calls", "left-1");
+        right.send("service-calls", "right-1");
+        assertThatThrownBy(() -> parent.send("service-calls", "join"))
+                .hasMessageContaining("Timed out");
+
+        sends.get(0).complete(null);
+        left.checkpoint();
+        assertThat(left.acknowledged()).isEqualTo(1);
+        assertThat(right.acknowledged()).isZero();
+
+        sends.get(1).completeExceptionally(new IllegalStateException("broker down"));
+        assertThatThrownBy(left::checkpoint).hasMessageContaining("broker down");
+        assertThatThrownBy(parent::checkpoint).hasMessageContaining("broker down");
+    }
+
+    private WorkflowDelivery delivery(int maxInFlight, long ackTimeoutMs) {
+        return new WorkflowDelivery(kafkaTemplate, new SimpleMeterRegistry(), KEY, maxInFlight, ackTimeoutMs);
+    }
+}
@@ -0,0 +1,344 @@
+package com.kafka.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.shared.dto.WorkflowDefinition;
+import com.kafka.shared.messaging.ServiceCallMessage;
+import com.kafka.shared.messaging.ServiceCallReplyMessage;
+import com.kafka.workflow.dto.WorkflowInstance;
+import com.kafka.workflow.plan.WorkflowPlan;
+import com.kafka.workflow.plan.WorkflowPlanCache;
+import com.kafka.workflow.plan.WorkflowPlanCompiler;
+import com.kafka.workflow.repository.WorkflowDefinitionRepository;
+import com.kafka.workflow.repository.WorkflowInstanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkflowEngineTest {
+
+    private static final long INSTANCE_ID = 42L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final WorkflowInstanceRepository instances = mock(WorkflowInstanceRepository.class);
+    private final WorkflowDefinitionRepository definitions = mock(WorkflowDefinitionRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WorkflowCheckpointWriter checkpoints =
+            new WorkflowCheckpointWriter(mock(JdbcTemplate.class), meterRegistry, 1000, 120_000);
+    /** Topics in send order. */
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<Object> messages = new CopyOnWriteArrayList<>();
+    /** A copy of the instance at every save. */
+    private final BlockingQueue<WorkflowInstance> saved = new LinkedBlockingQueue<>();
+    private volatile WorkflowInstance latest;
+    /** Acknowledgement of a send by topic; acknowledged at once unless replaced. */
+    private Function<String, CompletableFuture<SendResult<String, Object>>> acknowledgement =
+            topic -> CompletableFuture.completedFuture(null);
+    // ack timeout 2 s, branch timeout 5 s, reply timeout 200 ms, 10 ms ticks, recovery grace 1 s
+    private final WorkflowEngine engine = new WorkflowEngine(objectMapper, kafkaTemplate, instances, definitions,
+            new WorkflowPlanCache(new WorkflowPlanCompiler(objectMapper)), checkpoints, meterRegistry, 32, 2000, 16,
+            5000, 200, 10, 64, 1000);
+
+    WorkflowEngineTest() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            String topic = invocation.getArgument(0);
+            messages.add(invocation.getArgument(2));
+            sent.add(topic);
+            return acknowledgement.apply(topic);
+        });
+        when(instances.save(any())).thenAnswer(invocation -> {
+            WorkflowInstance instance = invocation.getArgument(0);
+            if (instance.getId() == null) {
+                // What @GeneratedValue and @PrePersist do on the first save
+                instance.setId(INSTANCE_ID);
+                instance.setStatus(WorkflowInstance.InstanceStatus.RUNNING);
+                instance.setStartedAt(LocalDateTime.now());
+            }
+            latest = instance.toBuilder().build();
+            saved.add(latest);
+            return instance;
+        });
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        engine.shutdown();
+    }
+
+    @Test
+    void forksTheBranchesOfAParallelStepAndJoinsThemBeforeTheNextStep() throws InterruptedException {
+        // Neither branch is acknowledged before both have sent: branches run one after the other would time out.
+        CompletableFuture<SendResult<String, Object>> bothBranchesSent = new CompletableFuture<>();
+        acknowledgement = topic -> {
+            if (topic.equals("workflow-external-events")) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (sent.containsAll(List.of("data-processing", "notifications"))) {
+                bothBranchesSent.complete(null);
+            }
+            return bothBranchesSent;
+        };
+
+        engine.executeWorkflow(definition(FAN_OUT), Map.of("orderId", 1));
+
+        WorkflowInstance settled = settled();
+        assertThat(settled.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.COMPLETED);
+        assertThat(sent).hasSize(3).endsWith("workflow-external-events");
+    }
+
+    @Test
+    void branchThatOverrunsItsTimeoutFailsTheStep() throws InterruptedException {
+        // The billing branch is never acknowledged and has 100 ms to finish.
+        acknowledgement = topic -> topic.equals("data-processing")
+                ? new CompletableFuture<>() : CompletableFuture.completedFuture(null);
+
+        engine.executeWorkflow(definition(FAN_OUT.replace("\"name\": \"billing\"",
+                "\"name\": \"billing\", \"timeoutMs\": 100")), Map.of());
+
+        WorkflowInstance settled = settled();
+        assertThat(settled.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.FAILED);
+        assertThat(settled.getErrorMessage()).isEqualTo("Branch 'billing' of parallel step 'fan-out' timed out");
+        assertThat(sent).doesNotContain("workflow-external-events");
+    }
+
+    @Test
+    void failedBranchFailsTheStep() throws InterruptedException {
+        acknowledgement = topic -> topic.equals("data-processing")
+                ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                : CompletableFuture.completedFuture(null);
+
+        engine.executeWorkflow(definition(FAN_OUT), Map.of());
+
+        WorkflowInstance settled = settled();
+        assertThat(settled.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.FAILED);
+        // Branches share the delivery failure, so whichever reports first names the same cause.
+        assertThat(settled.getErrorMessage()).contains("of parallel step 'fan-out' failed: "
+                + "Failed to deliver to data-processing: broker down");
+        assertThat(sent).doesNotContain("workflow-external-events");
+    }
+
+    @Test
+    void serviceCallWaitsForTheReplyWithItsCorrelationIdAndStoresTheBody() throws Exception {
+        engine.executeWorkflow(definition(QUOTE), Map.of("orderId", 1));
+
+        WorkflowInstance paused = settled();
+        assertThat(paused.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.PAUSED);
+        assertThat(paused.getNextStepIndex()).isEqualTo(1);
+        String correlationId = paused.getCorrelationId();
+        assertThat(correlationId).startsWith(INSTANCE_ID + "-");
+        ServiceCallMessage request = (ServiceCallMessage) awaitMessage("service-calls");
+        assertThat(request.correlationId()).isEqualTo(correlationId);
+        assertThat(request.replyTo()).isEqualTo(ServiceCallReplyMessage.TOPIC);
+
+        claimedByReply(paused);
+        engine.onReply(ServiceCallReplyMessage.success(correlationId, "{\"total\": 120}"));
+
+        WorkflowInstance completed = settled();
+        assertThat(completed.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.COMPLETED);
+        assertThat(completed.getCorrelationId()).isNull();
+        assertThat(objectMapper.readTree(completed.getContextData()).at("/quote/total").asInt()).isEqualTo(120);
+        assertThat(sent).containsExactly("service-calls", "notifications");
+
+        // A duplicate finds nothing left to claim.
+        when(instances.claimReply(eq(correlationId), any())).thenReturn(0);
+        engine.onReply(ServiceCallReplyMessage.success(correlationId, "{}"));
+        verify(instances, times(1)).findByCorrelationId(correlationId);
+    }
+
+    @Test
+    void failedReplyFailsTheInstance() throws InterruptedException {
+        engine.executeWorkflow(definition(QUOTE), Map.of());
+        WorkflowInstance paused = settled();
+
+        claimedByReply(paused);
+        engine.onReply(ServiceCallReplyMessage.failure(paused.getCorrelationId(), "503 from pricing"));
+
+        WorkflowInstance failed = settled();
+        assertThat(failed.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.FAILED);
+        assertThat(failed.getErrorMessage()).isEqualTo("Step 'quote' failed: 503 from pricing");
+        assertThat(sent).containsExactly("service-calls");
+    }
+
+    @Test
+    void missingReplyFailsTheInstanceWhenItsTimeoutFires() throws InterruptedException {
+        when(instances.claimPaused(eq(INSTANCE_ID), any(), any())).thenReturn(1);
+        when(instances.findById(INSTANCE_ID)).thenAnswer(invocation -> Optional.of(claimed(latest)));
+        engine.executeWorkflow(definition(QUOTE), Map.of());
+        WorkflowInstance paused = settled();
+
+        WorkflowInstance failed = settled();
+
+        assertThat(failed.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.FAILED);
+        assertThat(failed.getErrorMessage()).startsWith("No reply to step 'quote' before ");
+        // The reply arriving after the timeout finds nothing to claim.
+        engine.onReply(ServiceCallReplyMessage.success(paused.getCorrelationId(), "{}"));
+        verify(instances, never()).findByCorrelationId(any());
+    }
+
+    @Test
+    void takesOverAnInterruptedInstanceFromItsLastCheckpoint() throws InterruptedException {
+        WorkflowDefinition definition = definition(QUOTE);
+        interrupted(definition, instance -> instance.currentStep("quote").nextStepIndex(1));
+
+        engine.recoverInterruptedInstances();
+
+        WorkflowInstance completed = settled();
+        assertThat(completed.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.COMPLETED);
+        assertThat(sent).containsExactly("notifications");
+        // Tracking ends when the run returns, just after its last save.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (checkpoints.isTracked(INSTANCE_ID)) {
+            assertThat(System.nanoTime()).as("instance untracked").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void resendsTheRequestOfAReplyClaimedButNotStored() throws InterruptedException {
+        WorkflowDefinition definition = definition(QUOTE);
+        interrupted(definition, instance -> instance.currentStep("quote").nextStepIndex(1).correlationId("42-lost"));
+
+        engine.recoverInterruptedInstances();
+
+        WorkflowInstance paused = settled();
+        assertThat(paused.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.PAUSED);
+        assertThat(paused.getCorrelationId()).isNotEqualTo("42-lost");
+        assertThat(((ServiceCallMessage) awaitMessage("service-calls")).correlationId())
+                .isEqualTo(paused.getCorrelationId());
+    }
+
+    @Test
+    void leavesInstancesRunningHereOrClaimedByAnotherNodeAlone() {
+        definition(QUOTE);
+        when(instances.findInterruptedAfter(eq(0L), any(), any())).thenReturn(List.of(INSTANCE_ID, INSTANCE_ID + 1));
+        checkpoints.track(INSTANCE_ID);
+
+        engine.recoverInterruptedInstances();
+
+        verify(instances, never()).claimInterrupted(eq(INSTANCE_ID), any(), any());
+        verify(instances).claimInterrupted(eq(INSTANCE_ID + 1), any(), any());
+        verify(instances, never()).findById(any());
+    }
+
+    @Test
+    void failsAnInterruptedInstanceWhoseDefinitionChanged() throws InterruptedException {
+        WorkflowDefinition definition = definition(QUOTE);
+        interrupted(definition, instance -> instance.nextStepIndex(1).definitionRevision("edited-since"));
+
+        engine.recoverInterruptedInstances();
+
+        WorkflowInstance failed = settled();
+        assertThat(failed.getStatus()).isEqualTo(WorkflowInstance.InstanceStatus.FAILED);
+        assertThat(failed.getErrorMessage()).contains("changed since instance").contains("cannot continue at step 1");
+        assertThat(sent).isEmpty();
+    }
+
+    /**
+     * An instance left {@code RUNNING} by a crashed node, which this node may claim.
+     */
+    private void interrupted(WorkflowDefinition definition,
+                             UnaryOperator<WorkflowInstance.WorkflowInstanceBuilder> state) {
+        WorkflowInstance instance = state.apply(WorkflowInstance.builder()
+                        .id(INSTANCE_ID)
+                        .workflowDefinitionId(definition.getId())
+                        .instanceName("orders_1")
+                        .status(WorkflowInstance.InstanceStatus.RUNNING)
+                        .contextData("{\"orderId\": 1}")
+                        .definitionRevision(WorkflowPlan.revisionOf(definition))
+                        .startedAt(LocalDateTime.now().minusMinutes(10))
+                        .checkpointedAt(LocalDateTime.now().minusMinutes(5)))
+                .build();
+        when(instances.findInterruptedAfter(eq(0L), any(), any())).thenReturn(List.of(INSTANCE_ID));
+        when(instances.claimInterrupted(eq(INSTANCE_ID), any(), any())).thenReturn(1);
+        when(instances.findById(INSTANCE_ID)).thenReturn(Optional.of(instance));
+    }
+
+    private static final String QUOTE = """
+            {"steps": [
+              {"name": "quote", "type": "service_call", "service": "pricing", "endpoint": "/quote"},
+              {"name": "confirm", "type": "notification", "notificationType": "email", "message": "quoted"}
+            ]}""";
+
+    private static final String FAN_OUT = """
+            {"steps": [
+              {"name": "fan-out", "type": "parallel", "branches": [
+                {"name": "billing", "steps": [
+                  {"name": "invoice", "type": "data_processing", "processingType": "invoice", "batchSize": "1"}]},
+                {"name": "mail", "steps": [
+                  {"name": "confirm", "type": "notification", "notificationType": "email", "message": "ordered"}]}
+              ]},
+              {"name": "done", "type": "external_event", "eventType": "order-done"}
+            ]}""";
+
+    private WorkflowDefinition definition(String json) {
+        WorkflowDefinition definition = WorkflowDefinition.builder()
+                .id(7L)
+                .name("orders")
+                .version("1")
+                .definitionJson(json)
+                .updatedAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                .build();
+        when(definitions.findById(7L)).thenReturn(Optional.of(definition));
+        return definition;
+    }
+
+    /**
+     * Let the reply to {@code paused} claim it, as {@code claimReply} does in the database.
+     */
+    private void claimedByReply(WorkflowInstance paused) {
+        when(instances.claimReply(eq(paused.getCorrelationId()), any())).thenReturn(1);
+        when(instances.findByCorrelationId(paused.getCorrelationId())).thenReturn(Optional.of(claimed(paused)));
+    }
+
+    private static WorkflowInstance claimed(WorkflowInstance paused) {
+        return paused.toBuilder().status(WorkflowInstance.InstanceStatus.RUNNING).build();
+    }
+
+    private Object awaitMessage(String topic) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!sent.contains(topic)) {
+            assertThat(System.nanoTime()).as("message sent to " + topic).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+        return messages.get(sent.indexOf(topic));
+    }
+
+    /**
+     * The first save that takes the instance out of {@code RUNNING}.
+     */
+    private WorkflowInstance settled() throws InterruptedException {
+        while (true) {
+            WorkflowInstance instance = saved.poll(5, TimeUnit.SECONDS);
+            assertThat(instance).as("instance settled").isNotNull();
+            if (instance.getStatus() != WorkflowInstance.InstanceStatus.RUNNING) {
+                return instance;
+            }
+        }
+    }
+}
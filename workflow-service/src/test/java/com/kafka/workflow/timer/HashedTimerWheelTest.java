@@ -0,0 +1,97 @@
+package com.kafka.workflow.timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedTimerWheelTest {
+
+    private final BlockingQueue<Long> fired = new LinkedBlockingQueue<>();
+    private HashedTimerWheel wheel;
+
+    @AfterEach
+    void stopWheel() {
+        if (wheel != null) {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void firesTimersNoEarlierThanTheirDelay() throws InterruptedException {
+        wheel = new HashedTimerWheel("test-wheel", 10, 8, Runnable::run, fired::add);
+        long start = System.nanoTime();
+        wheel.schedule(1, 60);
+
+        assertThat(fired.poll(2, TimeUnit.SECONDS)).isEqualTo(1L);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(60);
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void firesTimersThatNeedSeveralRotationsInDeadlineOrder() throws InterruptedException {
+        // 4 buckets of 10 ms: 25 ms and 95 ms land in nearby buckets but 95 ms must wait two more rotations.
+        wheel = new HashedTimerWheel("test-wheel", 10, 4, Runnable::run, fired::add);
+        wheel.schedule(95, 95);
+        wheel.schedule(25, 25);
+        wheel.schedule(0, 0);
+
+        assertThat(fired.poll(2, TimeUnit.SECONDS)).isEqualTo(0L);
+        assertThat(fired.poll(2, TimeUnit.SECONDS)).isEqualTo(25L);
+        assertThat(fired.poll(2, TimeUnit.SECONDS)).isEqualTo(95L);
+    }
+
+    @Test
+    void cancelledTimersNeverFire() throws InterruptedException {
+        wheel = new HashedTimerWheel("test-wheel", 10, 8, Runnable::run, fired::add);
+        HashedTimerWheel.Timeout cancelled = wheel.schedule(1, 30);
+        wheel.schedule(2, 60);
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+        assertThat(fired.poll(2, TimeUnit.SECONDS)).isEqualTo(2L);
+        assertThat(fired.poll(50, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void expiredTimersCannotBeCancelled() throws InterruptedException {
+        wheel = new HashedTimerWheel("test-wheel", 10, 8, Runnable::run, fired::add);
+        HashedTimerWheel.Timeout timeout = wheel.schedule(7, 0);
+
+        assertThat(fired.poll(2, TimeUnit.SECONDS)).isEqualTo(7L);
+        assertThat(timeout.cancel()).isFalse();
+    }
+
+    @Test
+    void failingHandlerDoesNotStopTheWheel() throws InterruptedException {
+        List<Long> seen = new CopyOnWriteArrayList<>();
+        wheel = new HashedTimerWheel("test-wheel", 10, 8, Runnable::run, id -> {
+            seen.add(id);
+            if (id == 1) {
+                throw new IllegalStateException("boom");
+            }
+            fired.add(id);
+        });
+        wheel.schedule(1, 0);
+        wheel.schedule(2, 30);
+
+        assertThat(fired.poll(2, TimeUnit.SECONDS)).isEqualTo(2L);
+        assertThat(seen).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rejectsTimersOnceStopped() {
+        wheel = new HashedTimerWheel("test-wheel", 10, 8, Runnable::run, fired::add);
+        wheel.stop();
+
+        assertThatThrownBy(() -> wheel.schedule(1, 10)).isInstanceOf(IllegalStateException.class);
+    }
+}